@@ -0,0 +1,5 @@
+package com.sawy.LibrarySystem.batch;
+
+// An item of a batch request together with its position in the request.
+public record BatchItem<T>(int index, T value) {
+}
@@ -0,0 +1,125 @@
+package com.sawy.LibrarySystem.batch;
+
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Shared plumbing of the batch endpoints. Items are validated up front, and the valid ones are written in chunks
+ * of {@code library.batch.chunk-size}, one transaction per chunk, so Hibernate can send each chunk's statements as
+ * JDBC batches (see {@code hibernate.jdbc.batch_size}).
+ * <p>
+ * A chunk that fails is rolled back and replayed one item per transaction, so a bad row only fails itself and the
+ * response can say which one it was.
+ */
+@Component
+public class BatchWriter {
+
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BatchWriter(Validator validator,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${library.batch.chunk-size:500}") int chunkSize,
+                       @Value("${library.batch.max-items:10000}") int maxItems) {
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    // Writes one chunk inside its transaction and returns one result per item.
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+        List<BatchItemResult> write(List<BatchItem<T>> chunk);
+    }
+
+    // Numbers the items; missing (null) items fail.
+    public <T> List<BatchItem<T>> index(List<T> items, List<BatchItemResult> failures) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch can hold at most " + maxItems + " items");
+        }
+        List<BatchItem<T>> indexed = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == null) {
+                failures.add(BatchItemResult.failed(i, null, Map.of("item", "Item is missing")));
+            } else {
+                indexed.add(new BatchItem<>(i, items.get(i)));
+            }
+        }
+        return indexed;
+    }
+
+    // Numbers the items and runs bean validation on each; invalid items fail with their field errors.
+    public <T> List<BatchItem<T>> validate(List<T> items, List<BatchItemResult> failures) {
+        List<BatchItem<T>> valid = new ArrayList<>();
+        for (BatchItem<T> item : index(items, failures)) {
+            Set<ConstraintViolation<T>> violations = validator.validate(item.value());
+            if (violations.isEmpty()) {
+                valid.add(item);
+            } else {
+                Map<String, String> errors = violations.stream().collect(Collectors.toMap(
+                        violation -> violation.getPropertyPath().toString(),
+                        ConstraintViolation::getMessage,
+                        (first, second) -> first,
+                        LinkedHashMap::new));
+                failures.add(BatchItemResult.failed(item.index(), null, errors));
+            }
+        }
+        return valid;
+    }
+
+    public <T> List<BatchItemResult> write(List<BatchItem<T>> items, ChunkWriter<T> writer) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<BatchItem<T>> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> writer.write(chunk)));
+            } catch (RuntimeException chunkFailure) {
+                for (BatchItem<T> item : chunk) {
+                    try {
+                        results.addAll(transactionTemplate.execute(status -> writer.write(List.of(item))));
+                    } catch (RuntimeException itemFailure) {
+                        String message = NestedExceptionUtils.getMostSpecificCause(itemFailure).getMessage();
+                        results.add(BatchItemResult.failed(item.index(), null, Map.of("error", String.valueOf(message))));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // The values of the items that were written successfully.
+    public static <T> List<T> succeeded(List<BatchItem<T>> items, List<BatchItemResult> results) {
+        Set<Integer> written = results.stream()
+                .filter(BatchItemResult::succeeded)
+                .map(BatchItemResult::index)
+                .collect(Collectors.toSet());
+        return items.stream().filter(item -> written.contains(item.index())).map(BatchItem::value).toList();
+    }
+
+    // The saved entities, by item index, of the items that were written successfully. An item replayed after its
+    // chunk rolled back is saved twice, so only the instance from the committed save is in the result.
+    public static <T> List<T> succeeded(Map<Integer, T> saved, List<BatchItemResult> results) {
+        return results.stream()
+                .filter(BatchItemResult::succeeded)
+                .map(BatchItemResult::index)
+                .sorted()
+                .map(saved::get)
+                .toList();
+    }
+}
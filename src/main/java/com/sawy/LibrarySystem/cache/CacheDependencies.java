@@ -0,0 +1,61 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.dto.VerifiedCredential;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import org.springframework.data.domain.Slice;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Works out which entities a cached value was built from. Only id columns are read, never lazy associations,
+// so registering a value can't trigger extra selects.
+public final class CacheDependencies {
+
+    private CacheDependencies() {
+    }
+
+    public static Set<EntityRef> of(Object value) {
+        Set<EntityRef> refs = new HashSet<>();
+        if (value instanceof Slice<?> slice) {
+            slice.forEach(item -> collect(item, refs));
+        } else {
+            collect(value, refs);
+        }
+        return refs;
+    }
+
+    private static void collect(Object item, Set<EntityRef> refs) {
+        if (item instanceof Book book) {
+            add(refs, Book.class, book.getId());
+            add(refs, Author.class, book.getAuthorID());
+        } else if (item instanceof Author author) {
+            add(refs, Author.class, author.getId());
+        } else if (item instanceof Customer customer) {
+            add(refs, Customer.class, customer.getId());
+        } else if (item instanceof BorrowingRecord record) {
+            add(refs, BorrowingRecord.class, record.getId());
+            add(refs, Customer.class, record.getCustomerID());
+            add(refs, Book.class, record.getBookID());
+        } else if (item instanceof BookSummary summary) {
+            add(refs, Book.class, summary.id());
+            add(refs, Author.class, summary.authorID());
+        } else if (item instanceof BorrowingSummary summary) {
+            add(refs, BorrowingRecord.class, summary.id());
+            add(refs, Customer.class, summary.customerID());
+            add(refs, Book.class, summary.bookID());
+        } else if (item instanceof VerifiedCredential credential) {
+            add(refs, Customer.class, credential.customerID());
+        }
+    }
+
+    private static void add(Set<EntityRef> refs, Class<?> type, Object id) {
+        if (id != null) {
+            refs.add(new EntityRef(type, id));
+        }
+    }
+}
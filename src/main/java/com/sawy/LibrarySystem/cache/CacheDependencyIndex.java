@@ -0,0 +1,112 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Maps each entity to the cache entries (single entities, pages, search results) that were built from it,
+ * so a write can evict exactly those entries instead of wiping whole caches.
+ * <p>
+ * Membership changes (creates and deletes) still have to clear the unfiltered list caches because they shift
+ * every later page. Updates that move a row to another page under a non-id sort are only picked up when the
+ * affected pages expire.
+ */
+@Component
+public class CacheDependencyIndex {
+
+    private final Map<String, TrackingCaffeineCache> caches = new ConcurrentHashMap<>();
+    private final Map<EntityRef, Set<EntryRef>> dependents = new ConcurrentHashMap<>();
+    private final Map<EntryRef, Set<EntityRef>> dependencies = new ConcurrentHashMap<>();
+    // Pages put in a cache, by identity, for CachedPageJsonConverter; weakly held, so they go once the cache drops them.
+    private final Cache<Object, Boolean> cachedPages = Caffeine.newBuilder().weakKeys().build();
+
+    public void track(TrackingCaffeineCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    public void register(String cacheName, Object key, Object value) {
+        EntryRef entry = new EntryRef(cacheName, key);
+        forget(entry);
+        if (value instanceof Slice<?>) {
+            cachedPages.put(value, Boolean.TRUE);
+        }
+        Set<EntityRef> refs = CacheDependencies.of(value);
+        if (refs.isEmpty()) {
+            return;
+        }
+        dependencies.put(entry, refs);
+        refs.forEach(ref -> dependents.compute(ref, (k, entries) -> {
+            Set<EntryRef> updated = entries == null ? ConcurrentHashMap.newKeySet() : entries;
+            updated.add(entry);
+            return updated;
+        }));
+    }
+
+    public boolean isCachedPage(Object page) {
+        return cachedPages.getIfPresent(page) != null;
+    }
+
+    public void forget(String cacheName, Object key) {
+        forget(new EntryRef(cacheName, key));
+    }
+
+    public void forgetAll(String cacheName) {
+        List<EntryRef> entries = dependencies.keySet().stream()
+                .filter(entry -> entry.cacheName().equals(cacheName))
+                .toList();
+        entries.forEach(this::forget);
+    }
+
+    public void invalidate(Class<?> type, Object id) {
+        if (id == null) {
+            return;
+        }
+        Set<EntryRef> entries = dependents.remove(new EntityRef(type, id));
+        if (entries == null) {
+            return;
+        }
+        entries.forEach(entry -> {
+            TrackingCaffeineCache cache = caches.get(entry.cacheName());
+            if (cache != null) {
+                cache.evict(entry.key());
+            }
+        });
+    }
+
+    public void evictIf(String cacheName, Predicate<Object> keyFilter) {
+        TrackingCaffeineCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        List<Object> keys = cache.getNativeCache().asMap().keySet().stream()
+                .filter(keyFilter)
+                .toList();
+        keys.forEach(cache::evict);
+    }
+
+    public int size() {
+        return dependencies.size();
+    }
+
+    private void forget(EntryRef entry) {
+        Set<EntityRef> refs = dependencies.remove(entry);
+        if (refs == null) {
+            return;
+        }
+        refs.forEach(ref -> dependents.computeIfPresent(ref, (k, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        }));
+    }
+
+    private record EntryRef(String cacheName, Object key) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The JSON converter, keeping the bytes of the pages it writes from a page cache for as long as the page is cached.
+ * <p>
+ * A page served from a page cache is the same instance on every hit, so its bytes are looked up by identity and
+ * written out as they are, gzipped once for clients that accept it. They go when the page does: the entries are
+ * weakly keyed, and a write that evicts the page (see {@link CacheDependencyIndex}) leaves nothing to find them by.
+ * Pages that were never cached (filters, overdue loans) and other bodies are written straight out and compressed by
+ * the server as usual ({@code server.compression}).
+ */
+@Component
+public class CachedPageJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final Cache<Object, SerializedPage> pages;
+    private final long minGzipSize;
+
+    public CachedPageJsonConverter(ObjectMapper objectMapper,
+                                   CacheDependencyIndex cacheDependencyIndex,
+                                   @Value("${library.cache.response.max-size:64MB}") DataSize maxSize,
+                                   @Value("${server.compression.min-response-size:2KB}") DataSize minGzipSize) {
+        super(objectMapper);
+        this.cacheDependencyIndex = cacheDependencyIndex;
+        this.pages = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Object page, SerializedPage serialized) -> serialized.size())
+                .recordStats()
+                .build();
+        this.minGzipSize = minGzipSize.toBytes();
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!(object instanceof Slice<?>) || !cacheDependencyIndex.isCachedPage(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        SerializedPage page = pages.getIfPresent(object);
+        if (page == null) {
+            page = new SerializedPage(serialize(object, type, outputMessage.getHeaders()), null);
+            pages.put(object, page);
+        }
+        HttpHeaders headers = outputMessage.getHeaders();
+        byte[] body = page.json();
+        if (body.length >= minGzipSize) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip()) {
+                // Compressed on first use, as the clients of a page may all ask for it uncompressed.
+                if (page.gzipped() == null) {
+                    page = new SerializedPage(page.json(), gzip(page.json()));
+                    pages.put(object, page);
+                }
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                body = page.gzipped();
+            }
+        }
+        headers.setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    public long cachedPages() {
+        return pages.estimatedSize();
+    }
+
+    private byte[] serialize(Object object, Type type, HttpHeaders headers) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return buffer.toByteArray();
+    }
+
+    private static boolean acceptsGzip() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        String acceptEncoding = attributes.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        }
+        return buffer.toByteArray();
+    }
+
+    private record SerializedPage(byte[] json, byte[] gzipped) {
+
+        int size() {
+            return json.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
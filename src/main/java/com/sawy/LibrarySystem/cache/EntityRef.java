@@ -0,0 +1,4 @@
+package com.sawy.LibrarySystem.cache;
+
+public record EntityRef(Class<?> type, Object id) {
+}
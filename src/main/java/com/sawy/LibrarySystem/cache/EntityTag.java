@@ -0,0 +1,137 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * The ETag and Last-Modified of a response body, worked out from the versions and update times of the entities it
+ * holds rather than from its serialized form, so a matching conditional request is answered before serializing.
+ * <p>
+ * The tag covers what the JSON shows: the entity, the associations that are loaded (one level deep, as the
+ * {@code @JsonIgnoreProperties} on them cut the rest), the page or scroll position of lists, and the values that
+ * change without a version bump, i.e. whether a book is available. Any change to those gives a new tag.
+ * <p>
+ * Last-Modified is only given for a single entity. A list's latest update does not move when one of its rows is
+ * deleted or rows shift to another page, so lists are compared by their tag alone.
+ * <p>
+ * Tags are weak: they stand for the content, not the bytes, so the server may still gzip the body.
+ */
+public record EntityTag(String etag, Instant lastModified) {
+
+    public static EntityTag of(Object body) {
+        Tagger tagger = new Tagger();
+        tagger.body(body);
+        return new EntityTag(tagger.etag(), tagger.list ? null : tagger.lastModified);
+    }
+
+    private static final class Tagger {
+
+        private final StringBuilder parts = new StringBuilder();
+        private Instant lastModified;
+        private boolean list;
+
+        void body(Object body) {
+            list = body instanceof Slice<?> || body instanceof CursorPage<?> || body instanceof Collection<?>;
+            if (body instanceof Slice<?> slice) {
+                add("slice", slice.getNumber(), slice.getSize(), slice.getNumberOfElements(), slice.hasNext());
+                if (slice instanceof Page<?> page) {
+                    add("total", page.getTotalElements());
+                }
+                slice.forEach(item -> entity(item, true));
+            } else if (body instanceof CursorPage<?> cursorPage) {
+                add("cursor", cursorPage.size(), cursorPage.hasNext(), cursorPage.nextCursor());
+                cursorPage.content().forEach(item -> entity(item, true));
+            } else if (body instanceof Collection<?> items) {
+                add("list", items.size());
+                items.forEach(item -> entity(item, true));
+            } else {
+                entity(body, true);
+            }
+        }
+
+        private void entity(Object item, boolean withAssociations) {
+            if (item instanceof Book book) {
+                versioned("book", book.getId(), book.getVersion(), book.getUpdatedAt());
+                add(book.isAvailable());
+                if (withAssociations) {
+                    association(book.getAuthor());
+                    associations(book.getBorrowingRecords());
+                }
+            } else if (item instanceof Author author) {
+                versioned("author", author.getId(), author.getVersion(), author.getUpdatedAt());
+                if (withAssociations) {
+                    associations(author.getBooks());
+                }
+            } else if (item instanceof Customer customer) {
+                versioned("customer", customer.getId(), customer.getVersion(), customer.getUpdatedAt());
+                if (withAssociations) {
+                    associations(customer.getBorrowingRecords());
+                }
+            } else if (item instanceof BorrowingRecord record) {
+                versioned("borrowingRecord", record.getId(), record.getVersion(), record.getUpdatedAt());
+                if (withAssociations) {
+                    association(record.getCustomer());
+                    association(record.getBook());
+                }
+            }
+        }
+
+        // Associations that are not loaded are written as their id or null, which the owner's version covers.
+        private void association(Object associated) {
+            if (associated != null && Hibernate.isInitialized(associated)) {
+                entity(associated, false);
+            } else {
+                add("unloaded");
+            }
+        }
+
+        private void associations(Collection<?> associated) {
+            if (associated != null && Hibernate.isInitialized(associated)) {
+                add("many", associated.size());
+                associated.forEach(item -> entity(item, false));
+            } else {
+                add("unloaded");
+            }
+        }
+
+        private void versioned(String type, Long id, Long version, LocalDateTime updatedAt) {
+            add(type, id, version);
+            if (updatedAt != null) {
+                Instant modified = updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+                if (lastModified == null || modified.isAfter(lastModified)) {
+                    lastModified = modified;
+                }
+            }
+        }
+
+        private void add(Object... values) {
+            Arrays.stream(values).forEach(value -> parts.append(value).append(':'));
+            parts.append('|');
+        }
+
+        String etag() {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(parts.toString().getBytes(StandardCharsets.UTF_8));
+                return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
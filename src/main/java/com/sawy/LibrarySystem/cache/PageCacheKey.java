@@ -0,0 +1,34 @@
+package com.sawy.LibrarySystem.cache;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// The whole shape of a paged query. Text terms are lower-cased because every search is case-insensitive.
+// The view is whatever else changes the result, such as the fetch plan of a list query.
+public record PageCacheKey(Object term, int page, int size, String sortBy, boolean ascending, Object view) {
+
+    public static PageCacheKey of(Object term, int page, int size, String sortBy, String sortOrder) {
+        return of(term, page, size, sortBy, sortOrder, null);
+    }
+
+    public static PageCacheKey of(Object term, int page, int size, String sortBy, String sortOrder, Object view) {
+        Object normalizedTerm = term instanceof String text ? text.toLowerCase(Locale.ROOT) : term;
+        return new PageCacheKey(normalizedTerm, page, size, sortBy, sortOrder.equalsIgnoreCase("asc"), view);
+    }
+
+    public static Predicate<Object> withTerm(Object term) {
+        return key -> key instanceof PageCacheKey pageKey && Objects.equals(pageKey.term(), term);
+    }
+
+    // Matches the cached "containing, ignoring case" searches whose results could include the given value.
+    public static Predicate<Object> termContainedIn(String value) {
+        if (value == null) {
+            return key -> false;
+        }
+        String normalizedValue = value.toLowerCase(Locale.ROOT);
+        return key -> key instanceof PageCacheKey pageKey
+                && pageKey.term() instanceof String term
+                && normalizedValue.contains(term);
+    }
+}
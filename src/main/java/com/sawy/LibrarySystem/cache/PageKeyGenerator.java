@@ -0,0 +1,33 @@
+package com.sawy.LibrarySystem.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+// Paged service methods take (page, size, sortBy, sortOrder), optionally preceded by a single search term.
+// Whatever follows them (fetch plan, total mode) is the view.
+@Component("pageKeyGenerator")
+public class PageKeyGenerator implements KeyGenerator {
+
+    private static final int PAGING_ARGS = 4;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        int offset = params.length > 0 && params[0] instanceof Integer ? 0 : 1;
+        if (params.length < offset + PAGING_ARGS) {
+            throw new IllegalStateException("Method " + method.getName() + " is not a paged query");
+        }
+        Object term = offset == 1 ? params[0] : null;
+        List<Object> trailing = Arrays.asList(params).subList(offset + PAGING_ARGS, params.length);
+        Object view = switch (trailing.size()) {
+            case 0 -> null;
+            case 1 -> trailing.get(0);
+            default -> List.copyOf(trailing);
+        };
+        return PageCacheKey.of(term, (int) params[offset], (int) params[offset + 1],
+                (String) params[offset + 2], (String) params[offset + 3], view);
+    }
+}
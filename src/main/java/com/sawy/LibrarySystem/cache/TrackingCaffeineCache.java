@@ -0,0 +1,57 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+// Caffeine cache that reports every write and explicit eviction to the dependency index.
+public class TrackingCaffeineCache extends CaffeineCache {
+
+    private final CacheDependencyIndex dependencyIndex;
+
+    public TrackingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                                 CacheDependencyIndex dependencyIndex) {
+        super(name, cache, allowNullValues);
+        this.dependencyIndex = dependencyIndex;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        dependencyIndex.register(getName(), key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            dependencyIndex.register(getName(), key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        dependencyIndex.forget(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = super.evictIfPresent(key);
+        dependencyIndex.forget(getName(), key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        dependencyIndex.forgetAll(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = super.invalidate();
+        dependencyIndex.forgetAll(getName());
+        return invalidated;
+    }
+}
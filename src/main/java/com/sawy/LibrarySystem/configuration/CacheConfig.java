@@ -0,0 +1,101 @@
+package com.sawy.LibrarySystem.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.TrackingCaffeineCache;
+import com.sawy.LibrarySystem.credential.CredentialService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.util.List;
+
+// Caffeine uses W-TinyLFU admission, so one-off scans (deep pages, rare searches) don't push out the hot entries.
+// Single entities are bounded by count, pages by the number of rows they hold.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final List<String> ENTITY_CACHES = List.of("book", "author", "customer", "borrowingRecord");
+
+    public static final List<String> PAGE_CACHES = List.of(
+            "books", "booksByTitle", "booksByAuthor", "booksByIsbn", "bookSummaries",
+            "authors", "customers",
+            "borrowingRecords", "borrowingRecordsByCustomerId", "borrowingRecordsByBookId", "borrowingSummaries");
+
+    @Value("${library.cache.entity.max-size:10000}")
+    private long entityMaxSize;
+
+    @Value("${library.cache.entity.ttl:10m}")
+    private Duration entityTtl;
+
+    @Value("${library.cache.page.max-weight:50000}")
+    private long pageMaxWeight;
+
+    @Value("${library.cache.page.ttl:2m}")
+    private Duration pageTtl;
+
+    @Value("${library.cache.credential.max-size:10000}")
+    private long credentialMaxSize;
+
+    @Value("${library.cache.credential.ttl:5m}")
+    private Duration credentialTtl;
+
+    @Value("${library.cache.row-count.ttl:1m}")
+    private Duration rowCountTtl;
+
+    @Bean
+    public CacheManager cacheManager(CacheDependencyIndex dependencyIndex) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                TrackingCaffeineCache trackingCache = new TrackingCaffeineCache(name, cache, isAllowNullValues(), dependencyIndex);
+                dependencyIndex.track(trackingCache);
+                return trackingCache;
+            }
+        };
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(entityMaxSize)
+                .expireAfterWrite(entityTtl)
+                .recordStats());
+        ENTITY_CACHES.forEach(name -> cacheManager.registerCustomCache(name, entityCache(name, dependencyIndex)));
+        PAGE_CACHES.forEach(name -> cacheManager.registerCustomCache(name, pageCache(name, dependencyIndex)));
+        cacheManager.registerCustomCache(CredentialService.CACHE, Caffeine.newBuilder()
+                .maximumSize(credentialMaxSize)
+                .expireAfterWrite(credentialTtl)
+                .evictionListener((Object key, Object value, RemovalCause cause) -> dependencyIndex.forget(CredentialService.CACHE, key))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache("rowCounts", Caffeine.newBuilder()
+                .expireAfterWrite(rowCountTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> entityCache(String name, CacheDependencyIndex dependencyIndex) {
+        return Caffeine.newBuilder()
+                .maximumSize(entityMaxSize)
+                .expireAfterWrite(entityTtl)
+                .evictionListener((Object key, Object value, RemovalCause cause) -> dependencyIndex.forget(name, key))
+                .recordStats()
+                .build();
+    }
+
+    private Cache<Object, Object> pageCache(String name, CacheDependencyIndex dependencyIndex) {
+        return Caffeine.newBuilder()
+                .maximumWeight(pageMaxWeight)
+                .weigher((Object key, Object value) -> value instanceof Slice<?> slice ? slice.getNumberOfElements() + 1 : 1)
+                .expireAfterWrite(pageTtl)
+                .evictionListener((Object key, Object value, RemovalCause cause) -> dependencyIndex.forget(name, key))
+                .recordStats()
+                .build();
+    }
+}
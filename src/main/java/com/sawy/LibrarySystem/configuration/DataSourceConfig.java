@@ -0,0 +1,33 @@
+package com.sawy.LibrarySystem.configuration;
+
+import com.sawy.LibrarySystem.datasource.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Puts the connection guard in front of the pool; the pool size less the reserved connections may be held by
+    // requests at once.
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                int reserved = environment.getProperty("library.db.reserved-connections", Integer.class, 2);
+                Duration acquireTimeout = environment.getProperty("library.db.acquire-timeout", Duration.class, Duration.ofSeconds(5));
+                return new ConnectionLimitingDataSource(dataSource, Math.max(1, poolSize - reserved), acquireTimeout);
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.sawy.LibrarySystem.configuration;
+
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sawy.LibrarySystem.json.LibraryJsonModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Associations left out of the fetch plan are written as their id (or null for collections)
+    // instead of being lazily loaded during serialization.
+    @Bean
+    public Hibernate6Module hibernateModule() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        return module;
+    }
+
+    // Entities and their pages are written by hand; the other bodies go through accessors generated at runtime
+    // instead of reflection.
+    @Bean
+    public LibraryJsonModule libraryJsonModule() {
+        return new LibraryJsonModule();
+    }
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,10 @@
+package com.sawy.LibrarySystem.configuration;
+
+import com.sawy.LibrarySystem.repository.FetchPlanJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "com.sawy.LibrarySystem.repository", repositoryBaseClass = FetchPlanJpaRepository.class)
+public class JpaConfig {
+}
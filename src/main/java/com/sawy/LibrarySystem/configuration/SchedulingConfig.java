@@ -0,0 +1,11 @@
+package com.sawy.LibrarySystem.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Periodic background work, e.g. reloading the availability counters, expiring uncollected holds and
+// finding overdue loans.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,16 +1,21 @@
 package com.sawy.LibrarySystem.controller;
 
+import com.sawy.LibrarySystem.dto.BatchResult;
 import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -26,12 +31,24 @@ public class AuthorController {
             @ApiResponse(responseCode = "404", description = "Authors not found", content = @Content)
     })
     @GetMapping("/authors")
-    public ResponseEntity<Page<Author>> getAllAuthors(@RequestParam(defaultValue = "0") int page,
-                                                      @RequestParam(defaultValue = "10") int size,
-                                                      @RequestParam(defaultValue = "id") String sortBy,
-                                                      @RequestParam(defaultValue = "asc") String sortOrder) {
-        Page<Author> authors = authorService.getAllAuthors(page, size, sortBy, sortOrder);
-        return ResponseEntity.ok(authors);
+    public ResponseEntity<Slice<Author>> getAllAuthors(@RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "10") int size,
+                                                       @RequestParam(defaultValue = "id") String sortBy,
+                                                       @RequestParam(defaultValue = "asc") String sortOrder,
+                                                       @RequestParam(defaultValue = "all") String expand,
+                                                       @RequestParam(defaultValue = "true") String withTotal) {
+        Slice<Author> authors = authorService.getAllAuthors(page, size, sortBy, sortOrder, FetchPlan.parse(expand), TotalMode.parse(withTotal));
+        return ConditionalResponses.ok(authors);
+    }
+
+    @GetMapping("/authors/scroll")
+    public ResponseEntity<CursorPage<Author>> scrollAuthors(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "10") int size,
+                                                            @RequestParam(defaultValue = "id") String sortBy,
+                                                            @RequestParam(defaultValue = "asc") String sortOrder,
+                                                            @RequestParam(defaultValue = "all") String expand) {
+        CursorPage<Author> authors = authorService.scrollAuthors(cursor, size, sortBy, sortOrder, FetchPlan.parse(expand));
+        return ConditionalResponses.ok(authors);
     }
 
     @Operation(summary = "Get specific author")
@@ -40,9 +57,10 @@ public class AuthorController {
             @ApiResponse(responseCode = "404", description = "Author not found", content = @Content)
     })
     @GetMapping("/authors/{id}")
-    public ResponseEntity<Author> getAuthorById(@PathVariable Long id) {
-        Optional<Author> author = authorService.getAuthorById(id);
-        return author.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Author> getAuthorById(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "all") String expand) {
+        Optional<Author> author = authorService.getAuthorById(id, FetchPlan.parse(expand));
+        return author.map(ConditionalResponses::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Create new author")
@@ -56,6 +74,33 @@ public class AuthorController {
         return ResponseEntity.ok(createdAuthor);
     }
 
+    @Operation(summary = "Create several authors")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of each author, in request order")
+    })
+    @PostMapping("/authors/batch")
+    public ResponseEntity<BatchResult> createAuthors(@RequestBody List<Author> authors) {
+        return ResponseEntity.ok(authorService.createAuthors(authors));
+    }
+
+    @Operation(summary = "Update several authors")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of each author, in request order")
+    })
+    @PutMapping("/authors/batch")
+    public ResponseEntity<BatchResult> updateAuthors(@RequestBody List<Author> authors) {
+        return ResponseEntity.ok(authorService.updateAuthors(authors));
+    }
+
+    @Operation(summary = "Delete several authors")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of each author, in request order")
+    })
+    @DeleteMapping("/authors/batch")
+    public ResponseEntity<BatchResult> deleteAuthors(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(authorService.deleteAuthors(ids));
+    }
+
     @Operation(summary = "Update author")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Author updated"),
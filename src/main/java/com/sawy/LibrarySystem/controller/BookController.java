@@ -1,14 +1,36 @@
 package com.sawy.LibrarySystem.controller;
 
+import com.sawy.LibrarySystem.dto.Availability;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.ImportResult;
+import com.sawy.LibrarySystem.dto.Suggestion;
 import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.service.BookImportService;
 import com.sawy.LibrarySystem.service.BookService;
+import com.sawy.LibrarySystem.service.InventoryService;
+import com.sawy.LibrarySystem.transfer.DataFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -16,27 +38,79 @@ import java.util.Optional;
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final InventoryService inventoryService;
 
     @GetMapping("/books")
-    public ResponseEntity<Page<Book>> getAllBooks(@RequestParam(defaultValue = "0") int page,
-                                                  @RequestParam(defaultValue = "10") int size,
-                                                  @RequestParam(defaultValue = "id") String sortBy,
-                                                  @RequestParam(defaultValue = "asc") String sortOrder) {
-        Page<Book> books = bookService.getAllBooks(page, size, sortBy, sortOrder);
-        books.getContent().forEach(book -> {
-            book.setAuthorID(book.getAuthor().getId());
-            book.getBorrowingRecords().forEach(record -> {
-                record.setCustomerID(record.getCustomer().getId());
-                record.setBookID(record.getBook().getId());
-            });
-        });
+    public ResponseEntity<Slice<Book>> getAllBooks(@RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(defaultValue = "id") String sortBy,
+                                                   @RequestParam(defaultValue = "asc") String sortOrder,
+                                                   @RequestParam(defaultValue = "all") String expand,
+                                                   @RequestParam(defaultValue = "true") String withTotal) {
+        Slice<Book> books = bookService.getAllBooks(page, size, sortBy, sortOrder, FetchPlan.parse(expand), TotalMode.parse(withTotal));
+        return ConditionalResponses.ok(books);
+    }
+
+    @GetMapping("/books/scroll")
+    public ResponseEntity<CursorPage<Book>> scrollBooks(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "10") int size,
+                                                        @RequestParam(defaultValue = "id") String sortBy,
+                                                        @RequestParam(defaultValue = "asc") String sortOrder,
+                                                        @RequestParam(defaultValue = "all") String expand) {
+        CursorPage<Book> books = bookService.scrollBooks(cursor, size, sortBy, sortOrder, FetchPlan.parse(expand));
+        return ConditionalResponses.ok(books);
+    }
+
+    @GetMapping("/books/summaries")
+    public ResponseEntity<Page<BookSummary>> getBookSummaries(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "10") int size,
+                                                              @RequestParam(defaultValue = "id") String sortBy,
+                                                              @RequestParam(defaultValue = "asc") String sortOrder) {
+        Page<BookSummary> books = bookService.getBookSummaries(page, size, sortBy, sortOrder);
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat exportFormat = DataFormat.parse(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("books"))
+                .body(out -> bookService.exportBooks(exportFormat, out));
+    }
+
+    // The body is read as it arrives, so files of any size can be posted.
+    @PostMapping("/books/import")
+    public ResponseEntity<ImportResult> importBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                                    InputStream body) throws IOException {
+        DataFormat importFormat = DataFormat.parse(format);
+        return ResponseEntity.ok(bookImportService.importBooks(body, importFormat));
+    }
+
     @GetMapping("/books/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-        Optional<Book> book = bookService.getBookById(id);
-        return book.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Book> getBookById(@PathVariable Long id,
+                                          @RequestParam(defaultValue = "all") String expand) {
+        Optional<Book> book = bookService.getBookById(id, FetchPlan.parse(expand));
+        return book.map(ConditionalResponses::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/books/{id}/availability")
+    public ResponseEntity<Availability> getAvailability(@PathVariable Long id) {
+        Optional<Availability> availability = inventoryService.getAvailability(id);
+        return availability.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/books/{id}/stock")
+    public ResponseEntity<List<BookStock>> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.getStock(id));
+    }
+
+    // Sets how many copies the branch holds: 409 if more than that are on loan there.
+    @PutMapping("/books/{id}/stock/{branch}")
+    public ResponseEntity<BookStock> setStock(@PathVariable Long id, @PathVariable String branch, @RequestBody BookStock stock) {
+        Optional<BookStock> updatedStock = inventoryService.setTotalCopies(id, branch, stock.getTotalCopies());
+        return updatedStock.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/books")
@@ -45,6 +119,21 @@ public class BookController {
         return ResponseEntity.ok(createdBook);
     }
 
+    @PostMapping("/books/batch")
+    public ResponseEntity<BatchResult> createBooks(@RequestBody List<Book> books) {
+        return ResponseEntity.ok(bookService.createBooks(books));
+    }
+
+    @PutMapping("/books/batch")
+    public ResponseEntity<BatchResult> updateBooks(@RequestBody List<Book> books) {
+        return ResponseEntity.ok(bookService.updateBooks(books));
+    }
+
+    @DeleteMapping("/books/batch")
+    public ResponseEntity<BatchResult> deleteBooks(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(bookService.deleteBooks(ids));
+    }
+
     @PutMapping("/books/{id}")
     public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book bookDetails) {
         Optional<Book> updatedBook = bookService.updateBook(id, bookDetails);
@@ -58,34 +147,100 @@ public class BookController {
     }
 
     @GetMapping("/books/search")
-    public ResponseEntity<Page<Book>> searchBooks(@RequestParam(required = false) String title,
-                                                  @RequestParam(required = false) String author,
-                                                  @RequestParam(required = false) String isbn,
-                                                  @RequestParam(defaultValue = "0") int page,
-                                                  @RequestParam(defaultValue = "10") int size,
-                                                  @RequestParam(defaultValue = "id") String sortBy,
-                                                  @RequestParam(defaultValue = "asc") String sortOrder) {
-        // Check if no parameters are sent
-        if ((title == null || title.isEmpty()) && (author == null || author.isEmpty()) && (isbn == null || isbn.isEmpty())) {
+    public ResponseEntity<Slice<Book>> searchBooks(@RequestParam(required = false) String q,
+                                                   @RequestParam(required = false) String title,
+                                                   @RequestParam(required = false) String author,
+                                                   @RequestParam(required = false) String isbn,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(defaultValue = "id") String sortBy,
+                                                   @RequestParam(defaultValue = "asc") String sortOrder,
+                                                   @RequestParam(defaultValue = "true") String withTotal) {
+        // Exactly one search parameter must be provided
+        long provided = Stream.of(q, title, author, isbn).filter(term -> term != null && !term.isEmpty()).count();
+        if (provided != 1) {
             return ResponseEntity.badRequest().build();
         }
 
-        // Check if more than one parameter is provided
-        if ((title != null && !title.isEmpty()) && ((author != null && !author.isEmpty()) || (isbn != null && !isbn.isEmpty())) ||
-                ((author != null && !author.isEmpty()) && ((title != null && !title.isEmpty()) || (isbn != null && !isbn.isEmpty()))) ||
-                ((isbn != null && !isbn.isEmpty()) && ((title != null && !title.isEmpty()) || (author != null && !author.isEmpty())))) {
+        // A table row count says nothing about how many rows match a search
+        TotalMode total = TotalMode.parse(withTotal);
+        if (total == TotalMode.APPROXIMATE) {
             return ResponseEntity.badRequest().build();
         }
 
         // Search based on the provided parameter
-        Page<Book> books;
+        Slice<Book> books;
+        if (q != null && !q.isEmpty()) {
+            books = bookService.searchBooks(q, page, size);
+        } else if (title != null && !title.isEmpty()) {
+            books = bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder, total);
+        } else if (author != null && !author.isEmpty()) {
+            books = bookService.searchBooksByAuthor(author, page, size, sortBy, sortOrder, total);
+        } else {
+            books = bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder, total);
+        }
+        return ConditionalResponses.ok(books);
+    }
+
+    @GetMapping("/books/suggest")
+    public ResponseEntity<List<Suggestion>> suggestBooks(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.suggestBooks(q, limit));
+    }
+
+    @GetMapping("/books/filter")
+    public ResponseEntity<Slice<Book>> filterBooks(@RequestParam(required = false) String isbn,
+                                                   @RequestParam(required = false) String title,
+                                                   @RequestParam(required = false) String author,
+                                                   @RequestParam(required = false) String genre,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedFrom,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedTo,
+                                                   @RequestParam(required = false) Boolean available,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(defaultValue = "id") String sortBy,
+                                                   @RequestParam(defaultValue = "asc") String sortOrder,
+                                                   @RequestParam(defaultValue = "true") String withTotal) {
+        // All given criteria must match; at least one is required
+        BookFilter filter = new BookFilter(isbn, title, author, genre, publishedFrom, publishedTo, available);
+        if (filter.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        TotalMode total = TotalMode.parse(withTotal);
+        if (total == TotalMode.APPROXIMATE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<Book> books = bookService.filterBooks(filter, page, size, sortBy, sortOrder, total);
+        return ConditionalResponses.ok(books);
+    }
+
+    @GetMapping("/books/search/scroll")
+    public ResponseEntity<CursorPage<Book>> scrollBookSearch(@RequestParam(required = false) String title,
+                                                             @RequestParam(required = false) String author,
+                                                             @RequestParam(required = false) String isbn,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(defaultValue = "id") String sortBy,
+                                                             @RequestParam(defaultValue = "asc") String sortOrder) {
+        // Exactly one search parameter must be provided
+        long provided = Stream.of(title, author, isbn).filter(term -> term != null && !term.isEmpty()).count();
+        if (provided != 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CursorPage<Book> books;
         if (title != null && !title.isEmpty()) {
-            books = bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder);
+            books = bookService.scrollBooksByTitle(title, cursor, size, sortBy, sortOrder);
         } else if (author != null && !author.isEmpty()) {
-            books = bookService.searchBooksByAuthor(author, page, size, sortBy, sortOrder);
+            books = bookService.scrollBooksByAuthor(author, cursor, size, sortBy, sortOrder);
         } else {
-            books = bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder);
+            books = bookService.scrollBooksByIsbn(isbn, cursor, size, sortBy, sortOrder);
         }
-        return ResponseEntity.ok(books);
+        return ConditionalResponses.ok(books);
     }
 }
@@ -1,12 +1,22 @@
 package com.sawy.LibrarySystem.controller;
 
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.dto.OverdueLoan;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.BorrowingRecordService;
+import com.sawy.LibrarySystem.service.CheckoutService;
+import com.sawy.LibrarySystem.transfer.DataFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Optional;
 
@@ -16,24 +26,59 @@ import java.util.Optional;
 public class BorrowingRecordController {
 
     private final BorrowingRecordService borrowingRecordService;
+    private final CheckoutService checkoutService;
 
     @GetMapping("/borrowings")
-    public ResponseEntity<Page<BorrowingRecord>> getAllBorrowingRecords(@RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<Slice<BorrowingRecord>> getAllBorrowingRecords(@RequestParam(defaultValue = "0") int page,
+                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                         @RequestParam(defaultValue = "id") String sortBy,
+                                                                         @RequestParam(defaultValue = "asc") String sortOrder,
+                                                                         @RequestParam(defaultValue = "all") String expand,
+                                                                         @RequestParam(defaultValue = "true") String withTotal) {
+        Slice<BorrowingRecord> borrowingRecords = borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder, FetchPlan.parse(expand), TotalMode.parse(withTotal));
+        return ConditionalResponses.ok(borrowingRecords);
+    }
+
+    @GetMapping("/borrowings/scroll")
+    public ResponseEntity<CursorPage<BorrowingRecord>> scrollBorrowingRecords(@RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "10") int size,
+                                                                              @RequestParam(defaultValue = "id") String sortBy,
+                                                                              @RequestParam(defaultValue = "asc") String sortOrder,
+                                                                              @RequestParam(defaultValue = "all") String expand) {
+        CursorPage<BorrowingRecord> borrowingRecords = borrowingRecordService.scrollBorrowingRecords(cursor, size, sortBy, sortOrder, FetchPlan.parse(expand));
+        return ConditionalResponses.ok(borrowingRecords);
+    }
+
+    @GetMapping("/borrowings/summaries")
+    public ResponseEntity<Page<BorrowingSummary>> getBorrowingSummaries(@RequestParam(defaultValue = "0") int page,
                                                                         @RequestParam(defaultValue = "10") int size,
                                                                         @RequestParam(defaultValue = "id") String sortBy,
                                                                         @RequestParam(defaultValue = "asc") String sortOrder) {
-        Page<BorrowingRecord> borrowingRecords = borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder);
-        borrowingRecords.getContent().forEach(record -> {
-            record.setCustomerID(record.getCustomer().getId());
-            record.setBookID(record.getBook().getId());
-        });
+        Page<BorrowingSummary> borrowingRecords = borrowingRecordService.getBorrowingSummaries(page, size, sortBy, sortOrder);
         return ResponseEntity.ok(borrowingRecords);
     }
 
+    // Open loans past their return date, longest overdue first, with the fine each has run up so far.
+    @GetMapping("/borrowings/overdue")
+    public ResponseEntity<Slice<OverdueLoan>> getOverdueLoans(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(borrowingRecordService.getOverdueLoans(page, size));
+    }
+
+    @GetMapping("/borrowings/export")
+    public ResponseEntity<StreamingResponseBody> exportBorrowingRecords(@RequestParam(defaultValue = "ndjson") String format) {
+        DataFormat exportFormat = DataFormat.parse(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.contentDisposition("borrowings"))
+                .body(out -> borrowingRecordService.exportBorrowingRecords(exportFormat, out));
+    }
+
     @GetMapping("/borrowings/{id}")
-    public ResponseEntity<BorrowingRecord> getBorrowingRecordById(@PathVariable Long id) {
-        Optional<BorrowingRecord> borrowingRecord = borrowingRecordService.getBorrowingRecordById(id);
-        return borrowingRecord.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<BorrowingRecord> getBorrowingRecordById(@PathVariable Long id,
+                                                                @RequestParam(defaultValue = "all") String expand) {
+        Optional<BorrowingRecord> borrowingRecord = borrowingRecordService.getBorrowingRecordById(id, FetchPlan.parse(expand));
+        return borrowingRecord.map(ConditionalResponses::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/borrowings")
@@ -42,6 +87,21 @@ public class BorrowingRecordController {
         return ResponseEntity.ok(createdBorrowingRecord);
     }
 
+    // Lends a copy of the book, from the branch if one is given: 409 if no copy is left.
+    @PostMapping("/borrowings/checkout")
+    public ResponseEntity<BorrowingRecord> checkout(@RequestBody BorrowingRecord borrowingRecord) {
+        BorrowingRecord createdBorrowingRecord = checkoutService.checkout(borrowingRecord.getCustomerID(), borrowingRecord.getBookID(),
+                borrowingRecord.getBranch());
+        return ResponseEntity.ok(createdBorrowingRecord);
+    }
+
+    // Closes the loan: 409 if it was already returned.
+    @PostMapping("/borrowings/{id}/return")
+    public ResponseEntity<BorrowingRecord> returnBook(@PathVariable Long id) {
+        Optional<BorrowingRecord> returnedBorrowingRecord = checkoutService.returnBook(id);
+        return returnedBorrowingRecord.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/borrowings/{id}")
     public ResponseEntity<BorrowingRecord> updateBorrowingRecord(@PathVariable Long id, @RequestBody BorrowingRecord borrowingRecordDetails) {
         Optional<BorrowingRecord> updatedBorrowingRecord = borrowingRecordService.updateBorrowingRecord(id, borrowingRecordDetails);
@@ -55,12 +115,13 @@ public class BorrowingRecordController {
     }
 
     @GetMapping("/borrowings/search")
-    public ResponseEntity<Page<BorrowingRecord>> searchBorrowingRecords(@RequestParam(required = false) Long userId,
-                                                                        @RequestParam(required = false) Long bookId,
-                                                                        @RequestParam(defaultValue = "0") int page,
-                                                                        @RequestParam(defaultValue = "10") int size,
-                                                                        @RequestParam(defaultValue = "id") String sortBy,
-                                                                        @RequestParam(defaultValue = "asc") String sortOrder) {
+    public ResponseEntity<Slice<BorrowingRecord>> searchBorrowingRecords(@RequestParam(required = false) Long userId,
+                                                                         @RequestParam(required = false) Long bookId,
+                                                                         @RequestParam(defaultValue = "0") int page,
+                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                         @RequestParam(defaultValue = "id") String sortBy,
+                                                                         @RequestParam(defaultValue = "asc") String sortOrder,
+                                                                         @RequestParam(defaultValue = "true") String withTotal) {
         // Check if no parameters are provided
         if (userId == null && bookId == null) {
             return ResponseEntity.badRequest().build();
@@ -71,13 +132,40 @@ public class BorrowingRecordController {
             return ResponseEntity.badRequest().build();
         }
 
+        // A table row count says nothing about how many rows match a search
+        TotalMode total = TotalMode.parse(withTotal);
+        if (total == TotalMode.APPROXIMATE) {
+            return ResponseEntity.badRequest().build();
+        }
+
         // Search based on the provided parameter
-        Page<BorrowingRecord> borrowingRecords;
+        Slice<BorrowingRecord> borrowingRecords;
         if (userId != null) {
-            borrowingRecords = borrowingRecordService.getBorrowingRecordsByCustomerId(userId, page, size, sortBy, sortOrder);
+            borrowingRecords = borrowingRecordService.getBorrowingRecordsByCustomerId(userId, page, size, sortBy, sortOrder, total);
         } else {
-            borrowingRecords = borrowingRecordService.getBorrowingRecordsByBookId(bookId, page, size, sortBy, sortOrder);
+            borrowingRecords = borrowingRecordService.getBorrowingRecordsByBookId(bookId, page, size, sortBy, sortOrder, total);
         }
-        return ResponseEntity.ok(borrowingRecords);
+        return ConditionalResponses.ok(borrowingRecords);
+    }
+
+    @GetMapping("/borrowings/search/scroll")
+    public ResponseEntity<CursorPage<BorrowingRecord>> scrollBorrowingRecordSearch(@RequestParam(required = false) Long userId,
+                                                                                   @RequestParam(required = false) Long bookId,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(defaultValue = "10") int size,
+                                                                                   @RequestParam(defaultValue = "id") String sortBy,
+                                                                                   @RequestParam(defaultValue = "asc") String sortOrder) {
+        // Exactly one search parameter must be provided
+        if ((userId == null) == (bookId == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CursorPage<BorrowingRecord> borrowingRecords;
+        if (userId != null) {
+            borrowingRecords = borrowingRecordService.scrollBorrowingRecordsByCustomerId(userId, cursor, size, sortBy, sortOrder);
+        } else {
+            borrowingRecords = borrowingRecordService.scrollBorrowingRecordsByBookId(bookId, cursor, size, sortBy, sortOrder);
+        }
+        return ConditionalResponses.ok(borrowingRecords);
     }
 }
@@ -0,0 +1,23 @@
+package com.sawy.LibrarySystem.controller;
+
+import com.sawy.LibrarySystem.cache.EntityTag;
+import org.springframework.http.ResponseEntity;
+
+// 200 responses carrying the body's ETag, and its Last-Modified when it is a single entity. Spring compares them
+// with If-None-Match and If-Modified-Since and answers 304 without writing the body. The tag is computed from the loaded body, so a 304
+// saves serialization and bandwidth but not the load; that is usually a hit in the entity or page caches, which a
+// separate version query would turn into a database round trip.
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body) {
+        EntityTag tag = EntityTag.of(body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(tag.etag());
+        if (tag.lastModified() != null) {
+            response.lastModified(tag.lastModified());
+        }
+        return response.body(body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sawy.LibrarySystem.controller;
+
+import com.sawy.LibrarySystem.credential.CredentialService;
+import com.sawy.LibrarySystem.dto.CredentialCheck;
+import com.sawy.LibrarySystem.dto.VerifiedCredential;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class CredentialController {
+
+    private final CredentialService credentialService;
+
+    // 401 if no customer has the email and password.
+    @PostMapping("/credentials/verify")
+    public ResponseEntity<VerifiedCredential> verify(@Valid @RequestBody CredentialCheck credentials) {
+        return credentialService.verify(credentials.email(), credentials.password())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+}
@@ -1,14 +1,19 @@
 package com.sawy.LibrarySystem.controller;
 
+import com.sawy.LibrarySystem.dto.BatchResult;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -19,24 +24,31 @@ public class CustomerController {
     private final CustomerService customerService;
 
     @GetMapping("/customers")
-    public ResponseEntity<Page<Customer>> getAllCustomers(@RequestParam(defaultValue = "0") int page,
-                                                          @RequestParam(defaultValue = "10") int size,
-                                                          @RequestParam(defaultValue = "id") String sortBy,
-                                                          @RequestParam(defaultValue = "asc") String sortOrder) {
-        Page<Customer> customers = customerService.getAllCustomers(page, size, sortBy, sortOrder);
-        customers.getContent().forEach(customer -> {
-            customer.getBorrowingRecords().forEach(record -> {
-                record.setCustomerID(record.getCustomer().getId());
-                record.setBookID(record.getBook().getId());
-            });
-        });
-        return ResponseEntity.ok(customers);
+    public ResponseEntity<Slice<Customer>> getAllCustomers(@RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestParam(defaultValue = "id") String sortBy,
+                                                           @RequestParam(defaultValue = "asc") String sortOrder,
+                                                           @RequestParam(defaultValue = "all") String expand,
+                                                           @RequestParam(defaultValue = "true") String withTotal) {
+        Slice<Customer> customers = customerService.getAllCustomers(page, size, sortBy, sortOrder, FetchPlan.parse(expand), TotalMode.parse(withTotal));
+        return ConditionalResponses.ok(customers);
+    }
+
+    @GetMapping("/customers/scroll")
+    public ResponseEntity<CursorPage<Customer>> scrollCustomers(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "10") int size,
+                                                                @RequestParam(defaultValue = "id") String sortBy,
+                                                                @RequestParam(defaultValue = "asc") String sortOrder,
+                                                                @RequestParam(defaultValue = "all") String expand) {
+        CursorPage<Customer> customers = customerService.scrollCustomers(cursor, size, sortBy, sortOrder, FetchPlan.parse(expand));
+        return ConditionalResponses.ok(customers);
     }
 
     @GetMapping("/customers/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
-        Optional<Customer> customer = customerService.getCustomerById(id);
-        return customer.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "all") String expand) {
+        Optional<Customer> customer = customerService.getCustomerById(id, FetchPlan.parse(expand));
+        return customer.map(ConditionalResponses::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/customers")
@@ -45,6 +57,21 @@ public class CustomerController {
         return ResponseEntity.ok(createdCustomer);
     }
 
+    @PostMapping("/customers/batch")
+    public ResponseEntity<BatchResult> createCustomers(@RequestBody List<Customer> customers) {
+        return ResponseEntity.ok(customerService.createCustomers(customers));
+    }
+
+    @PutMapping("/customers/batch")
+    public ResponseEntity<BatchResult> updateCustomers(@RequestBody List<Customer> customers) {
+        return ResponseEntity.ok(customerService.updateCustomers(customers));
+    }
+
+    @DeleteMapping("/customers/batch")
+    public ResponseEntity<BatchResult> deleteCustomers(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(customerService.deleteCustomers(ids));
+    }
+
     @PutMapping("/customers/{id}")
     public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customerDetails) {
         Optional<Customer> updatedCustomer = customerService.updateCustomer(id, customerDetails);
@@ -0,0 +1,53 @@
+package com.sawy.LibrarySystem.controller;
+
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.service.CheckoutService;
+import com.sawy.LibrarySystem.service.HoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+    private final CheckoutService checkoutService;
+
+    @GetMapping("/holds/{id}")
+    public ResponseEntity<BookHold> getHoldById(@PathVariable Long id) {
+        Optional<BookHold> hold = holdService.getHold(id);
+        return hold.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/books/{id}/holds")
+    public ResponseEntity<List<BookHold>> getHoldQueue(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getQueue(id));
+    }
+
+    // Queues the customer for the book: ready at once if a copy is on the shelf, 409 if the customer already holds it.
+    @PostMapping("/holds")
+    public ResponseEntity<BookHold> placeHold(@RequestBody BookHold hold) {
+        BookHold placedHold = holdService.placeHold(hold.getCustomerID(), hold.getBookID(), hold.getPriority());
+        return ResponseEntity.ok(placedHold);
+    }
+
+    // 409 if the hold was already collected, cancelled or expired.
+    @PostMapping("/holds/{id}/cancel")
+    public ResponseEntity<BookHold> cancelHold(@PathVariable Long id) {
+        Optional<BookHold> cancelledHold = holdService.cancelHold(id);
+        return cancelledHold.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Lends the copy set aside for the hold: 409 if it is not ready or has expired.
+    @PostMapping("/holds/{id}/collect")
+    public ResponseEntity<BorrowingRecord> collectHold(@PathVariable Long id) {
+        Optional<BorrowingRecord> borrowingRecord = checkoutService.collectHold(id);
+        return borrowingRecord.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,105 @@
+package com.sawy.LibrarySystem.credential;
+
+import com.sawy.LibrarySystem.dto.CustomerCredential;
+import com.sawy.LibrarySystem.dto.VerifiedCredential;
+import com.sawy.LibrarySystem.exceptionHandler.ServiceUnavailableException;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Verifies a customer's email and password. A verified pair is kept in the {@code credentials} cache for
+ * {@code library.cache.credential.ttl}, keyed by a SHA-256 of the pair rather than the pair itself, so a client that
+ * authenticates on every request pays for BCrypt once per ttl instead of every time. The cached value depends on its
+ * customer, so updating or deleting the customer evicts it; a password changed on another instance is picked up when
+ * the entry expires.
+ * <p>
+ * An email no customer has is still checked against a hash, made at startup with the current encoder, so it is
+ * refused as slowly as a wrong password and the timing does not tell which emails are registered.
+ * <p>
+ * A password whose hash was made with an older encoder or cost is hashed again once it has been verified.
+ */
+@Slf4j
+@Service
+public class CredentialService {
+
+    public static final String CACHE = "credentials";
+
+    private final CustomerRepository customerRepository;
+    private final PasswordHasher passwordHasher;
+    private final Cache credentials;
+    private final TransactionTemplate transactionTemplate;
+    private final String unknownEmailHash;
+
+    public CredentialService(CustomerRepository customerRepository,
+                             PasswordHasher passwordHasher,
+                             CacheManager cacheManager,
+                             PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.passwordHasher = passwordHasher;
+        this.credentials = cacheManager.getCache(CACHE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unknownEmailHash = passwordHasher.encode(UUID.randomUUID().toString());
+    }
+
+    // Empty if no customer has the email and password.
+    public Optional<VerifiedCredential> verify(String email, String password) {
+        String key = cacheKey(email, password);
+        VerifiedCredential cached = credentials.get(key, VerifiedCredential.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        List<CustomerCredential> candidates = customerRepository.findCredentialsByEmail(email);
+        if (candidates.isEmpty()) {
+            passwordHasher.matches(password, unknownEmailHash);
+            return Optional.empty();
+        }
+        for (CustomerCredential candidate : candidates) {
+            if (passwordHasher.matches(password, candidate.password())) {
+                if (passwordHasher.needsRehash(candidate.password())) {
+                    rehash(candidate, password);
+                }
+                VerifiedCredential verified = new VerifiedCredential(candidate.id());
+                credentials.put(key, verified);
+                return Optional.of(verified);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Best effort: if hashing is busy the password is hashed again on a later verification.
+    private void rehash(CustomerCredential credential, String password) {
+        try {
+            String rehashed = passwordHasher.encode(password);
+            transactionTemplate.executeWithoutResult(status ->
+                    customerRepository.changePassword(credential.id(), credential.password(), rehashed));
+        } catch (ServiceUnavailableException e) {
+            log.debug("Password of customer {} not rehashed: {}", credential.id(), e.getMessage());
+        }
+    }
+
+    private static String cacheKey(String email, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
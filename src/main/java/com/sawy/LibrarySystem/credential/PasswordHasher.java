@@ -0,0 +1,135 @@
+package com.sawy.LibrarySystem.credential;
+
+import com.sawy.LibrarySystem.exceptionHandler.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the {@link PasswordEncoder}'s hashing on a pool of its own, one thread per core by default, so a burst of
+ * signups uses at most those cores and the request threads serving reads are never busy hashing. At most
+ * {@code library.password.hashing-queue} hashes wait for a thread; beyond that callers get a
+ * {@link ServiceUnavailableException} (503) at once instead of queueing behind minutes of work.
+ * <p>
+ * The time each hash takes, the queue length and the rejections are published as {@code library.password.hashing}
+ * metrics. {@link #needsRehash} tells whether a stored hash was made with an older encoder or cost, so it can be
+ * replaced once the password has been verified.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // One permit per hash running or queued; the executor's own queue is unbounded.
+    private final Semaphore capacity;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.password.hashing-threads:0}") int threads,
+                          @Value("${library.password.hashing-queue:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("password-hashing-"));
+        this.capacity = new Semaphore(poolSize + queueCapacity);
+        this.encodeTimer = Timer.builder("library.password.hashing").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("library.password.hashing").tag("operation", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("library.password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("library.password.hashing.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        reserve();
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        reserve();
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a batch on all the hashing threads, a pool's worth at a time. Unlike a single hash, the batch waits for
+     * room rather than being refused, and it never takes more than a pool's worth of room, so requests arriving
+     * meanwhile can still queue.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int window = executor.getMaximumPoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<CompletableFuture<String>> hashes = new ArrayList<>(window);
+            for (String rawPassword : rawPasswords.subList(from, Math.min(from + window, rawPasswords.size()))) {
+                capacity.acquireUninterruptibly();
+                hashes.add(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+            }
+            hashes.forEach(hash -> encoded.add(await(hash)));
+        }
+        return encoded;
+    }
+
+    // Cheap: only the stored hash's encoder and cost are looked at.
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void reserve() {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many passwords are being hashed, try again later");
+        }
+    }
+
+    // Takes a permit acquired by the caller, and gives it back once the hash is done.
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> hashing) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timer.record(hashing);
+            } finally {
+                capacity.release();
+            }
+        }, executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.sawy.LibrarySystem.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how many threads hold a database connection at once, so however many requests run at the same time (e.g. on
+ * virtual threads) the database sees no more work than the pool allows, and callers wait here for a bounded time
+ * rather than on the pool.
+ * <p>
+ * A thread that already holds a connection gets another one without a permit. Hibernate takes the pooled id blocks
+ * on a connection of their own while the insert's connection is held; if every pooled connection were held by a
+ * thread waiting for such a block, they would all wait until the pool timed out. The connections above the permits
+ * are kept for those.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    // Connections opened and not yet closed by the current thread.
+    private final ThreadLocal<AtomicInteger> held = ThreadLocal.withInitial(AtomicInteger::new);
+
+    public ConnectionLimitingDataSource(DataSource target, int maxConnections, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limit(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return limit(() -> super.getConnection(username, password));
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private Connection limit(ConnectionSource source) throws SQLException {
+        AtomicInteger count = held.get();
+        boolean permitted = count.get() == 0;
+        if (permitted) {
+            acquire();
+        }
+        Connection connection;
+        try {
+            connection = source.open();
+        } catch (SQLException | RuntimeException e) {
+            if (permitted) {
+                permits.release();
+            }
+            throw e;
+        }
+        count.incrementAndGet();
+        return releasingOnClose(connection, permitted, count);
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No database connection available within " + acquireTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    // The first close gives the permit back; closing again is passed on to the pool, which ignores it.
+    private Connection releasingOnClose(Connection connection, boolean permitted, AtomicInteger count) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (closed.compareAndSet(false, true)) {
+                                count.decrementAndGet();
+                                if (permitted) {
+                                    permits.release();
+                                }
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+}
@@ -0,0 +1,5 @@
+package com.sawy.LibrarySystem.dto;
+
+// An author's id and name, for matching authors by name without loading them.
+public record AuthorName(Long id, String name) {
+}
@@ -0,0 +1,7 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.util.Map;
+
+// Copies of a book that can be lent right now, in total and per branch.
+public record Availability(Long bookID, int availableCopies, Map<String, Integer> branches) {
+}
@@ -0,0 +1,29 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.util.Map;
+
+// Outcome of one item of a batch request; index is the item's position in the request.
+public record BatchItemResult(int index, Long id, String status, Map<String, String> errors) {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String NOT_FOUND = "not_found";
+    public static final String FAILED = "failed";
+
+    public static BatchItemResult succeeded(int index, Long id, String status) {
+        return new BatchItemResult(index, id, status, Map.of());
+    }
+
+    public static BatchItemResult notFound(int index, Long id) {
+        return new BatchItemResult(index, id, NOT_FOUND, Map.of());
+    }
+
+    public static BatchItemResult failed(int index, Long id, Map<String, String> errors) {
+        return new BatchItemResult(index, id, FAILED, errors);
+    }
+
+    public boolean succeeded() {
+        return !status.equals(NOT_FOUND) && !status.equals(FAILED);
+    }
+}
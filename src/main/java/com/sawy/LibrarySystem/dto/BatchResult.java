@@ -0,0 +1,14 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.util.Comparator;
+import java.util.List;
+
+// Response of the batch endpoints: one result per request item, in request order.
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> items) {
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        List<BatchItemResult> ordered = items.stream().sorted(Comparator.comparingInt(BatchItemResult::index)).toList();
+        int succeeded = (int) ordered.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(succeeded, ordered.size() - succeeded, ordered);
+    }
+}
@@ -0,0 +1,19 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+// Criteria of the combined book search. Null or blank criteria are not filtered on.
+public record BookFilter(String isbn,
+                         String title,
+                         String author,
+                         String genre,
+                         LocalDate publishedFrom,
+                         LocalDate publishedTo,
+                         Boolean available) {
+
+    public boolean isEmpty() {
+        return Stream.of(isbn, title, author, genre).allMatch(value -> value == null || value.isBlank())
+                && publishedFrom == null && publishedTo == null && available == null;
+    }
+}
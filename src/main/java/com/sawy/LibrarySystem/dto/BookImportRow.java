@@ -0,0 +1,18 @@
+package com.sawy.LibrarySystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+
+// One book of an import file. The author is matched by name and created from the author columns when it is new;
+// the columns match the book export, so an export can be imported again.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BookImportRow(String title,
+                            String isbn,
+                            LocalDate publicationDate,
+                            String genre,
+                            Boolean available,
+                            String authorName,
+                            LocalDate authorBirthDate,
+                            String authorNationality) {
+}
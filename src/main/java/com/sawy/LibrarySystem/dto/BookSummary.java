@@ -0,0 +1,14 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.time.LocalDate;
+
+// Flat read model for book listings, filled by a single joined select.
+public record BookSummary(Long id,
+                          String title,
+                          String isbn,
+                          LocalDate publicationDate,
+                          String genre,
+                          boolean available,
+                          Long authorID,
+                          String authorName) {
+}
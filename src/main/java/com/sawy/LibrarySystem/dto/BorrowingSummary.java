@@ -0,0 +1,13 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.time.LocalDate;
+
+// Flat read model for borrowing listings, filled by a single joined select.
+public record BorrowingSummary(Long id,
+                               Long customerID,
+                               String customerName,
+                               Long bookID,
+                               String bookTitle,
+                               LocalDate borrowDate,
+                               LocalDate returnDate) {
+}
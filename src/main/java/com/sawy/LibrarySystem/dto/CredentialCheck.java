@@ -0,0 +1,8 @@
+package com.sawy.LibrarySystem.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+// The email and password a client wants verified.
+public record CredentialCheck(@NotBlank(message = "Email is mandatory") String email,
+                              @NotBlank(message = "Password is mandatory") String password) {
+}
@@ -0,0 +1,5 @@
+package com.sawy.LibrarySystem.dto;
+
+// A customer's id and stored password hash, without loading the rest of the customer.
+public record CustomerCredential(Long id, String password) {
+}
@@ -0,0 +1,11 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Outcome of an import. Rows are counted by outcome; only the first failures are listed, with the line they start on.
+public record ImportResult(long rows, long imported, long duplicates, long failed, List<RowError> errors) {
+
+    public record RowError(long line, String isbn, Map<String, String> errors) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// An open loan past its due date, with the fine it would be charged if returned today.
+public record OverdueLoan(Long id,
+                          Long customerID,
+                          String customerName,
+                          Long bookID,
+                          String bookTitle,
+                          LocalDate returnDate,
+                          long daysOverdue,
+                          BigDecimal fine) {
+}
@@ -0,0 +1,7 @@
+package com.sawy.LibrarySystem.dto;
+
+import java.time.LocalDateTime;
+
+// A waiting hold as kept in the in-memory queue of its book.
+public record QueuedHold(Long id, Long bookID, int priority, LocalDateTime placedAt) {
+}
@@ -0,0 +1,5 @@
+package com.sawy.LibrarySystem.dto;
+
+// Copies of a book that can be lent at one branch, for loading the availability counters without the entities.
+public record StockLevel(Long bookID, String branch, int availableCopies) {
+}
@@ -0,0 +1,9 @@
+package com.sawy.LibrarySystem.dto;
+
+// One typeahead completion: a book title or ISBN (id is the book id) or an author name (id is the author id).
+public record Suggestion(String type, String text, Long id) {
+
+    public static final String TITLE = "title";
+    public static final String ISBN = "isbn";
+    public static final String AUTHOR = "author";
+}
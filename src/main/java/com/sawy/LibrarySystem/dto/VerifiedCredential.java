@@ -0,0 +1,5 @@
+package com.sawy.LibrarySystem.dto;
+
+// The customer a verified email and password belong to.
+public record VerifiedCredential(Long customerID) {
+}
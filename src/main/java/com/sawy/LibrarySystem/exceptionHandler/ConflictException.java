@@ -0,0 +1,9 @@
+package com.sawy.LibrarySystem.exceptionHandler;
+
+// The request is valid but clashes with the current state, e.g. borrowing a book that is already lent out.
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
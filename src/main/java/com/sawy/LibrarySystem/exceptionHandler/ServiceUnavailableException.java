@@ -0,0 +1,9 @@
+package com.sawy.LibrarySystem.exceptionHandler;
+
+// The server is too busy to take the request now, e.g. password hashing is at capacity; the client should retry.
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,178 @@
+package com.sawy.LibrarySystem.inventory;
+
+import com.sawy.LibrarySystem.dto.Availability;
+import com.sawy.LibrarySystem.dto.StockLevel;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory count of the copies of each book that can be lent, per branch, so "is it available" and the first step
+ * of a checkout are answered without a database round trip.
+ * <p>
+ * Each branch count is an {@link AtomicInteger} and a reservation is a compare-and-set loop on it, so loans of
+ * different books never contend and loans of the same book only retry a CAS. The branch map of a book is replaced as
+ * a whole when branches are added, so reads never lock. The {@code book_stock} table stays authoritative: a
+ * reservation taken here is confirmed by the conditional UPDATE in {@code CheckoutService}, and a book is reloaded
+ * whenever the two disagree. The counts are loaded once the application is ready and reloaded every
+ * {@code library.inventory.refresh-interval} to pick up changes made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCounters {
+
+    private final BookStockRepository bookStockRepository;
+
+    private final Map<Long, Map<String, AtomicInteger>> counts = new ConcurrentHashMap<>();
+    // One instance per branch name, instead of one per loaded row.
+    private final Map<String, String> branchNames = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.inventory.refresh-interval:PT5M}", initialDelayString = "${library.inventory.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, Map<String, AtomicInteger>> loaded = new HashMap<>();
+        try (Stream<StockLevel> levels = bookStockRepository.streamAllLevels()) {
+            levels.forEach(level -> loaded.computeIfAbsent(level.bookID(), id -> new HashMap<>())
+                    .put(branchName(level.branch()), new AtomicInteger(level.availableCopies())));
+        }
+        counts.keySet().retainAll(loaded.keySet());
+        loaded.forEach((bookId, branches) -> counts.put(bookId, compact(branches)));
+    }
+
+    // Reloads one book from the database, e.g. after a reservation here was refused there.
+    public void refresh(Long bookId) {
+        List<StockLevel> levels = bookStockRepository.findLevels(bookId);
+        if (levels.isEmpty()) {
+            counts.remove(bookId);
+            return;
+        }
+        Map<String, AtomicInteger> branches = new HashMap<>();
+        levels.forEach(level -> branches.put(branchName(level.branch()), new AtomicInteger(level.availableCopies())));
+        counts.put(bookId, compact(branches));
+    }
+
+    public void set(Long bookId, String branch, int availableCopies) {
+        counts.compute(bookId, (id, branches) -> {
+            AtomicInteger count = branches == null ? null : branches.get(branch);
+            if (count != null) {
+                count.set(availableCopies);
+                return branches;
+            }
+            Map<String, AtomicInteger> added = branches == null ? new HashMap<>() : new HashMap<>(branches);
+            added.put(branchName(branch), new AtomicInteger(availableCopies));
+            return compact(added);
+        });
+    }
+
+    public void remove(Long bookId) {
+        counts.remove(bookId);
+    }
+
+    // Empty if the book has no stock at all, which is also the case for books that do not exist.
+    public Optional<Availability> availability(Long bookId) {
+        Map<String, AtomicInteger> branches = branches(bookId);
+        if (branches == null) {
+            return Optional.empty();
+        }
+        Map<String, Integer> byBranch = new TreeMap<>();
+        int total = 0;
+        for (Map.Entry<String, AtomicInteger> branch : branches.entrySet()) {
+            int available = branch.getValue().get();
+            byBranch.put(branch.getKey(), available);
+            total += available;
+        }
+        return Optional.of(new Availability(bookId, total, byBranch));
+    }
+
+    public boolean tracks(Long bookId) {
+        return branches(bookId) != null;
+    }
+
+    /**
+     * Takes one copy of the book at the given branch, or at the branch with the most copies left if none is given.
+     * Returns the branch, or null if there is no copy to take.
+     */
+    public String reserve(Long bookId, String branch) {
+        Map<String, AtomicInteger> branches = branches(bookId);
+        if (branches == null) {
+            return null;
+        }
+        if (branch != null) {
+            AtomicInteger count = branches.get(branch);
+            return count != null && take(count) ? branch : null;
+        }
+        // Another loan may take the chosen branch's last copy first, so fall back to the next best one.
+        for (int attempt = 0; attempt < branches.size(); attempt++) {
+            Map.Entry<String, AtomicInteger> fullest = null;
+            for (Map.Entry<String, AtomicInteger> candidate : branches.entrySet()) {
+                if (candidate.getValue().get() > 0 && (fullest == null || candidate.getValue().get() > fullest.getValue().get())) {
+                    fullest = candidate;
+                }
+            }
+            if (fullest == null) {
+                return null;
+            }
+            if (take(fullest.getValue())) {
+                return fullest.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Puts a copy back at the branch; untracked books are loaded with the copy on their next use.
+    public void release(Long bookId, String branch) {
+        Map<String, AtomicInteger> branches = counts.get(bookId);
+        AtomicInteger count = branches == null ? null : branches.get(branch);
+        if (count != null) {
+            count.incrementAndGet();
+        }
+    }
+
+    private Map<String, AtomicInteger> branches(Long bookId) {
+        Map<String, AtomicInteger> branches = counts.get(bookId);
+        if (branches == null) {
+            // Books created on another instance, or before a refresh that raced with their creation.
+            refresh(bookId);
+            branches = counts.get(bookId);
+        }
+        return branches;
+    }
+
+    private static boolean take(AtomicInteger count) {
+        for (int available = count.get(); available > 0; available = count.get()) {
+            if (count.compareAndSet(available, available - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String branchName(String branch) {
+        return branchNames.computeIfAbsent(branch, name -> name);
+    }
+
+    // Most books are held at a single branch.
+    private static Map<String, AtomicInteger> compact(Map<String, AtomicInteger> branches) {
+        if (branches.size() == 1) {
+            Map.Entry<String, AtomicInteger> only = branches.entrySet().iterator().next();
+            return Collections.singletonMap(only.getKey(), only.getValue());
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(branches));
+    }
+}
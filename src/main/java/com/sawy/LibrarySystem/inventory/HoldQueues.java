@@ -0,0 +1,125 @@
+package com.sawy.LibrarySystem.inventory;
+
+import com.sawy.LibrarySystem.dto.QueuedHold;
+import com.sawy.LibrarySystem.repository.BookHoldRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory queue of the waiting holds of each book, highest priority first and then in the order they were placed,
+ * so a returned copy finds its next holder without a query, and returns of books nobody waits for cost nothing.
+ * <p>
+ * The {@code book_hold} table stays authoritative: a hold taken from here is only given a copy after its row has been
+ * locked ({@code PESSIMISTIC_WRITE}) and found still waiting, so entries left behind by a cancellation, or by another
+ * instance, are skipped. Like {@link AvailabilityCounters}, the queues are loaded once the application is ready and
+ * reloaded every {@code library.inventory.refresh-interval}; holds added while a reload reads the table are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class HoldQueues {
+
+    static final Comparator<QueuedHold> QUEUE_ORDER = Comparator.comparingInt(QueuedHold::priority).reversed()
+            .thenComparing(QueuedHold::placedAt)
+            .thenComparing(QueuedHold::id);
+
+    private final BookHoldRepository bookHoldRepository;
+
+    private final Map<Long, NavigableSet<QueuedHold>> queues = new ConcurrentHashMap<>();
+
+    // Adds share the read side; a rebuild takes the write side to start recording them and to swap its snapshot in.
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Holds added since the running rebuild started reading, which its snapshot may have missed; null between rebuilds.
+    private Set<QueuedHold> addedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.inventory.refresh-interval:PT5M}", initialDelayString = "${library.inventory.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Set<QueuedHold> added = ConcurrentHashMap.newKeySet();
+        withWriteLock(() -> addedDuringRebuild = added);
+        Map<Long, NavigableSet<QueuedHold>> loaded = new HashMap<>();
+        try (Stream<QueuedHold> holds = bookHoldRepository.streamWaiting()) {
+            holds.forEach(hold -> queueOf(loaded, hold.bookID()).add(hold));
+        } finally {
+            withWriteLock(() -> {
+                addedDuringRebuild = null;
+                added.forEach(hold -> queueOf(loaded, hold.bookID()).add(hold));
+                queues.keySet().retainAll(loaded.keySet());
+                queues.putAll(loaded);
+            });
+        }
+    }
+
+    public void add(QueuedHold hold) {
+        rebuildLock.readLock().lock();
+        try {
+            queues.compute(hold.bookID(), (bookId, queue) -> {
+                NavigableSet<QueuedHold> added = queue == null ? new ConcurrentSkipListSet<>(QUEUE_ORDER) : queue;
+                added.add(hold);
+                return added;
+            });
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(hold);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Takes the next hold off the book's queue; null if nobody is waiting.
+    public QueuedHold poll(Long bookId) {
+        NavigableSet<QueuedHold> queue = queues.get(bookId);
+        if (queue == null) {
+            return null;
+        }
+        QueuedHold next = queue.pollFirst();
+        dropIfEmpty(bookId);
+        return next;
+    }
+
+    public void remove(Long bookId, Long holdId) {
+        NavigableSet<QueuedHold> queue = queues.get(bookId);
+        if (queue != null) {
+            queue.removeIf(hold -> hold.id().equals(holdId));
+            dropIfEmpty(bookId);
+        }
+    }
+
+    public boolean hasWaiting(Long bookId) {
+        NavigableSet<QueuedHold> queue = queues.get(bookId);
+        return queue != null && !queue.isEmpty();
+    }
+
+    // Under the map's lock for the book, so a hold added meanwhile keeps its queue.
+    private void dropIfEmpty(Long bookId) {
+        queues.computeIfPresent(bookId, (id, queue) -> queue.isEmpty() ? null : queue);
+    }
+
+    private void withWriteLock(Runnable action) {
+        rebuildLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private static NavigableSet<QueuedHold> queueOf(Map<Long, NavigableSet<QueuedHold>> queues, Long bookId) {
+        return queues.computeIfAbsent(bookId, id -> new ConcurrentSkipListSet<>(QUEUE_ORDER));
+    }
+}
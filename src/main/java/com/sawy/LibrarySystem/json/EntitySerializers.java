@@ -0,0 +1,310 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Hand-written serializers for the entities, giving the same JSON as the annotations on them do.
+ * <p>
+ * The {@code @JsonIgnoreProperties} on the associations leave only the plain fields of an associated entity, so each
+ * entity is written with its associations, and each associated entity with its fields alone. Associations follow
+ * Hibernate6Module's rules: a proxy that was never loaded is written as its id, a collection that was never loaded as
+ * null. A field added to an entity has to be added here too; {@code EntitySerializersTest} compares the two forms.
+ */
+final class EntitySerializers {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString ISBN = new SerializedString("isbn");
+    private static final SerializableString PUBLICATION_DATE = new SerializedString("publicationDate");
+    private static final SerializableString GENRE = new SerializedString("genre");
+    private static final SerializableString AVAILABLE = new SerializedString("available");
+    private static final SerializableString AUTHOR_ID = new SerializedString("authorID");
+    private static final SerializableString AUTHOR = new SerializedString("author");
+    private static final SerializableString BORROWING_RECORDS = new SerializedString("borrowingRecords");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializableString NATIONALITY = new SerializedString("nationality");
+    private static final SerializableString BOOKS = new SerializedString("books");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializableString CUSTOMER = new SerializedString("customer");
+    private static final SerializableString BOOK = new SerializedString("book");
+    private static final SerializableString CUSTOMER_ID = new SerializedString("customerID");
+    private static final SerializableString BOOK_ID = new SerializedString("bookID");
+    private static final SerializableString BORROW_DATE = new SerializedString("borrowDate");
+    private static final SerializableString RETURN_DATE = new SerializedString("returnDate");
+    private static final SerializableString RETURNED_ON = new SerializedString("returnedOn");
+    private static final SerializableString FINE = new SerializedString("fine");
+    private static final SerializableString BRANCH = new SerializedString("branch");
+
+    private EntitySerializers() {
+    }
+
+    static final class BookSerializer extends StreamingSerializer<Book> {
+
+        BookSerializer(JsonSerializer<?> fallback) {
+            super(Book.class, fallback);
+        }
+
+        @Override
+        public void serialize(Book book, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(book);
+            writeBookFields(book, gen, provider, true);
+            gen.writeFieldName(AUTHOR);
+            Author author = unproxy(book.getAuthor(), Author.class, gen, provider);
+            if (author != null) {
+                writeAuthor(author, gen, provider);
+            }
+            gen.writeFieldName(BORROWING_RECORDS);
+            writeRecords(book.getBorrowingRecords(), gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AuthorSerializer extends StreamingSerializer<Author> {
+
+        AuthorSerializer(JsonSerializer<?> fallback) {
+            super(Author.class, fallback);
+        }
+
+        @Override
+        public void serialize(Author author, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(author);
+            writeAuthorFields(author, gen, provider);
+            gen.writeFieldName(BOOKS);
+            if (startArray(author.getBooks(), gen)) {
+                for (Object item : author.getBooks()) {
+                    Book book = unproxy(item, Book.class, gen, provider);
+                    if (book != null) {
+                        gen.writeStartObject(book);
+                        writeBookFields(book, gen, provider, false);
+                        gen.writeEndObject();
+                    }
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class CustomerSerializer extends StreamingSerializer<Customer> {
+
+        CustomerSerializer(JsonSerializer<?> fallback) {
+            super(Customer.class, fallback);
+        }
+
+        @Override
+        public void serialize(Customer customer, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(customer);
+            writeCustomerFields(customer, gen);
+            gen.writeFieldName(BORROWING_RECORDS);
+            writeRecords(customer.getBorrowingRecords(), gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class BorrowingRecordSerializer extends StreamingSerializer<BorrowingRecord> {
+
+        BorrowingRecordSerializer(JsonSerializer<?> fallback) {
+            super(BorrowingRecord.class, fallback);
+        }
+
+        @Override
+        public void serialize(BorrowingRecord record, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(record);
+            gen.writeFieldName(ID);
+            writeNumber(record.getId(), gen);
+            gen.writeFieldName(CUSTOMER);
+            Customer customer = unproxy(record.getCustomer(), Customer.class, gen, provider);
+            if (customer != null) {
+                gen.writeStartObject(customer);
+                writeCustomerFields(customer, gen);
+                gen.writeEndObject();
+            }
+            gen.writeFieldName(BOOK);
+            Book book = unproxy(record.getBook(), Book.class, gen, provider);
+            if (book != null) {
+                gen.writeStartObject(book);
+                writeBookFields(book, gen, provider, false);
+                gen.writeEndObject();
+            }
+            writeRecordFields(record, gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeBookFields(Book book, JsonGenerator gen, SerializerProvider provider, boolean withAuthorID) throws IOException {
+        gen.writeFieldName(ID);
+        writeNumber(book.getId(), gen);
+        gen.writeFieldName(TITLE);
+        gen.writeString(book.getTitle());
+        gen.writeFieldName(ISBN);
+        gen.writeString(book.getIsbn());
+        gen.writeFieldName(PUBLICATION_DATE);
+        writeDate(book.getPublicationDate(), gen, provider);
+        gen.writeFieldName(GENRE);
+        gen.writeString(book.getGenre());
+        gen.writeFieldName(AVAILABLE);
+        gen.writeBoolean(book.isAvailable());
+        if (withAuthorID) {
+            gen.writeFieldName(AUTHOR_ID);
+            writeNumber(book.getAuthorID(), gen);
+        }
+    }
+
+    private static void writeAuthor(Author author, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(author);
+        writeAuthorFields(author, gen, provider);
+        gen.writeEndObject();
+    }
+
+    private static void writeAuthorFields(Author author, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(ID);
+        writeNumber(author.getId(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(author.getName());
+        gen.writeFieldName(BIRTH_DATE);
+        writeDate(author.getBirthDate(), gen, provider);
+        gen.writeFieldName(NATIONALITY);
+        gen.writeString(author.getNationality());
+    }
+
+    // The password is write-only.
+    private static void writeCustomerFields(Customer customer, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(ID);
+        writeNumber(customer.getId(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(customer.getName());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(customer.getEmail());
+        gen.writeFieldName(ADDRESS);
+        gen.writeString(customer.getAddress());
+        gen.writeFieldName(PHONE_NUMBER);
+        gen.writeString(customer.getPhoneNumber());
+    }
+
+    private static void writeRecords(Collection<BorrowingRecord> records, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!startArray(records, gen)) {
+            return;
+        }
+        for (Object item : records) {
+            BorrowingRecord record = unproxy(item, BorrowingRecord.class, gen, provider);
+            if (record != null) {
+                gen.writeStartObject(record);
+                gen.writeFieldName(ID);
+                writeNumber(record.getId(), gen);
+                writeRecordFields(record, gen, provider);
+                gen.writeEndObject();
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeRecordFields(BorrowingRecord record, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(CUSTOMER_ID);
+        writeNumber(record.getCustomerID(), gen);
+        gen.writeFieldName(BOOK_ID);
+        writeNumber(record.getBookID(), gen);
+        gen.writeFieldName(BORROW_DATE);
+        writeDate(record.getBorrowDate(), gen, provider);
+        gen.writeFieldName(RETURN_DATE);
+        writeDate(record.getReturnDate(), gen, provider);
+        gen.writeFieldName(RETURNED_ON);
+        writeDate(record.getReturnedOn(), gen, provider);
+        gen.writeFieldName(FINE);
+        writeDecimal(record.getFine(), gen);
+        gen.writeFieldName(BRANCH);
+        gen.writeString(record.getBranch());
+    }
+
+    // Null is written as null and a proxy that was never loaded as its id; both give back null, for nothing is left
+    // to write.
+    private static <E> E unproxy(Object value, Class<E> type, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return null;
+        }
+        if (value instanceof HibernateProxy proxy) {
+            LazyInitializer initializer = proxy.getHibernateLazyInitializer();
+            if (initializer.isUninitialized()) {
+                gen.writeStartObject();
+                gen.writeFieldName(ID);
+                provider.defaultSerializeValue(initializer.getIdentifier(), gen);
+                gen.writeEndObject();
+                return null;
+            }
+            return type.cast(initializer.getImplementation());
+        }
+        return type.cast(value);
+    }
+
+    private static boolean startArray(Collection<?> values, JsonGenerator gen) throws IOException {
+        if (values == null || !Hibernate.isInitialized(values)) {
+            gen.writeNull();
+            return false;
+        }
+        gen.writeStartArray(values, values.size());
+        return true;
+    }
+
+    private static void writeNumber(Long value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeDecimal(BigDecimal value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    // ISO-8601 unless the mapper is set to write dates as timestamps, which is left to the java.time module. Four-digit
+    // years are put together in place, as formatting a date was the costliest step in writing a page.
+    private static void writeDate(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, gen);
+        } else if (value.getYear() < 0 || value.getYear() > 9999) {
+            gen.writeString(value.toString());
+        } else {
+            char[] date = new char[10];
+            putDigits(date, 0, value.getYear(), 4);
+            date[4] = '-';
+            putDigits(date, 5, value.getMonthValue(), 2);
+            date[7] = '-';
+            putDigits(date, 8, value.getDayOfMonth(), 2);
+            gen.writeString(date, 0, date.length);
+        }
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
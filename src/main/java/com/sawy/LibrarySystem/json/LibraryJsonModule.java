@@ -0,0 +1,44 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * Replaces the bean serializers of the entities and of the pages holding them with ones written against the
+ * generator, which skip the per-property lookups and the ignore checks of the reflective path.
+ * <p>
+ * The serializers are swapped in where Jackson builds the bean serializer, rather than registered by type, so
+ * Hibernate proxies still go through Hibernate6Module first and only a loaded entity reaches them.
+ */
+public class LibraryJsonModule extends SimpleModule {
+
+    public LibraryJsonModule() {
+        super("LibraryJsonModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                Class<?> type = beanDesc.getBeanClass();
+                if (type == Book.class) {
+                    return new EntitySerializers.BookSerializer(serializer);
+                } else if (type == Author.class) {
+                    return new EntitySerializers.AuthorSerializer(serializer);
+                } else if (type == Customer.class) {
+                    return new EntitySerializers.CustomerSerializer(serializer);
+                } else if (type == BorrowingRecord.class) {
+                    return new EntitySerializers.BorrowingRecordSerializer(serializer);
+                } else if (type == PageImpl.class) {
+                    return new PageSerializer(serializer);
+                }
+                return serializer;
+            }
+        });
+    }
+}
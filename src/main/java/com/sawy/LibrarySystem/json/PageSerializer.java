@@ -0,0 +1,119 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+
+// Writes the pages the list and search endpoints return. The bean serializer takes the order of the fields from
+// reflection, so it is not fixed; they are written in the order the application has been giving them. Pages of
+// anything but a PageRequest are left to the bean serializer.
+@SuppressWarnings("rawtypes")
+final class PageSerializer extends StreamingSerializer<PageImpl> {
+
+    private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString NUMBER = new SerializedString("number");
+    private static final SerializableString SORT = new SerializedString("sort");
+    private static final SerializableString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+    private static final SerializableString PAGEABLE = new SerializedString("pageable");
+    private static final SerializableString PAGE_NUMBER = new SerializedString("pageNumber");
+    private static final SerializableString PAGE_SIZE = new SerializedString("pageSize");
+    private static final SerializableString OFFSET = new SerializedString("offset");
+    private static final SerializableString PAGED = new SerializedString("paged");
+    private static final SerializableString UNPAGED = new SerializedString("unpaged");
+    private static final SerializableString FIRST = new SerializedString("first");
+    private static final SerializableString LAST = new SerializedString("last");
+    private static final SerializableString EMPTY = new SerializedString("empty");
+    private static final SerializableString SORTED = new SerializedString("sorted");
+    private static final SerializableString UNSORTED = new SerializedString("unsorted");
+
+    PageSerializer(JsonSerializer<?> fallback) {
+        super(PageImpl.class, fallback);
+    }
+
+    @Override
+    public void serialize(PageImpl page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Pageable pageable = page.getPageable();
+        if (pageable.getClass() != PageRequest.class) {
+            fallback.serialize(page, gen, provider);
+            return;
+        }
+        gen.writeStartObject(page);
+        gen.writeFieldName(TOTAL_PAGES);
+        gen.writeNumber(page.getTotalPages());
+        gen.writeFieldName(TOTAL_ELEMENTS);
+        gen.writeNumber(page.getTotalElements());
+        gen.writeFieldName(SIZE);
+        gen.writeNumber(page.getSize());
+        gen.writeFieldName(CONTENT);
+        writeContent(page, gen, provider);
+        gen.writeFieldName(NUMBER);
+        gen.writeNumber(page.getNumber());
+        gen.writeFieldName(SORT);
+        writeSort(page.getSort(), gen);
+        gen.writeFieldName(NUMBER_OF_ELEMENTS);
+        gen.writeNumber(page.getNumberOfElements());
+        gen.writeFieldName(PAGEABLE);
+        gen.writeStartObject(pageable);
+        gen.writeFieldName(PAGE_NUMBER);
+        gen.writeNumber(pageable.getPageNumber());
+        gen.writeFieldName(PAGE_SIZE);
+        gen.writeNumber(pageable.getPageSize());
+        gen.writeFieldName(SORT);
+        writeSort(pageable.getSort(), gen);
+        gen.writeFieldName(OFFSET);
+        gen.writeNumber(pageable.getOffset());
+        gen.writeFieldName(PAGED);
+        gen.writeBoolean(pageable.isPaged());
+        gen.writeFieldName(UNPAGED);
+        gen.writeBoolean(pageable.isUnpaged());
+        gen.writeEndObject();
+        gen.writeFieldName(FIRST);
+        gen.writeBoolean(page.isFirst());
+        gen.writeFieldName(LAST);
+        gen.writeBoolean(page.isLast());
+        gen.writeFieldName(EMPTY);
+        gen.writeBoolean(page.isEmpty());
+        gen.writeEndObject();
+    }
+
+    // The rows are all of one type, so the serializer is looked up again only when the type changes.
+    private static void writeContent(PageImpl<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartArray(page, page.getNumberOfElements());
+        Class<?> type = null;
+        JsonSerializer<Object> serializer = null;
+        for (Object item : page.getContent()) {
+            if (item == null) {
+                provider.defaultSerializeNull(gen);
+                continue;
+            }
+            if (item.getClass() != type) {
+                type = item.getClass();
+                serializer = provider.findValueSerializer(type);
+            }
+            serializer.serialize(item, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeSort(Sort sort, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(sort);
+        gen.writeFieldName(EMPTY);
+        gen.writeBoolean(sort.isEmpty());
+        gen.writeFieldName(SORTED);
+        gen.writeBoolean(sort.isSorted());
+        gen.writeFieldName(UNSORTED);
+        gen.writeBoolean(sort.isUnsorted());
+        gen.writeEndObject();
+    }
+}
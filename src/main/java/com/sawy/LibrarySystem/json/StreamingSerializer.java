@@ -0,0 +1,53 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a type straight to the generator in place of the bean serializer Jackson built for it, and hands back to
+// that serializer wherever the hand-written form is not known to match: under a property that ignores some of the
+// type's fields, or with type information.
+abstract class StreamingSerializer<T> extends StdSerializer<T> implements ContextualSerializer, ResolvableSerializer {
+
+    protected final JsonSerializer<Object> fallback;
+
+    @SuppressWarnings("unchecked")
+    StreamingSerializer(Class<T> type, JsonSerializer<?> fallback) {
+        super(type);
+        this.fallback = (JsonSerializer<Object>) fallback;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (fallback instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+        if (property == null || property.getMember() == null) {
+            return this;
+        }
+        JsonIgnoreProperties.Value ignorals = provider.getAnnotationIntrospector()
+                .findPropertyIgnoralByName(provider.getConfig(), property.getMember());
+        if (ignorals == null || ignorals.findIgnoredForSerialization().isEmpty()) {
+            return this;
+        }
+        return provider.handlePrimaryContextualization(fallback, property);
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        fallback.serializeWithType(value, gen, provider, typeSer);
+    }
+}
@@ -7,8 +7,11 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -19,9 +22,19 @@ import java.util.List;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_id")
+    @TableGenerator(name = "book_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "book", allocationSize = 50)
     private Long id;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
     @NotBlank(message = "Title is mandatory")
     @Size(min = 3, max = 100, message = "Title must be between 3 and 100 characters")
     private String title;
@@ -35,12 +48,15 @@ public class Book {
     @NotBlank(message = "Genre is mandatory")
     private String genre;
 
+    // Whether any branch has a copy left. Read from the stock rather than stored, so loans never write the book
+    // row; a value sent when creating a book sets whether its first copy is on the shelf.
+    @Formula("(case when exists (select 1 from book_stock s where s.book_id = id and s.available_copies > 0) then 1 else 0 end)")
     private boolean available;
 
     @NotNull(message = "Author ID is mandatory")
     private Long authorID;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = true)
     @JsonIgnoreProperties("books")
     private Author author;
@@ -0,0 +1,54 @@
+package com.sawy.LibrarySystem.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A customer's place in the queue for a book, and the copy set aside for them once one comes back.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class BookHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_hold_id")
+    @TableGenerator(name = "book_hold_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "book_hold", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "Customer ID is mandatory")
+    @Column(name = "customer_id")
+    private Long customerID;
+
+    @NotNull(message = "Book ID is mandatory")
+    @Column(name = "book_id")
+    private Long bookID;
+
+    // Higher goes first; holds of the same priority are served in the order they were placed.
+    @PositiveOrZero(message = "Priority cannot be negative")
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    // Where the copy is set aside; null while the hold is waiting.
+    @Size(max = 50, message = "Branch must be at most 50 characters")
+    private String branch;
+
+    private LocalDateTime placedAt;
+
+    // Until when a ready hold can be collected.
+    private LocalDateTime expiresAt;
+
+    public BookHold(Long customerID, Long bookID, int priority, LocalDateTime placedAt) {
+        this.customerID = customerID;
+        this.bookID = bookID;
+        this.priority = priority;
+        this.status = HoldStatus.WAITING;
+        this.placedAt = placedAt;
+    }
+}
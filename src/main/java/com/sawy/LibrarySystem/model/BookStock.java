@@ -0,0 +1,44 @@
+package com.sawy.LibrarySystem.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+// The copies of one book held at one branch.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class BookStock {
+
+    // Where the copies that existed before branches are held, and where new books start.
+    public static final String MAIN_BRANCH = "main";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_stock_id")
+    @TableGenerator(name = "book_stock_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "book_stock", allocationSize = 50)
+    private Long id;
+
+    @NotNull(message = "Book ID is mandatory")
+    @Column(name = "book_id")
+    private Long bookID;
+
+    @NotBlank(message = "Branch is mandatory")
+    @Size(max = 50, message = "Branch must be at most 50 characters")
+    private String branch;
+
+    @PositiveOrZero(message = "Total copies cannot be negative")
+    private int totalCopies;
+
+    @PositiveOrZero(message = "Available copies cannot be negative")
+    private int availableCopies;
+
+    public BookStock(Long bookID, String branch, int totalCopies, int availableCopies) {
+        this.bookID = bookID;
+        this.branch = branch;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies;
+    }
+}
@@ -1,11 +1,15 @@
 package com.sawy.LibrarySystem.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
@@ -15,15 +19,25 @@ import java.time.LocalDate;
 public class BorrowingRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "borrowing_record_id")
+    @TableGenerator(name = "borrowing_record_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "borrowing_record", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonIgnore
+    private LocalDateTime updatedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnoreProperties({"borrowingRecords", "password"})
     private Customer customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id")
     @JsonIgnoreProperties({"borrowingRecords", "author", "authorID"})
     private Book book;
@@ -40,6 +54,20 @@ public class BorrowingRecord {
 //    @FutureOrPresent(message = "Return date cannot be in the past")
     private LocalDate returnDate;
 
+    // Set by the return operation; a loan is open while this is null.
+    private LocalDate returnedOn;
+
+    // Charged for the days the book was kept past its return date; set by the return operation.
+    private BigDecimal fine;
+
+    // Set by checkout; only a loan that took a copy out of the stock gives one back.
+    @JsonIgnore
+    private boolean copyTaken;
+
+    // The branch the copy was lent from and goes back to; checkout picks one if the request does not name it.
+    @Size(max = 50, message = "Branch must be at most 50 characters")
+    private String branch;
+
     public BorrowingRecord(Customer customer, Book book, LocalDate borrowDate, LocalDate returnDate, Long customerID, Long bookID) {
         this.customer = customer;
         this.book = book;
@@ -0,0 +1,11 @@
+package com.sawy.LibrarySystem.model;
+
+public enum HoldStatus {
+    // Queued for the next copy that comes back.
+    WAITING,
+    // A copy is set aside at the hold's branch until it expires.
+    READY,
+    COLLECTED,
+    CANCELLED,
+    EXPIRED
+}
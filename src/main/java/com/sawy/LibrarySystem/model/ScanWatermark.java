@@ -0,0 +1,20 @@
+package com.sawy.LibrarySystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// The last day an incremental scan has covered; null before its first run.
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ScanWatermark {
+
+    @Id
+    private String name;
+
+    private LocalDate scannedThrough;
+}
@@ -0,0 +1,31 @@
+package com.sawy.LibrarySystem.overdue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// A fixed amount for every day a loan is kept past its due date, up to a maximum per loan.
+@Component
+public class FinePolicy {
+
+    private final BigDecimal finePerDay;
+    private final BigDecimal maxFine;
+
+    public FinePolicy(@Value("${library.loan.fine-per-day:0.25}") BigDecimal finePerDay,
+                      @Value("${library.loan.max-fine:10.00}") BigDecimal maxFine) {
+        this.finePerDay = finePerDay;
+        this.maxFine = maxFine;
+    }
+
+    // Days past the due date on the given day; 0 for loans without a due date.
+    public long daysOverdue(LocalDate returnDate, LocalDate on) {
+        return returnDate == null ? 0 : Math.max(0, ChronoUnit.DAYS.between(returnDate, on));
+    }
+
+    public BigDecimal fineFor(LocalDate returnDate, LocalDate on) {
+        return finePerDay.multiply(BigDecimal.valueOf(daysOverdue(returnDate, on))).min(maxFine).setScale(2);
+    }
+}
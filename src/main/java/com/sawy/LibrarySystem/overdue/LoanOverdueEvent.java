@@ -0,0 +1,7 @@
+package com.sawy.LibrarySystem.overdue;
+
+import java.time.LocalDate;
+
+// Published once for each loan, by the first scan after its due date passed.
+public record LoanOverdueEvent(Long borrowingRecordId, Long customerID, Long bookID, LocalDate returnDate) {
+}
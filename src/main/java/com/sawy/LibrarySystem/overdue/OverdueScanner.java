@@ -0,0 +1,61 @@
+package com.sawy.LibrarySystem.overdue;
+
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.model.ScanWatermark;
+import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.ScanWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Finds the loans that have become overdue since the last run and publishes a {@link LoanOverdueEvent} for each.
+ * <p>
+ * Each run only reads the open loans whose due date falls after the day the previous run got to, through the due
+ * date index, and moves the {@code overdue} watermark on; runs in between day boundaries read nothing. The watermark
+ * row is locked for the run, so instances never announce a loan twice. Loans that were overdue before the first run
+ * are not announced.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverdueScanner {
+
+    static final String WATERMARK = "overdue";
+
+    private final ScanWatermarkRepository scanWatermarkRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Returns the number of loans found overdue.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.overdue.scan-interval:PT1H}", initialDelayString = "${library.overdue.scan-interval:PT1H}")
+    @Transactional
+    public int scan() {
+        // A loan is overdue from the day after it was due.
+        LocalDate through = LocalDate.now().minusDays(1);
+        ScanWatermark watermark = scanWatermarkRepository.lockByName(WATERMARK).orElseThrow();
+        LocalDate after = watermark.getScannedThrough() == null ? through.minusDays(1) : watermark.getScannedThrough();
+        if (!after.isBefore(through)) {
+            return 0;
+        }
+        int found = 0;
+        try (Stream<BorrowingSummary> loans = borrowingRecordRepository.streamOpenDueBetween(after, through)) {
+            for (BorrowingSummary loan : (Iterable<BorrowingSummary>) loans::iterator) {
+                eventPublisher.publishEvent(new LoanOverdueEvent(loan.id(), loan.customerID(), loan.bookID(), loan.returnDate()));
+                found++;
+            }
+        }
+        watermark.setScannedThrough(through);
+        log.info("Overdue scan of loans due {} to {}: {} overdue", after.plusDays(1), through, found);
+        return found;
+    }
+}
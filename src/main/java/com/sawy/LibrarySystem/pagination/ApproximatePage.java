@@ -0,0 +1,17 @@
+package com.sawy.LibrarySystem.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+public final class ApproximatePage {
+
+    private ApproximatePage() {
+    }
+
+    // A stale row count can undershoot what the slice itself proves exists, so it never reports fewer rows than that.
+    public static <T> Page<T> of(Slice<T> slice, long rowCount) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(rowCount, seen));
+    }
+}
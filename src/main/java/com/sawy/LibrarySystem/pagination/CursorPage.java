@@ -0,0 +1,16 @@
+package com.sawy.LibrarySystem.pagination;
+
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+
+// One slice of a keyset scroll. There is no total count; pass nextCursor back as the cursor to read on.
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    public static <T> CursorPage<T> of(Window<T> window) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode(window.positionAt(window.size() - 1))
+                : null;
+        return new CursorPage<>(window.getContent(), window.size(), window.hasNext(), nextCursor);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sawy.LibrarySystem.pagination;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns keyset scroll positions into opaque URL-safe tokens and back. A token holds the sort values of the last
+ * row a client has seen; decoding converts them back to the entity's property types so they bind as query parameters.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final TypeReference<LinkedHashMap<String, Object>> KEYS = new TypeReference<>() {
+    };
+
+    private KeysetCursor() {
+    }
+
+    // Keyset paging needs a total order, so the id breaks ties between rows with the same sort value.
+    public static Sort sort(String sortBy, String sortOrder) {
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(keyset.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    public static KeysetScrollPosition decode(String cursor, Class<?> type, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys;
+        try {
+            keys = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        Set<String> sortProperties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!keys.keySet().equals(sortProperties)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        keys.forEach((property, value) -> typedKeys.put(property, convert(type, property, value)));
+        return ScrollPosition.forward(typedKeys);
+    }
+
+    private static Object convert(Class<?> type, String property, Object value) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor == null) {
+            throw new IllegalArgumentException("Cannot sort " + type.getSimpleName() + " by '" + property + "'");
+        }
+        return value == null ? null : MAPPER.convertValue(value, descriptor.getPropertyType());
+    }
+}
@@ -0,0 +1,23 @@
+package com.sawy.LibrarySystem.pagination;
+
+import java.util.Locale;
+
+// How a paged query reports its total, parsed from the withTotal request parameter.
+public enum TotalMode {
+
+    // A Page with an exact count query.
+    EXACT,
+    // A Slice: one extra row is read to tell whether another page exists, and nothing is counted.
+    NONE,
+    // A Page whose total comes from the cached row count of the table, so it can lag behind recent writes.
+    APPROXIMATE;
+
+    public static TotalMode parse(String withTotal) {
+        return switch (withTotal.toLowerCase(Locale.ROOT)) {
+            case "true" -> EXACT;
+            case "false" -> NONE;
+            case "approximate" -> APPROXIMATE;
+            default -> throw new IllegalArgumentException("withTotal must be true, false or approximate");
+        };
+    }
+}
@@ -1,9 +1,20 @@
 package com.sawy.LibrarySystem.repository;
 
+import com.sawy.LibrarySystem.dto.AuthorName;
 import com.sawy.LibrarySystem.model.Author;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
-public interface AuthorRepository extends JpaRepository<Author, Long> {
+public interface AuthorRepository extends FetchPlanRepository<Author, Long> {
+
+    // Ids and names only, so matching an import to authors loads no entities.
+    @Query("select new com.sawy.LibrarySystem.dto.AuthorName(a.id, a.name) from Author a")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<AuthorName> streamAllNames();
 }
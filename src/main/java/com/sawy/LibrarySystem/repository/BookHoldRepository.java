@@ -0,0 +1,41 @@
+package com.sawy.LibrarySystem.repository;
+
+import com.sawy.LibrarySystem.dto.QueuedHold;
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.HoldStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    List<BookHold> findByBookIDAndStatusInOrderByPriorityDescPlacedAtAscIdAsc(Long bookID, Collection<HoldStatus> statuses);
+
+    boolean existsByCustomerIDAndBookIDAndStatusIn(Long customerID, Long bookID, Collection<HoldStatus> statuses);
+
+    List<BookHold> findByStatusAndExpiresAtBefore(HoldStatus status, LocalDateTime time);
+
+    // Read by HoldQueues.rebuild; holds placed while it runs are merged in by the queues, not re-read.
+    @Query("select new com.sawy.LibrarySystem.dto.QueuedHold(h.id, h.bookID, h.priority, h.placedAt) from BookHold h " +
+            "where h.status = com.sawy.LibrarySystem.model.HoldStatus.WAITING")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<QueuedHold> streamWaiting();
+
+    // Every change of a hold's status is made under this lock, so a hold is only ever given one copy.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from BookHold h where h.id = :id")
+    Optional<BookHold> lockById(@Param("id") Long id);
+}
@@ -0,0 +1,91 @@
+package com.sawy.LibrarySystem.repository;
+
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.model.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns a {@link BookFilter} into a single query whose conditions are ordered by selectivity: the unique ISBN first,
+ * then columns covered by an index, then the availability flag, and the substring matches last. MySQL picks the
+ * access path from the indexes and evaluates the remaining conditions in the order they are written, so the cheap,
+ * narrowing ones run before the {@code LIKE} scans.
+ */
+public final class BookQueryPlanner {
+
+    // Declaration order is evaluation order.
+    enum Selectivity {
+        UNIQUE_KEY,
+        INDEXED_EQUALITY,
+        INDEXED_RANGE,
+        FLAG,
+        TEXT
+    }
+
+    record Condition(Selectivity selectivity, Specification<Book> specification) {
+    }
+
+    private BookQueryPlanner() {
+    }
+
+    public static Specification<Book> plan(BookFilter filter) {
+        return conditions(filter).stream()
+                .sorted(Comparator.comparing(Condition::selectivity))
+                .map(Condition::specification)
+                .reduce(Specification.where(null), Specification::and);
+    }
+
+    static List<Condition> conditions(BookFilter filter) {
+        if (filter.publishedFrom() != null && filter.publishedTo() != null && filter.publishedFrom().isAfter(filter.publishedTo())) {
+            throw new IllegalArgumentException("publishedFrom must not be after publishedTo");
+        }
+        List<Condition> conditions = new ArrayList<>();
+        if (hasText(filter.isbn())) {
+            conditions.add(new Condition(Selectivity.UNIQUE_KEY,
+                    (root, query, cb) -> cb.equal(root.get("isbn"), filter.isbn())));
+        }
+        if (hasText(filter.title())) {
+            conditions.add(new Condition(Selectivity.TEXT,
+                    (root, query, cb) -> containsIgnoreCase(cb, root.get("title"), filter.title())));
+        }
+        if (hasText(filter.author())) {
+            conditions.add(new Condition(Selectivity.TEXT,
+                    (root, query, cb) -> containsIgnoreCase(cb, root.join("author").get("name"), filter.author())));
+        }
+        // Plain equality keeps ix_book_genre_publication_date usable; the MySQL collation already ignores case.
+        if (hasText(filter.genre())) {
+            conditions.add(new Condition(Selectivity.INDEXED_EQUALITY,
+                    (root, query, cb) -> cb.equal(root.get("genre"), filter.genre())));
+        }
+        if (filter.publishedFrom() != null) {
+            conditions.add(new Condition(Selectivity.INDEXED_RANGE,
+                    (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDate>get("publicationDate"), filter.publishedFrom())));
+        }
+        if (filter.publishedTo() != null) {
+            conditions.add(new Condition(Selectivity.INDEXED_RANGE,
+                    (root, query, cb) -> cb.lessThanOrEqualTo(root.<LocalDate>get("publicationDate"), filter.publishedTo())));
+        }
+        if (filter.available() != null) {
+            conditions.add(new Condition(Selectivity.FLAG,
+                    (root, query, cb) -> cb.equal(root.get("available"), filter.available())));
+        }
+        return conditions;
+    }
+
+    private static Predicate containsIgnoreCase(CriteriaBuilder cb, Expression<String> attribute, String term) {
+        String escaped = term.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return cb.like(cb.lower(attribute), "%" + escaped + "%", '\\');
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,14 +1,53 @@
 package com.sawy.LibrarySystem.repository;
 
+import com.sawy.LibrarySystem.dto.BookSummary;
 import com.sawy.LibrarySystem.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends FetchPlanRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     Page<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable);
     Page<Book> findByAuthor_NameContainingIgnoreCase(String author, Pageable pageable);
     Page<Book> findByIsbnContainingIgnoreCase(String isbn, Pageable pageable);
+
+    // Same searches without the count query.
+    Slice<Book> findSliceByTitleContainingIgnoreCase(String title, Pageable pageable);
+    Slice<Book> findSliceByAuthor_NameContainingIgnoreCase(String author, Pageable pageable);
+    Slice<Book> findSliceByIsbnContainingIgnoreCase(String isbn, Pageable pageable);
+
+    Window<Book> findByTitleContainingIgnoreCase(String title, ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByAuthor_NameContainingIgnoreCase(String author, ScrollPosition position, Sort sort, Limit limit);
+    Window<Book> findByIsbnContainingIgnoreCase(String isbn, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query(value = "select new com.sawy.LibrarySystem.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b left join b.author a",
+            countQuery = "select count(b) from Book b")
+    Page<BookSummary> findAllSummaries(Pageable pageable);
+
+    // Which of the given ISBNs are already in the catalogue.
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findIsbnsIn(@Param("isbns") Collection<String> isbns);
+
+    // The fetch size only streams on MySQL because the datasource URL sets useCursorFetch=true.
+    @Query("select new com.sawy.LibrarySystem.dto.BookSummary(b.id, b.title, b.isbn, b.publicationDate, b.genre, b.available, a.id, a.name) " +
+            "from Book b left join b.author a order by b.id")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookSummary> streamAllSummaries();
 }
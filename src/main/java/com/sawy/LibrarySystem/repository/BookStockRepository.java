@@ -0,0 +1,50 @@
+package com.sawy.LibrarySystem.repository;
+
+import com.sawy.LibrarySystem.dto.StockLevel;
+import com.sawy.LibrarySystem.model.BookStock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface BookStockRepository extends JpaRepository<BookStock, Long> {
+
+    List<BookStock> findByBookIDOrderByBranch(Long bookID);
+
+    Optional<BookStock> findByBookIDAndBranch(Long bookID, String branch);
+
+    @Query("select new com.sawy.LibrarySystem.dto.StockLevel(s.bookID, s.branch, s.availableCopies) from BookStock s where s.bookID = :bookId")
+    List<StockLevel> findLevels(@Param("bookId") Long bookId);
+
+    // Available counts only; total copies are not kept in AvailabilityCounters.
+    @Query("select new com.sawy.LibrarySystem.dto.StockLevel(s.bookID, s.branch, s.availableCopies) from BookStock s")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<StockLevel> streamAllLevels();
+
+    // Conditional updates: a copy is only taken while one is left and only put back while one is out, so the
+    // counts stay within 0..total however many loans race for the same branch.
+    @Modifying
+    @Query("update BookStock s set s.availableCopies = s.availableCopies - 1 " +
+            "where s.bookID = :bookId and s.branch = :branch and s.availableCopies > 0")
+    int takeCopy(@Param("bookId") Long bookId, @Param("branch") String branch);
+
+    @Modifying
+    @Query("update BookStock s set s.availableCopies = s.availableCopies + 1 " +
+            "where s.bookID = :bookId and s.branch = :branch and s.availableCopies < s.totalCopies")
+    int returnCopy(@Param("bookId") Long bookId, @Param("branch") String branch);
+
+    // Changes the number of copies held, keeping the ones on loan; refused if more are on loan than would be held.
+    @Modifying
+    @Query("update BookStock s set s.availableCopies = s.availableCopies + (:totalCopies - s.totalCopies), s.totalCopies = :totalCopies " +
+            "where s.bookID = :bookId and s.branch = :branch and s.totalCopies - s.availableCopies <= :totalCopies")
+    int changeTotalCopies(@Param("bookId") Long bookId, @Param("branch") String branch, @Param("totalCopies") int totalCopies);
+}
@@ -1,13 +1,66 @@
 package com.sawy.LibrarySystem.repository;
 
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
 @Repository
-public interface BorrowingRecordRepository extends JpaRepository<BorrowingRecord, Long> {
+public interface BorrowingRecordRepository extends FetchPlanRepository<BorrowingRecord, Long> {
     Page<BorrowingRecord> findByCustomer_Id(Long userId, Pageable pageable);
     Page<BorrowingRecord> findByBook_Id(Long bookId, Pageable pageable);
+
+    // Same searches without the count query.
+    Slice<BorrowingRecord> findSliceByCustomer_Id(Long userId, Pageable pageable);
+    Slice<BorrowingRecord> findSliceByBook_Id(Long bookId, Pageable pageable);
+
+    Window<BorrowingRecord> findByCustomer_Id(Long userId, ScrollPosition position, Sort sort, Limit limit);
+    Window<BorrowingRecord> findByBook_Id(Long bookId, ScrollPosition position, Sort sort, Limit limit);
+
+    // Closes an open loan; returns 0 if it is already closed (or does not exist). Versioned, as bulk updates skip
+    // the version and update timestamp otherwise.
+    @Modifying
+    @Query("update versioned BorrowingRecord r set r.returnedOn = :returnedOn, r.updatedAt = :closedAt " +
+            "where r.id = :id and r.returnedOn is null")
+    int close(@Param("id") Long id, @Param("returnedOn") LocalDate returnedOn, @Param("closedAt") LocalDateTime closedAt);
+
+    @Query(value = "select new com.sawy.LibrarySystem.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r left join r.customer c left join r.book b",
+            countQuery = "select count(r) from BorrowingRecord r")
+    Page<BorrowingSummary> findAllSummaries(Pageable pageable);
+
+    // Left joins, so records whose book or customer has since been deleted are still exported.
+    @Query("select new com.sawy.LibrarySystem.dto.BorrowingSummary(r.id, c.id, c.name, b.id, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r left join r.customer c left join r.book b order by r.id")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BorrowingSummary> streamAllSummaries();
+
+    // Open loans due after the first date and up to the second, in due order.
+    @Query("select new com.sawy.LibrarySystem.dto.BorrowingSummary(r.id, r.customerID, c.name, r.bookID, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r left join r.customer c left join r.book b " +
+            "where r.returnDate > :after and r.returnDate <= :through and r.returnedOn is null order by r.returnDate, r.id")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BorrowingSummary> streamOpenDueBetween(@Param("after") LocalDate after, @Param("through") LocalDate through);
+
+    // Open loans that were due before the given day, longest overdue first.
+    @Query("select new com.sawy.LibrarySystem.dto.BorrowingSummary(r.id, r.customerID, c.name, r.bookID, b.title, r.borrowDate, r.returnDate) " +
+            "from BorrowingRecord r left join r.customer c left join r.book b " +
+            "where r.returnDate < :day and r.returnedOn is null order by r.returnDate, r.id")
+    Slice<BorrowingSummary> findOverdueSummaries(@Param("day") LocalDate day, Pageable pageable);
 }
@@ -1,9 +1,24 @@
 package com.sawy.LibrarySystem.repository;
 
+import com.sawy.LibrarySystem.dto.CustomerCredential;
 import com.sawy.LibrarySystem.model.Customer;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends FetchPlanRepository<Customer, Long> {
+
+    // Emails are not unique, so every customer with the email is a candidate, oldest first.
+    @Query("select new com.sawy.LibrarySystem.dto.CustomerCredential(c.id, c.password) from Customer c " +
+            "where c.email = :email order by c.id")
+    List<CustomerCredential> findCredentialsByEmail(@Param("email") String email);
+
+    // Replaces the hash only if it is still the one that was verified, so a password changed meanwhile is kept.
+    @Modifying
+    @Query("update Customer c set c.password = :newPassword where c.id = :id and c.password = :oldPassword")
+    int changePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
 }
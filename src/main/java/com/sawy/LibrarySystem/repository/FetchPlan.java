@@ -0,0 +1,30 @@
+package com.sawy.LibrarySystem.repository;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The associations a caller wants loaded alongside an entity, parsed from an {@code expand} request parameter:
+ * {@code all}, {@code none}, or a comma-separated list of association names such as {@code author,borrowingRecords}.
+ * Associations outside the plan stay lazy and are written as their id (or null for collections).
+ */
+public record FetchPlan(boolean all, Set<String> attributes) {
+
+    public static final FetchPlan ALL = new FetchPlan(true, Set.of());
+    public static final FetchPlan NONE = new FetchPlan(false, Set.of());
+
+    public static FetchPlan parse(String expand) {
+        if (expand == null || expand.isBlank() || expand.equalsIgnoreCase("none")) {
+            return NONE;
+        }
+        if (expand.equalsIgnoreCase("all")) {
+            return ALL;
+        }
+        Set<String> attributes = Arrays.stream(expand.split(","))
+                .map(String::trim)
+                .filter(attribute -> !attribute.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        return attributes.isEmpty() ? NONE : new FetchPlan(false, attributes);
+    }
+}
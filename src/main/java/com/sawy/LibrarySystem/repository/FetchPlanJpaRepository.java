@@ -0,0 +1,118 @@
+package com.sawy.LibrarySystem.repository;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Base class for every repository in the application. Single lookups load the plan with one entity-graph query;
+ * pages are read first and their planned associations are then initialized in batches
+ * (see {@code hibernate.default_batch_fetch_size}), which keeps collection fetches out of the paged SQL.
+ */
+@Transactional(readOnly = true)
+public class FetchPlanJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements FetchPlanRepository<T, ID> {
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+
+    public FetchPlanJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable, FetchPlan fetchPlan) {
+        List<Attribute<? super T, ?>> associations = associations(fetchPlan);
+        Page<T> page = findAll(pageable);
+        initialize(page.getContent(), associations);
+        return page;
+    }
+
+    @Override
+    public Slice<T> findSlice(Pageable pageable, FetchPlan fetchPlan) {
+        return findSlice(null, pageable, fetchPlan);
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> specification, Pageable pageable, FetchPlan fetchPlan) {
+        List<Attribute<? super T, ?>> associations = associations(fetchPlan);
+        TypedQuery<T> query = getQuery(specification, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<T> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? List.copyOf(rows.subList(0, pageable.getPageSize())) : rows;
+        initialize(content, associations);
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<T> findById(ID id, FetchPlan fetchPlan) {
+        EntityGraph<T> graph = entityManager.createEntityGraph(getDomainClass());
+        associations(fetchPlan).forEach(association -> graph.addAttributeNodes(association.getName()));
+        return Optional.ofNullable(entityManager.find(getDomainClass(), id, Map.of(FETCH_GRAPH, graph)));
+    }
+
+    @Override
+    public Window<T> findAll(ScrollPosition position, Sort sort, Limit limit) {
+        return findBy(Specification.where(null), query -> query.sortBy(sort).limit(limit.max()).scroll(position));
+    }
+
+    @Override
+    public void fetch(Iterable<? extends T> entities, FetchPlan fetchPlan) {
+        initialize(entities, associations(fetchPlan));
+    }
+
+    private List<Attribute<? super T, ?>> associations(FetchPlan fetchPlan) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(getDomainClass());
+        if (fetchPlan.all()) {
+            return entityType.getAttributes().stream()
+                    .filter(Attribute::isAssociation)
+                    .toList();
+        }
+        return fetchPlan.attributes().stream()
+                .<Attribute<? super T, ?>>map(name -> {
+                    Attribute<? super T, ?> attribute = entityType.getAttributes().stream()
+                            .filter(candidate -> candidate.getName().equals(name))
+                            .findFirst()
+                            .orElse(null);
+                    if (attribute == null || !attribute.isAssociation()) {
+                        throw new IllegalArgumentException("Cannot expand '" + name + "' on " + entityType.getName());
+                    }
+                    return attribute;
+                })
+                .toList();
+    }
+
+    private void initialize(Iterable<? extends T> entities, List<Attribute<? super T, ?>> associations) {
+        for (Attribute<? super T, ?> association : associations) {
+            Field field = (Field) association.getJavaMember();
+            ReflectionUtils.makeAccessible(field);
+            for (T entity : entities) {
+                Hibernate.initialize(ReflectionUtils.getField(field, entity));
+            }
+        }
+    }
+}
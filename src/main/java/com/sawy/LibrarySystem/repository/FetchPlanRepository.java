@@ -0,0 +1,33 @@
+package com.sawy.LibrarySystem.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Optional;
+
+@NoRepositoryBean
+public interface FetchPlanRepository<T, ID> extends JpaRepository<T, ID> {
+
+    Page<T> findAll(Pageable pageable, FetchPlan fetchPlan);
+
+    // Like findAll, but reads one extra row instead of running a count query.
+    Slice<T> findSlice(Pageable pageable, FetchPlan fetchPlan);
+
+    Slice<T> findSlice(Specification<T> specification, Pageable pageable, FetchPlan fetchPlan);
+
+    Optional<T> findById(ID id, FetchPlan fetchPlan);
+
+    // Keyset scrolling: reads the rows after the position without an offset or a count query.
+    Window<T> findAll(ScrollPosition position, Sort sort, Limit limit);
+
+    // Loads the planned associations of entities that are still attached to the current persistence context.
+    void fetch(Iterable<? extends T> entities, FetchPlan fetchPlan);
+}
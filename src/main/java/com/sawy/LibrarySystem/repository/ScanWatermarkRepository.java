@@ -0,0 +1,20 @@
+package com.sawy.LibrarySystem.repository;
+
+import com.sawy.LibrarySystem.model.ScanWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ScanWatermarkRepository extends JpaRepository<ScanWatermark, String> {
+
+    // Held for the whole scan, so instances scanning at the same time take turns and the second finds nothing new.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from ScanWatermark w where w.name = :name")
+    Optional<ScanWatermark> lockByName(@Param("name") String name);
+}
@@ -0,0 +1,20 @@
+package com.sawy.LibrarySystem.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+// Row counts for approximate totals. Counts are cached per table and may be stale by up to the rowCounts TTL.
+@Component
+@RequiredArgsConstructor
+public class TableRowCounter {
+
+    private final EntityManager entityManager;
+
+    @Cacheable(value = "rowCounts", key = "#type.name")
+    public long count(Class<?> type) {
+        String entityName = entityManager.getMetamodel().entity(type).getName();
+        return entityManager.createQuery("select count(e) from " + entityName + " e", Long.class).getSingleResult();
+    }
+}
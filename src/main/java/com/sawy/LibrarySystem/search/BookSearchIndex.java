@@ -0,0 +1,267 @@
+package com.sawy.LibrarySystem.search;
+
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-process full-text index over book titles, author names and ISBNs.
+ * <p>
+ * The index lives in memory: it is rebuilt from the database once the application is ready and kept in sync by
+ * {@code BookService} and {@code AuthorService} after each write. Every write refreshes the searcher, so a search
+ * right after a write sees it.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final String ID = "id";
+    private static final String AUTHOR_ID = "authorId";
+    private static final String TITLE = "title";
+    private static final String AUTHOR = "author";
+    // ISBNs are matched as one normalized keyword, the raw value is only stored for reindexing.
+    private static final String ISBN = "isbn";
+    private static final String ISBN_VALUE = "isbnValue";
+
+    private static final float TITLE_BOOST = 3f;
+    private static final float AUTHOR_BOOST = 2f;
+    private static final float ISBN_BOOST = 4f;
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int REBUILD_BATCH_SIZE = 500;
+    // Lucene collects every hit up to the end of the requested page, so deeper pages are refused.
+    public static final int MAX_RESULTS = 1_000;
+
+    private final BookRepository bookRepository;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public BookSearchIndex(BookRepository bookRepository) throws IOException {
+        this.bookRepository = bookRepository;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            writer.deleteAll();
+            Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by(ID));
+            Page<BookSummary> batch;
+            do {
+                batch = bookRepository.findAllSummaries(pageable);
+                for (BookSummary book : batch) {
+                    writer.addDocument(document(book.id(), book.title(), book.isbn(), book.authorID(), book.authorName()));
+                }
+                pageable = batch.nextPageable();
+            } while (batch.hasNext());
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void index(Book book) {
+        indexAll(List.of(book));
+    }
+
+    // Batch writes refresh the searcher once for all their books.
+    public void indexAll(Collection<Book> books) {
+        try {
+            for (Book book : books) {
+                String authorName = book.getAuthor() == null ? null : book.getAuthor().getName();
+                writer.updateDocument(idTerm(book.getId()), document(book.getId(), book.getTitle(), book.getIsbn(), book.getAuthorID(), authorName));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void remove(Long bookId) {
+        removeAll(List.of(bookId));
+    }
+
+    public void removeAll(Collection<Long> bookIds) {
+        try {
+            writer.deleteDocuments(bookIds.stream().map(BookSearchIndex::idTerm).toArray(Term[]::new));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Deleting an author cascades to their books.
+    public void removeAuthor(Long authorId) {
+        removeAuthors(List.of(authorId));
+    }
+
+    public void removeAuthors(Collection<Long> authorIds) {
+        try {
+            writer.deleteDocuments(authorIds.stream().map(authorId -> new Term(AUTHOR_ID, authorId.toString())).toArray(Term[]::new));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void renameAuthor(Long authorId, String name) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Query byAuthor = new TermQuery(new Term(AUTHOR_ID, authorId.toString()));
+                TopDocs books = searcher.search(byAuthor, Math.max(1, searcher.count(byAuthor)));
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc hit : books.scoreDocs) {
+                    Document book = storedFields.document(hit.doc);
+                    Long id = Long.valueOf(book.get(ID));
+                    writer.updateDocument(idTerm(id), document(id, book.get(TITLE), book.get(ISBN_VALUE), authorId, name));
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Book ids of one page of matches, best match first.
+    public Hits search(String text, Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_RESULTS + " matches");
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Query query = query(text);
+                TopDocs top = searcher.search(query, (int) pageable.getOffset() + pageable.getPageSize());
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>();
+                for (int i = (int) pageable.getOffset(); i < top.scoreDocs.length; i++) {
+                    ids.add(Long.valueOf(storedFields.document(top.scoreDocs[i].doc, Set.of(ID)).get(ID)));
+                }
+                long total = top.totalHits.relation == TotalHits.Relation.EQUAL_TO ? top.totalHits.value : searcher.count(query);
+                return new Hits(ids, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    // Every word has to match the title or the author, exactly, as a prefix or within a small edit distance.
+    // Text that looks like an ISBN can also match one by prefix, ignoring hyphens and spaces.
+    private Query query(String text) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        List<String> words = analyze(text);
+        if (!words.isEmpty()) {
+            BooleanQuery.Builder allWords = new BooleanQuery.Builder();
+            for (String word : words) {
+                BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+                addWord(anyField, TITLE, word, TITLE_BOOST);
+                addWord(anyField, AUTHOR, word, AUTHOR_BOOST);
+                allWords.add(anyField.build(), Occur.MUST);
+            }
+            query.add(allWords.build(), Occur.SHOULD);
+        }
+        String isbn = normalizeIsbn(text);
+        if (isbn.chars().anyMatch(Character::isDigit)) {
+            query.add(new BoostQuery(new PrefixQuery(new Term(ISBN, isbn)), ISBN_BOOST), Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private void addWord(BooleanQuery.Builder query, String field, String word, float boost) {
+        Term term = new Term(field, word);
+        query.add(new BoostQuery(new TermQuery(term), boost), Occur.SHOULD);
+        query.add(new BoostQuery(new PrefixQuery(term), boost * 0.5f), Occur.SHOULD);
+        if (word.length() >= FUZZY_MIN_LENGTH) {
+            query.add(new BoostQuery(new FuzzyQuery(term, word.length() >= 8 ? 2 : 1), boost * 0.3f), Occur.SHOULD);
+        }
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokens.end();
+        }
+        return words;
+    }
+
+    private static Document document(Long id, String title, String isbn, Long authorId, String authorName) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new StringField(AUTHOR_ID, Objects.toString(authorId, ""), Field.Store.NO));
+        document.add(new TextField(TITLE, Objects.toString(title, ""), Field.Store.YES));
+        document.add(new TextField(AUTHOR, Objects.toString(authorName, ""), Field.Store.NO));
+        document.add(new StringField(ISBN, normalizeIsbn(Objects.toString(isbn, "")), Field.Store.NO));
+        document.add(new StoredField(ISBN_VALUE, Objects.toString(isbn, "")));
+        return document;
+    }
+
+    private static String normalizeIsbn(String isbn) {
+        return isbn.replaceAll("[^0-9A-Za-z]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, id.toString());
+    }
+}
@@ -0,0 +1,162 @@
+package com.sawy.LibrarySystem.search;
+
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.Suggestion;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index for typeahead over book titles, ISBNs and author names.
+ * <p>
+ * Each completion is stored under the normalized text starting at every word, so "jav" completes "Intro to Java".
+ * A lookup reads the sorted range of keys that start with the prefix and stops after {@code limit} distinct
+ * completions, so its cost depends on the limit rather than on the size of the catalogue. The index is loaded once
+ * the application is ready and kept in sync by {@code BookService} and {@code AuthorService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SuggestionIndex {
+
+    // Separates the indexed text from the owner in a key, and sorts before any character of the text.
+    private static final char SEPARATOR = '\u0000';
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+
+    private final NavigableMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, List<String>> keysByOwner = new ConcurrentHashMap<>();
+    private final Map<Long, Long> authorIdByBook = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        entries.clear();
+        keysByOwner.clear();
+        authorIdByBook.clear();
+        Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+        Page<BookSummary> books;
+        do {
+            books = bookRepository.findAllSummaries(pageable);
+            books.forEach(book -> putBook(book.id(), book.title(), book.isbn(), book.authorID()));
+            pageable = books.nextPageable();
+        } while (books.hasNext());
+        pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+        Page<Author> authors;
+        do {
+            authors = authorRepository.findAll(pageable);
+            authors.forEach(this::putAuthor);
+            pageable = authors.nextPageable();
+        } while (authors.hasNext());
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String from = normalize(prefix);
+        if (from.isEmpty()) {
+            return List.of();
+        }
+        // A title matched at several words is suggested once.
+        Map<String, Suggestion> found = new LinkedHashMap<>();
+        for (Map.Entry<String, Suggestion> entry : entries.tailMap(from).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            found.putIfAbsent(owner(entry.getValue()), entry.getValue());
+        }
+        return List.copyOf(found.values());
+    }
+
+    public void putBook(Book book) {
+        putBook(book.getId(), book.getTitle(), book.getIsbn(), book.getAuthorID());
+    }
+
+    public void removeBook(Long bookId) {
+        remove(Suggestion.TITLE, bookId);
+        remove(Suggestion.ISBN, bookId);
+        authorIdByBook.remove(bookId);
+    }
+
+    public void putAuthor(Author author) {
+        put(new Suggestion(Suggestion.AUTHOR, author.getName(), author.getId()), wordStarts(author.getName()));
+    }
+
+    // Deleting an author cascades to their books.
+    public void removeAuthor(Long authorId) {
+        remove(Suggestion.AUTHOR, authorId);
+        authorIdByBook.entrySet().stream()
+                .filter(book -> book.getValue().equals(authorId))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::removeBook);
+    }
+
+    private void putBook(Long id, String title, String isbn, Long authorId) {
+        put(new Suggestion(Suggestion.TITLE, title, id), wordStarts(title));
+        // ISBNs complete whether or not the hyphens are typed.
+        String typed = normalize(isbn);
+        put(new Suggestion(Suggestion.ISBN, isbn, id), List.of(typed, typed.replaceAll("[^0-9a-z]", "")));
+        if (authorId != null) {
+            authorIdByBook.put(id, authorId);
+        }
+    }
+
+    private void put(Suggestion suggestion, List<String> texts) {
+        String owner = owner(suggestion);
+        remove(owner);
+        List<String> keys = texts.stream()
+                .filter(text -> !text.isEmpty())
+                .distinct()
+                .map(text -> text + SEPARATOR + owner)
+                .toList();
+        keys.forEach(key -> entries.put(key, suggestion));
+        keysByOwner.put(owner, keys);
+    }
+
+    private void remove(String type, Long id) {
+        remove(type + ":" + id);
+    }
+
+    private void remove(String owner) {
+        List<String> keys = keysByOwner.remove(owner);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+        }
+    }
+
+    private static String owner(Suggestion suggestion) {
+        return suggestion.type() + ":" + suggestion.id();
+    }
+
+    private static List<String> wordStarts(String text) {
+        String normalized = normalize(text);
+        List<String> starts = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                starts.add(normalized.substring(i));
+            }
+        }
+        return starts;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sawy.LibrarySystem.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory side effects of a write (search indexes, availability counters) once its transaction has committed,
+ * so a rollback, including one only raised when the insert is flushed at commit, leaves them as they were. Outside a
+ * transaction the write has already committed and the action runs straight away.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,63 +1,214 @@
 package com.sawy.LibrarySystem.service;
 
+import com.sawy.LibrarySystem.batch.BatchItem;
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.PageCacheKey;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
 import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.pagination.ApproximatePage;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.KeysetCursor;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.search.BookSearchIndex;
+import com.sawy.LibrarySystem.search.SuggestionIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final BookSearchIndex bookSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final BatchWriter batchWriter;
+    private final TableRowCounter tableRowCounter;
 
-    @Cacheable(value = "authors")
-    public Page<Author> getAllAuthors(int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "authors", keyGenerator = "pageKeyGenerator")
+    public Slice<Author> getAllAuthors(int page, int size, String sortBy, String sortOrder, FetchPlan fetchPlan, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return authorRepository.findAll(pageable);
+        return switch (total) {
+            case EXACT -> authorRepository.findAll(pageable, fetchPlan);
+            case NONE -> authorRepository.findSlice(pageable, fetchPlan);
+            case APPROXIMATE -> ApproximatePage.of(authorRepository.findSlice(pageable, fetchPlan), tableRowCounter.count(Author.class));
+        };
     }
 
-    @Cacheable(value = "author", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<Author> scrollAuthors(String cursor, int size, String sortBy, String sortOrder, FetchPlan fetchPlan) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Author> authors = authorRepository.findAll(KeysetCursor.decode(cursor, Author.class, sort), sort, Limit.of(size));
+        authorRepository.fetch(authors, fetchPlan);
+        return CursorPage.of(authors);
+    }
+
+    @Cacheable(value = "author", key = "#id", unless = "#result == null")
     public Optional<Author> getAuthorById(Long id) {
-        return authorRepository.findById(id);
+        return authorRepository.findById(id, FetchPlan.ALL);
+    }
+
+    @Cacheable(value = "author", key = "#id", condition = "#fetchPlan.all()", unless = "#result == null")
+    public Optional<Author> getAuthorById(Long id, FetchPlan fetchPlan) {
+        return authorRepository.findById(id, fetchPlan);
+    }
+
+    public Map<Long, Author> getAuthorsByIds(Collection<Long> ids) {
+        return authorRepository.findAllById(ids).stream().collect(Collectors.toMap(Author::getId, Function.identity()));
     }
 
     @CacheEvict(value = "authors", allEntries = true)
     public Author createAuthor(Author author) {
-        return authorRepository.save(author);
+        Author savedAuthor = authorRepository.save(author);
+        suggestionIndex.putAuthor(savedAuthor);
+        return savedAuthor;
     }
 
-    @CacheEvict(value = "authors", allEntries = true)
-    @CachePut(value = "author", key = "#id")
     public Optional<Author> updateAuthor(Long id, Author authorDetails) {
         Optional<Author> authorOptional = authorRepository.findById(id);
         if (authorOptional.isPresent()) {
             Author author = authorOptional.get();
+            String previousName = author.getName();
             author.setName(authorDetails.getName());
             author.setBirthDate(authorDetails.getBirthDate());
             author.setNationality(authorDetails.getNationality());
-            return Optional.of(authorRepository.save(author));
+            Author savedAuthor = authorRepository.save(author);
+            if (!Objects.equals(previousName, savedAuthor.getName())) {
+                bookSearchIndex.renameAuthor(id, savedAuthor.getName());
+                suggestionIndex.putAuthor(savedAuthor);
+            }
+            cacheDependencyIndex.invalidate(Author.class, id);
+            cacheDependencyIndex.evictIf("booksByAuthor", PageCacheKey.termContainedIn(previousName));
+            cacheDependencyIndex.evictIf("booksByAuthor", PageCacheKey.termContainedIn(savedAuthor.getName()));
+            return Optional.of(savedAuthor);
         } else {
             return Optional.empty();
         }
     }
 
+    // Deleting an author cascades to their books, so the book list shifts as well.
     @Caching(evict = {
             @CacheEvict(value = "authors", allEntries = true),
+            @CacheEvict(value = "books", allEntries = true),
+            @CacheEvict(value = "bookSummaries", allEntries = true),
             @CacheEvict(value = "author", key = "#id")
     })
     public void deleteAuthor(Long id) {
         authorRepository.deleteById(id);
+        bookSearchIndex.removeAuthor(id);
+        suggestionIndex.removeAuthor(id);
+        cacheDependencyIndex.invalidate(Author.class, id);
+    }
+
+    @CacheEvict(value = "authors", allEntries = true)
+    public BatchResult createAuthors(List<Author> authors) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Author>> items = batchWriter.validate(authors, results);
+        Map<Integer, Author> saved = new HashMap<>();
+        results.addAll(batchWriter.write(items, chunk -> chunk.stream()
+                .map(item -> {
+                    // A replayed item may carry the id and version of a rolled-back insert.
+                    item.value().setId(null);
+                    item.value().setVersion(null);
+                    Author savedAuthor = authorRepository.save(item.value());
+                    saved.put(item.index(), savedAuthor);
+                    return BatchItemResult.succeeded(item.index(), savedAuthor.getId(), BatchItemResult.CREATED);
+                })
+                .toList()));
+        BatchWriter.succeeded(saved, results).forEach(suggestionIndex::putAuthor);
+        return BatchResult.of(results);
+    }
+
+    @CacheEvict(value = {"authors", "author", "booksByAuthor"}, allEntries = true)
+    public BatchResult updateAuthors(List<Author> authors) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Author>> items = new ArrayList<>();
+        for (BatchItem<Author> item : batchWriter.validate(authors, results)) {
+            if (item.value().getId() == null) {
+                results.add(BatchItemResult.failed(item.index(), null, Map.of("id", "ID is mandatory")));
+            } else {
+                items.add(item);
+            }
+        }
+        Map<Long, String> previousNames = new ConcurrentHashMap<>();
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Author> existing = getAuthorsByIds(chunk.stream().map(item -> item.value().getId()).toList());
+            return chunk.stream()
+                    .map(item -> {
+                        Author author = existing.get(item.value().getId());
+                        if (author == null) {
+                            return BatchItemResult.notFound(item.index(), item.value().getId());
+                        }
+                        previousNames.put(author.getId(), author.getName());
+                        author.setName(item.value().getName());
+                        author.setBirthDate(item.value().getBirthDate());
+                        author.setNationality(item.value().getNationality());
+                        return BatchItemResult.succeeded(item.index(), author.getId(), BatchItemResult.UPDATED);
+                    })
+                    .toList();
+        }));
+        for (Author author : BatchWriter.succeeded(items, results)) {
+            cacheDependencyIndex.invalidate(Author.class, author.getId());
+            if (!Objects.equals(previousNames.get(author.getId()), author.getName())) {
+                bookSearchIndex.renameAuthor(author.getId(), author.getName());
+                suggestionIndex.putAuthor(author);
+            }
+        }
+        return BatchResult.of(results);
+    }
+
+    // Deleting authors cascades to their books, so the book caches are cleared as well.
+    @CacheEvict(value = {"authors", "author", "books", "bookSummaries", "book", "booksByTitle", "booksByAuthor", "booksByIsbn"},
+            allEntries = true)
+    public BatchResult deleteAuthors(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Long>> items = batchWriter.index(ids, results);
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Author> existing = getAuthorsByIds(chunk.stream().map(BatchItem::value).toList());
+            return chunk.stream()
+                    .map(item -> {
+                        Author author = existing.get(item.value());
+                        if (author == null) {
+                            return BatchItemResult.notFound(item.index(), item.value());
+                        }
+                        authorRepository.delete(author);
+                        return BatchItemResult.succeeded(item.index(), item.value(), BatchItemResult.DELETED);
+                    })
+                    .toList();
+        }));
+        List<Long> deleted = BatchWriter.succeeded(items, results);
+        bookSearchIndex.removeAuthors(deleted);
+        deleted.forEach(id -> {
+            suggestionIndex.removeAuthor(id);
+            cacheDependencyIndex.invalidate(Author.class, id);
+        });
+        return BatchResult.of(results);
     }
 }
@@ -0,0 +1,232 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.dto.AuthorName;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.BookImportRow;
+import com.sawy.LibrarySystem.dto.ImportResult;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.transfer.DataFormat;
+import com.sawy.LibrarySystem.transfer.RecordReader;
+import com.sawy.LibrarySystem.transfer.RecordReader.Row;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of books from NDJSON or CSV. The input is read a chunk of {@code library.import.chunk-size} rows at
+ * a time and each chunk is written through {@link BookService#createBooks} before the next one is read, so memory
+ * use is bounded by the chunk size and the author name map rather than the size of the file.
+ * <p>
+ * Authors are matched by name (ignoring case) against a map loaded once per import; unknown authors are created
+ * from the row's author columns. Books whose ISBN is already in the catalogue, or earlier in the file, are skipped.
+ */
+@Slf4j
+@Service
+public class BookImportService {
+
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final RecordReader recordReader;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public BookImportService(BookService bookService,
+                             AuthorService authorService,
+                             BookRepository bookRepository,
+                             AuthorRepository authorRepository,
+                             RecordReader recordReader,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${library.import.chunk-size:1000}") int chunkSize,
+                             @Value("${library.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.recordReader = recordReader;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ImportResult importBooks(InputStream in, DataFormat format) throws IOException {
+        Progress progress = new Progress();
+        Map<String, Long> authorIds = null;
+        try (RecordReader.Rows<BookImportRow> rows = recordReader.read(in, BookImportRow.class, format)) {
+            List<Row<BookImportRow>> chunk = new ArrayList<>(chunkSize);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == chunkSize || !rows.hasNext()) {
+                    // Not before the first chunk is in: the open session keeps the connection from then on, and the
+                    // upload may be slow.
+                    if (authorIds == null) {
+                        authorIds = loadAuthorIds();
+                    }
+                    importChunk(chunk, authorIds, progress);
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Book import finished: {} rows, {} imported, {} duplicates, {} failed",
+                progress.rows, progress.imported, progress.duplicates, progress.failed);
+        return new ImportResult(progress.rows, progress.imported, progress.duplicates, progress.failed, progress.errors);
+    }
+
+    private Map<String, Long> loadAuthorIds() {
+        Map<String, Long> authorIds = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<AuthorName> authors = authorRepository.streamAllNames()) {
+                // Names are not unique; the oldest author with a name wins.
+                authors.forEach(author -> authorIds.merge(key(author.name()), author.id(), Math::min));
+            }
+        });
+        return authorIds;
+    }
+
+    private void importChunk(List<Row<BookImportRow>> chunk, Map<String, Long> authorIds, Progress progress) {
+        List<Row<BookImportRow>> candidates = new ArrayList<>();
+        for (Row<BookImportRow> row : chunk) {
+            if (!row.valid()) {
+                progress.fail(row, Map.of("row", row.error()));
+            } else if (isBlank(row.value().authorName())) {
+                progress.fail(row, Map.of("authorName", "Author name is mandatory"));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        // Only the ISBNs of this chunk are looked up; earlier chunks are already in the catalogue by now.
+        List<String> isbns = candidates.stream().map(row -> row.value().isbn()).filter(isbn -> !isBlank(isbn)).toList();
+        Set<String> seen = isbns.isEmpty() ? new HashSet<>() : new HashSet<>(bookRepository.findIsbnsIn(isbns));
+        List<Row<BookImportRow>> unique = new ArrayList<>();
+        for (Row<BookImportRow> row : candidates) {
+            String isbn = row.value().isbn();
+            if (!isBlank(isbn) && !seen.add(isbn)) {
+                progress.duplicates++;
+            } else {
+                unique.add(row);
+            }
+        }
+
+        Map<String, Map<String, String>> authorErrors = createMissingAuthors(unique, authorIds);
+        List<Row<BookImportRow>> importable = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (Row<BookImportRow> row : unique) {
+            String author = key(row.value().authorName());
+            if (authorErrors.containsKey(author)) {
+                progress.fail(row, authorErrors.get(author));
+            } else {
+                importable.add(row);
+                books.add(book(row.value(), authorIds.get(author)));
+            }
+        }
+
+        if (!books.isEmpty()) {
+            BatchResult result = bookService.createBooks(books);
+            for (BatchItemResult item : result.items()) {
+                if (item.succeeded()) {
+                    progress.imported++;
+                } else {
+                    progress.fail(importable.get(item.index()), item.errors());
+                }
+            }
+        }
+        // Under open-session-in-view the request's persistence context outlives the chunk transactions.
+        entityManager.clear();
+
+        long before = progress.rows;
+        progress.rows += chunk.size();
+        if (before / PROGRESS_INTERVAL != progress.rows / PROGRESS_INTERVAL) {
+            log.info("Book import: {} rows read, {} imported, {} duplicates, {} failed",
+                    progress.rows, progress.imported, progress.duplicates, progress.failed);
+        }
+    }
+
+    // Creates the authors the chunk refers to that do not exist yet; returns the errors of those that could not be.
+    private Map<String, Map<String, String>> createMissingAuthors(List<Row<BookImportRow>> rows, Map<String, Long> authorIds) {
+        Map<String, Author> missing = new LinkedHashMap<>();
+        Map<String, Map<String, String>> errors = new HashMap<>();
+        for (Row<BookImportRow> row : rows) {
+            BookImportRow book = row.value();
+            String author = key(book.authorName());
+            if (authorIds.containsKey(author) || missing.containsKey(author) || errors.containsKey(author)) {
+                continue;
+            }
+            if (isBlank(book.authorNationality())) {
+                errors.put(author, Map.of("authorName", "Author not found"));
+            } else {
+                missing.put(author, new Author(book.authorName().trim(), book.authorBirthDate(), book.authorNationality()));
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<String> keys = new ArrayList<>(missing.keySet());
+            for (BatchItemResult item : authorService.createAuthors(new ArrayList<>(missing.values())).items()) {
+                if (item.succeeded()) {
+                    authorIds.put(keys.get(item.index()), item.id());
+                } else {
+                    Map<String, String> authorErrors = new LinkedHashMap<>();
+                    item.errors().forEach((field, message) -> authorErrors.put("author." + field, message));
+                    errors.put(keys.get(item.index()), authorErrors);
+                }
+            }
+        }
+        return errors;
+    }
+
+    private static Book book(BookImportRow row, Long authorId) {
+        boolean available = row.available() == null || row.available();
+        return new Book(row.title(), row.isbn(), row.publicationDate(), row.genre(), available, authorId);
+    }
+
+    private static String key(String authorName) {
+        return authorName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private final class Progress {
+
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long failed;
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+
+        private void fail(Row<BookImportRow> row, Map<String, String> rowErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                String isbn = row.value() == null ? null : row.value().isbn();
+                errors.add(new ImportResult.RowError(row.line(), isbn, rowErrors));
+            }
+        }
+    }
+}
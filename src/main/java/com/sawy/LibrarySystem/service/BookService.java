@@ -1,62 +1,155 @@
 package com.sawy.LibrarySystem.service;
 
+import com.sawy.LibrarySystem.batch.BatchItem;
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.PageCacheKey;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.Suggestion;
 import com.sawy.LibrarySystem.model.Author;
 import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.pagination.ApproximatePage;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.KeysetCursor;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.BookQueryPlanner;
 import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.search.BookSearchIndex;
+import com.sawy.LibrarySystem.search.SuggestionIndex;
+import com.sawy.LibrarySystem.transfer.DataFormat;
+import com.sawy.LibrarySystem.transfer.RecordExporter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final BookRepository bookRepository;
     private final AuthorService authorService;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final BookSearchIndex bookSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final BatchWriter batchWriter;
+    private final RecordExporter recordExporter;
+    private final TableRowCounter tableRowCounter;
+    private final InventoryService inventoryService;
+
+    @Cacheable(value = "books", keyGenerator = "pageKeyGenerator")
+    public Slice<Book> getAllBooks(int page, int size, String sortBy, String sortOrder, FetchPlan fetchPlan, TotalMode total) {
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        return switch (total) {
+            case EXACT -> bookRepository.findAll(pageable, fetchPlan);
+            case NONE -> bookRepository.findSlice(pageable, fetchPlan);
+            case APPROXIMATE -> ApproximatePage.of(bookRepository.findSlice(pageable, fetchPlan), tableRowCounter.count(Book.class));
+        };
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollBooks(String cursor, int size, String sortBy, String sortOrder, FetchPlan fetchPlan) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Book> books = bookRepository.findAll(KeysetCursor.decode(cursor, Book.class, sort), sort, Limit.of(size));
+        bookRepository.fetch(books, fetchPlan);
+        return CursorPage.of(books);
+    }
 
-    @Cacheable(value = "books")
-    public Page<Book> getAllBooks(int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "bookSummaries", keyGenerator = "pageKeyGenerator")
+    public Page<BookSummary> getBookSummaries(int page, int size, String sortBy, String sortOrder) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookRepository.findAll(pageable);
+        return bookRepository.findAllSummaries(pageable);
+    }
+
+    // Holds a connection until the whole response is written, however slow the client.
+    @Transactional(readOnly = true)
+    public void exportBooks(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<BookSummary> books = bookRepository.streamAllSummaries()) {
+            recordExporter.write(books, BookSummary.class, format, out);
+        }
     }
 
-    @Cacheable(value = "book", key = "#id")
+    @Cacheable(value = "book", key = "#id", unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
-        return bookRepository.findById(id);
+        return bookRepository.findById(id, FetchPlan.ALL);
+    }
+
+    @Cacheable(value = "book", key = "#id", condition = "#fetchPlan.all()", unless = "#result == null")
+    public Optional<Book> getBookById(Long id, FetchPlan fetchPlan) {
+        return bookRepository.findById(id, fetchPlan);
     }
 
-    @CacheEvict(value = "books", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "books", allEntries = true),
+            @CacheEvict(value = "bookSummaries", allEntries = true)
+    })
+    @Transactional
     public Book createBook(Book book) {
         Author author = authorService.getAuthorById(book.getAuthorID()).orElse(null);
         book.setAuthor(author);
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        inventoryService.addInitialCopy(savedBook);
+        AfterCommit.run(() -> {
+            bookSearchIndex.index(savedBook);
+            suggestionIndex.putBook(savedBook);
+        });
+        evictSearchesMatching(savedBook);
+        cacheDependencyIndex.invalidate(Author.class, savedBook.getAuthorID());
+        return savedBook;
     }
 
-    @CacheEvict(value = "books", allEntries = true)
-    @CachePut(value = "book", key = "#id")
     public Optional<Book> updateBook(Long id, Book bookDetails) {
         Optional<Book> bookOptional = bookRepository.findById(id);
         if (bookOptional.isPresent()) {
             Book book = bookOptional.get();
-            book.setTitle(bookDetails.getTitle());
-            book.setIsbn(bookDetails.getIsbn());
-            book.setPublicationDate(bookDetails.getPublicationDate());
-            book.setGenre(bookDetails.getGenre());
-            book.setAvailable(bookDetails.isAvailable());
-            book.setAuthorID(bookDetails.getAuthorID());
-            book.setAuthor(authorService.getAuthorById(bookDetails.getAuthorID()).orElse(null));
-            return Optional.of(bookRepository.save(book));
+            Long previousAuthorID = book.getAuthorID();
+            copyDetails(bookDetails, book, authorService.getAuthorById(bookDetails.getAuthorID()).orElse(null));
+            Book savedBook = bookRepository.save(book);
+            AfterCommit.run(() -> {
+                bookSearchIndex.index(savedBook);
+                suggestionIndex.putBook(savedBook);
+            });
+            cacheDependencyIndex.invalidate(Book.class, id);
+            cacheDependencyIndex.invalidate(Author.class, previousAuthorID);
+            cacheDependencyIndex.invalidate(Author.class, savedBook.getAuthorID());
+            evictSearchesMatching(savedBook);
+            return Optional.of(savedBook);
         } else {
             return Optional.empty();
         }
@@ -64,30 +157,240 @@ public class BookService {
 
     @Caching(evict = {
             @CacheEvict(value = "books", allEntries = true),
+            @CacheEvict(value = "bookSummaries", allEntries = true),
             @CacheEvict(value = "book", key = "#id")
     })
     public void deleteBook(Long id) {
+        bookRepository.findById(id).ifPresent(book -> cacheDependencyIndex.invalidate(Author.class, book.getAuthorID()));
         bookRepository.deleteById(id);
+        bookSearchIndex.remove(id);
+        inventoryService.removeBooks(List.of(id));
+        suggestionIndex.removeBook(id);
+        cacheDependencyIndex.invalidate(Book.class, id);
+    }
+
+    @CacheEvict(value = {"books", "bookSummaries", "booksByTitle", "booksByAuthor", "booksByIsbn"}, allEntries = true)
+    public BatchResult createBooks(List<Book> books) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Book>> items = withAuthors(batchWriter.validate(books, results), results);
+        Map<Integer, Book> saved = new HashMap<>();
+        results.addAll(batchWriter.write(items, chunk -> chunk.stream()
+                .map(item -> {
+                    // A replayed item may carry the id and version of a rolled-back insert.
+                    item.value().setId(null);
+                    item.value().setVersion(null);
+                    Book savedBook = bookRepository.save(item.value());
+                    saved.put(item.index(), savedBook);
+                    inventoryService.addInitialCopy(savedBook);
+                    return BatchItemResult.succeeded(item.index(), savedBook.getId(), BatchItemResult.CREATED);
+                })
+                .toList()));
+        List<Book> created = BatchWriter.succeeded(saved, results);
+        bookSearchIndex.indexAll(created);
+        created.forEach(suggestionIndex::putBook);
+        created.stream().map(Book::getAuthorID).distinct().forEach(authorId -> cacheDependencyIndex.invalidate(Author.class, authorId));
+        return BatchResult.of(results);
+    }
+
+    @CacheEvict(value = {"books", "bookSummaries", "book", "booksByTitle", "booksByAuthor", "booksByIsbn"}, allEntries = true)
+    public BatchResult updateBooks(List<Book> books) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Book>> items = withAuthors(withIds(batchWriter.validate(books, results), results), results);
+        Set<Long> affectedAuthorIds = ConcurrentHashMap.newKeySet();
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Book> existing = bookRepository.findAllById(chunk.stream().map(item -> item.value().getId()).toList()).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            return chunk.stream()
+                    .map(item -> {
+                        Book book = existing.get(item.value().getId());
+                        if (book == null) {
+                            return BatchItemResult.notFound(item.index(), item.value().getId());
+                        }
+                        affectedAuthorIds.add(book.getAuthorID());
+                        copyDetails(item.value(), book, item.value().getAuthor());
+                        return BatchItemResult.succeeded(item.index(), book.getId(), BatchItemResult.UPDATED);
+                    })
+                    .toList();
+        }));
+        List<Book> updated = BatchWriter.succeeded(items, results);
+        bookSearchIndex.indexAll(updated);
+        updated.forEach(suggestionIndex::putBook);
+        updated.forEach(book -> {
+            cacheDependencyIndex.invalidate(Book.class, book.getId());
+            affectedAuthorIds.add(book.getAuthorID());
+        });
+        affectedAuthorIds.forEach(authorId -> cacheDependencyIndex.invalidate(Author.class, authorId));
+        return BatchResult.of(results);
+    }
+
+    @CacheEvict(value = {"books", "bookSummaries", "book", "booksByTitle", "booksByAuthor", "booksByIsbn"}, allEntries = true)
+    public BatchResult deleteBooks(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Long>> items = batchWriter.index(ids, results);
+        Set<Long> affectedAuthorIds = ConcurrentHashMap.newKeySet();
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Book> existing = bookRepository.findAllById(chunk.stream().map(BatchItem::value).toList()).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            return chunk.stream()
+                    .map(item -> {
+                        Book book = existing.get(item.value());
+                        if (book == null) {
+                            return BatchItemResult.notFound(item.index(), item.value());
+                        }
+                        affectedAuthorIds.add(book.getAuthorID());
+                        bookRepository.delete(book);
+                        return BatchItemResult.succeeded(item.index(), item.value(), BatchItemResult.DELETED);
+                    })
+                    .toList();
+        }));
+        List<Long> deleted = BatchWriter.succeeded(items, results);
+        bookSearchIndex.removeAll(deleted);
+        inventoryService.removeBooks(deleted);
+        deleted.forEach(id -> {
+            suggestionIndex.removeBook(id);
+            cacheDependencyIndex.invalidate(Book.class, id);
+        });
+        affectedAuthorIds.forEach(authorId -> cacheDependencyIndex.invalidate(Author.class, authorId));
+        return BatchResult.of(results);
+    }
+
+    // Ranked full-text search, so the order comes from the index rather than a sort column.
+    @Transactional(readOnly = true)
+    public Page<Book> searchBooks(String query, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        BookSearchIndex.Hits hits = bookSearchIndex.search(query, pageable);
+        Map<Long, Book> byId = bookRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = hits.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return new PageImpl<>(books, pageable, hits.total());
+    }
+
+    public List<Suggestion> suggestBooks(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return suggestionIndex.suggest(prefix, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Book> filterBooks(BookFilter filter, int page, int size, String sortBy, String sortOrder, TotalMode total) {
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        Specification<Book> specification = BookQueryPlanner.plan(filter);
+        Slice<Book> books = total == TotalMode.EXACT
+                ? bookRepository.findAll(specification, pageable)
+                : bookRepository.findSlice(specification, pageable, FetchPlan.NONE);
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return books;
     }
 
-    @Cacheable(value = "booksByTitle", key = "#title")
-    public Page<Book> searchBooksByTitle(String title, int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "booksByTitle", keyGenerator = "pageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Slice<Book> searchBooksByTitle(String title, int page, int size, String sortBy, String sortOrder, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookRepository.findByTitleContainingIgnoreCase(title, pageable);
+        Slice<Book> books = total == TotalMode.EXACT
+                ? bookRepository.findByTitleContainingIgnoreCase(title, pageable)
+                : bookRepository.findSliceByTitleContainingIgnoreCase(title, pageable);
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return books;
     }
 
-    @Cacheable(value = "booksByAuthor", key = "#author")
-    public Page<Book> searchBooksByAuthor(String author, int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "booksByAuthor", keyGenerator = "pageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Slice<Book> searchBooksByAuthor(String author, int page, int size, String sortBy, String sortOrder, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookRepository.findByAuthor_NameContainingIgnoreCase(author, pageable);
+        Slice<Book> books = total == TotalMode.EXACT
+                ? bookRepository.findByAuthor_NameContainingIgnoreCase(author, pageable)
+                : bookRepository.findSliceByAuthor_NameContainingIgnoreCase(author, pageable);
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return books;
     }
 
-    @Cacheable(value = "booksByIsbn", key = "#isbn")
-    public Page<Book> searchBooksByIsbn(String isbn, int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "booksByIsbn", keyGenerator = "pageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Slice<Book> searchBooksByIsbn(String isbn, int page, int size, String sortBy, String sortOrder, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookRepository.findByIsbnContainingIgnoreCase(isbn, pageable);
+        Slice<Book> books = total == TotalMode.EXACT
+                ? bookRepository.findByIsbnContainingIgnoreCase(isbn, pageable)
+                : bookRepository.findSliceByIsbnContainingIgnoreCase(isbn, pageable);
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return books;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollBooksByTitle(String title, String cursor, int size, String sortBy, String sortOrder) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Book> books = bookRepository.findByTitleContainingIgnoreCase(title, KeysetCursor.decode(cursor, Book.class, sort), sort, Limit.of(size));
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return CursorPage.of(books);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollBooksByAuthor(String author, String cursor, int size, String sortBy, String sortOrder) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Book> books = bookRepository.findByAuthor_NameContainingIgnoreCase(author, KeysetCursor.decode(cursor, Book.class, sort), sort, Limit.of(size));
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return CursorPage.of(books);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Book> scrollBooksByIsbn(String isbn, String cursor, int size, String sortBy, String sortOrder) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Book> books = bookRepository.findByIsbnContainingIgnoreCase(isbn, KeysetCursor.decode(cursor, Book.class, sort), sort, Limit.of(size));
+        bookRepository.fetch(books, FetchPlan.ALL);
+        return CursorPage.of(books);
+    }
+
+    // Resolves the authors of all items with one query; items whose author does not exist fail.
+    private List<BatchItem<Book>> withAuthors(List<BatchItem<Book>> items, List<BatchItemResult> failures) {
+        Set<Long> authorIds = new HashSet<>();
+        items.forEach(item -> authorIds.add(item.value().getAuthorID()));
+        Map<Long, Author> authors = authorService.getAuthorsByIds(authorIds);
+        List<BatchItem<Book>> resolved = new ArrayList<>();
+        for (BatchItem<Book> item : items) {
+            Author author = authors.get(item.value().getAuthorID());
+            if (author == null) {
+                failures.add(BatchItemResult.failed(item.index(), item.value().getId(), Map.of("authorID", "Author not found")));
+            } else {
+                item.value().setAuthor(author);
+                resolved.add(item);
+            }
+        }
+        return resolved;
+    }
+
+    private static List<BatchItem<Book>> withIds(List<BatchItem<Book>> items, List<BatchItemResult> failures) {
+        List<BatchItem<Book>> identified = new ArrayList<>();
+        for (BatchItem<Book> item : items) {
+            if (item.value().getId() == null) {
+                failures.add(BatchItemResult.failed(item.index(), null, Map.of("id", "ID is mandatory")));
+            } else {
+                identified.add(item);
+            }
+        }
+        return identified;
+    }
+
+    private static void copyDetails(Book details, Book book, Author author) {
+        book.setTitle(details.getTitle());
+        book.setIsbn(details.getIsbn());
+        book.setPublicationDate(details.getPublicationDate());
+        book.setGenre(details.getGenre());
+        // available follows the stock, see InventoryService.
+        book.setAuthorID(details.getAuthorID());
+        book.setAuthor(author);
+    }
+
+    // A new or changed book can show up in any cached search whose term it contains.
+    private void evictSearchesMatching(Book book) {
+        cacheDependencyIndex.evictIf("booksByTitle", PageCacheKey.termContainedIn(book.getTitle()));
+        cacheDependencyIndex.evictIf("booksByIsbn", PageCacheKey.termContainedIn(book.getIsbn()));
+        if (book.getAuthor() != null) {
+            cacheDependencyIndex.evictIf("booksByAuthor", PageCacheKey.termContainedIn(book.getAuthor().getName()));
+        }
     }
 }
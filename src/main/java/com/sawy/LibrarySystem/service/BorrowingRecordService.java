@@ -1,21 +1,43 @@
 package com.sawy.LibrarySystem.service;
 
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.PageCacheKey;
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.dto.OverdueLoan;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
 import com.sawy.LibrarySystem.model.Book;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.overdue.FinePolicy;
+import com.sawy.LibrarySystem.pagination.ApproximatePage;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.KeysetCursor;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.transfer.DataFormat;
+import com.sawy.LibrarySystem.transfer.RecordExporter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,39 +46,88 @@ public class BorrowingRecordService {
     private final BorrowingRecordRepository borrowingRecordRepository;
     private final CustomerService customerService;
     private final BookService bookService;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final RecordExporter recordExporter;
+    private final TableRowCounter tableRowCounter;
+    private final FinePolicy finePolicy;
+    private final CheckoutService checkoutService;
 
-    @Cacheable(value = "borrowingRecords")
-    public Page<BorrowingRecord> getAllBorrowingRecords(int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "borrowingRecords", keyGenerator = "pageKeyGenerator")
+    public Slice<BorrowingRecord> getAllBorrowingRecords(int page, int size, String sortBy, String sortOrder, FetchPlan fetchPlan, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return borrowingRecordRepository.findAll(pageable);
+        return switch (total) {
+            case EXACT -> borrowingRecordRepository.findAll(pageable, fetchPlan);
+            case NONE -> borrowingRecordRepository.findSlice(pageable, fetchPlan);
+            case APPROXIMATE -> ApproximatePage.of(borrowingRecordRepository.findSlice(pageable, fetchPlan), tableRowCounter.count(BorrowingRecord.class));
+        };
     }
 
-    @Cacheable(value = "borrowingRecord", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingRecord> scrollBorrowingRecords(String cursor, int size, String sortBy, String sortOrder, FetchPlan fetchPlan) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<BorrowingRecord> borrowingRecords = borrowingRecordRepository.findAll(KeysetCursor.decode(cursor, BorrowingRecord.class, sort), sort, Limit.of(size));
+        borrowingRecordRepository.fetch(borrowingRecords, fetchPlan);
+        return CursorPage.of(borrowingRecords);
+    }
+
+    @Cacheable(value = "borrowingSummaries", keyGenerator = "pageKeyGenerator")
+    public Page<BorrowingSummary> getBorrowingSummaries(int page, int size, String sortBy, String sortOrder) {
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        return borrowingRecordRepository.findAllSummaries(pageable);
+    }
+
+    // Read through the due date index; not cached, as loans become overdue by the day.
+    public Slice<OverdueLoan> getOverdueLoans(int page, int size) {
+        LocalDate today = LocalDate.now();
+        return borrowingRecordRepository.findOverdueSummaries(today, PageRequest.of(page, size))
+                .map(loan -> new OverdueLoan(loan.id(), loan.customerID(), loan.customerName(), loan.bookID(), loan.bookTitle(),
+                        loan.returnDate(), finePolicy.daysOverdue(loan.returnDate(), today), finePolicy.fineFor(loan.returnDate(), today)));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBorrowingRecords(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<BorrowingSummary> borrowingRecords = borrowingRecordRepository.streamAllSummaries()) {
+            recordExporter.write(borrowingRecords, BorrowingSummary.class, format, out);
+        }
+    }
+
+    @Cacheable(value = "borrowingRecord", key = "#id", unless = "#result == null")
     public Optional<BorrowingRecord> getBorrowingRecordById(Long id) {
-        return borrowingRecordRepository.findById(id);
+        return borrowingRecordRepository.findById(id, FetchPlan.ALL);
     }
 
-    @CacheEvict(value = "borrowingRecords", allEntries = true)
+    @Cacheable(value = "borrowingRecord", key = "#id", condition = "#fetchPlan.all()", unless = "#result == null")
+    public Optional<BorrowingRecord> getBorrowingRecordById(Long id, FetchPlan fetchPlan) {
+        return borrowingRecordRepository.findById(id, fetchPlan);
+    }
+
+    // Lent through checkout, so the loan takes a copy from the stock; the dates are the loan's, not the request's.
     public BorrowingRecord createBorrowingRecord(BorrowingRecord borrowingRecord) {
-        Customer customer = customerService.getCustomerById(borrowingRecord.getCustomerID()).orElse(null);
-        Book book = bookService.getBookById(borrowingRecord.getBookID()).orElse(null);
-        borrowingRecord.setCustomer(customer);
-        borrowingRecord.setBook(book);
-        return borrowingRecordRepository.save(borrowingRecord);
+        return checkoutService.checkout(borrowingRecord.getCustomerID(), borrowingRecord.getBookID(), borrowingRecord.getBranch());
     }
 
-    @CacheEvict(value = "borrowingRecords", allEntries = true)
-    @CachePut(value = "borrowingRecord", key = "#id")
     public Optional<BorrowingRecord> updateBorrowingRecord(Long id, BorrowingRecord borrowingRecordDetails) {
         Optional<BorrowingRecord> borrowingRecordOptional = borrowingRecordRepository.findById(id);
         if (borrowingRecordOptional.isPresent()) {
             BorrowingRecord borrowingRecord = borrowingRecordOptional.get();
+            if (holdsCopy(borrowingRecord) && movesCopy(borrowingRecord, borrowingRecordDetails)) {
+                throw new ConflictException("The loan holds a copy of its book; return it and check the book out again instead");
+            }
+            Long previousCustomerID = borrowingRecord.getCustomerID();
+            Long previousBookID = borrowingRecord.getBookID();
             borrowingRecord.setCustomer(customerService.getCustomerById(borrowingRecordDetails.getCustomerID()).orElse(null));
             borrowingRecord.setBook(bookService.getBookById(borrowingRecordDetails.getBookID()).orElse(null));
+            borrowingRecord.setCustomerID(borrowingRecordDetails.getCustomerID());
+            borrowingRecord.setBookID(borrowingRecordDetails.getBookID());
             borrowingRecord.setBorrowDate(borrowingRecordDetails.getBorrowDate());
             borrowingRecord.setReturnDate(borrowingRecordDetails.getReturnDate());
-            return Optional.of(borrowingRecordRepository.save(borrowingRecord));
+            BorrowingRecord savedBorrowingRecord = borrowingRecordRepository.save(borrowingRecord);
+            cacheDependencyIndex.invalidate(BorrowingRecord.class, id);
+            evictLoanCaches(previousCustomerID, previousBookID);
+            evictLoanCaches(savedBorrowingRecord.getCustomerID(), savedBorrowingRecord.getBookID());
+            return Optional.of(savedBorrowingRecord);
         } else {
             return Optional.empty();
         }
@@ -64,23 +135,73 @@ public class BorrowingRecordService {
 
     @Caching(evict = {
             @CacheEvict(value = "borrowingRecords", allEntries = true),
+            @CacheEvict(value = "borrowingSummaries", allEntries = true),
             @CacheEvict(value = "borrowingRecord", key = "#id")
     })
     public void deleteBorrowingRecord(Long id) {
-        borrowingRecordRepository.deleteById(id);
+        checkoutService.delete(id)
+                .ifPresent(borrowingRecord -> evictLoanCaches(borrowingRecord.getCustomerID(), borrowingRecord.getBookID()));
+        cacheDependencyIndex.invalidate(BorrowingRecord.class, id);
     }
 
-    @Cacheable(value = "borrowingRecordsByCustomerId", key = "#userId")
-    public Page<BorrowingRecord> getBorrowingRecordsByCustomerId(Long userId, int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "borrowingRecordsByCustomerId", keyGenerator = "pageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Slice<BorrowingRecord> getBorrowingRecordsByCustomerId(Long userId, int page, int size, String sortBy, String sortOrder, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return borrowingRecordRepository.findByCustomer_Id(userId, pageable);
+        Slice<BorrowingRecord> borrowingRecords = total == TotalMode.EXACT
+                ? borrowingRecordRepository.findByCustomer_Id(userId, pageable)
+                : borrowingRecordRepository.findSliceByCustomer_Id(userId, pageable);
+        borrowingRecordRepository.fetch(borrowingRecords, FetchPlan.ALL);
+        return borrowingRecords;
     }
 
-    @Cacheable(value = "borrowingRecordsByBookId", key = "#bookId")
-    public Page<BorrowingRecord> getBorrowingRecordsByBookId(Long bookId, int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "borrowingRecordsByBookId", keyGenerator = "pageKeyGenerator")
+    @Transactional(readOnly = true)
+    public Slice<BorrowingRecord> getBorrowingRecordsByBookId(Long bookId, int page, int size, String sortBy, String sortOrder, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return borrowingRecordRepository.findByBook_Id(bookId, pageable);
+        Slice<BorrowingRecord> borrowingRecords = total == TotalMode.EXACT
+                ? borrowingRecordRepository.findByBook_Id(bookId, pageable)
+                : borrowingRecordRepository.findSliceByBook_Id(bookId, pageable);
+        borrowingRecordRepository.fetch(borrowingRecords, FetchPlan.ALL);
+        return borrowingRecords;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingRecord> scrollBorrowingRecordsByCustomerId(Long userId, String cursor, int size, String sortBy, String sortOrder) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<BorrowingRecord> borrowingRecords = borrowingRecordRepository.findByCustomer_Id(userId, KeysetCursor.decode(cursor, BorrowingRecord.class, sort), sort, Limit.of(size));
+        borrowingRecordRepository.fetch(borrowingRecords, FetchPlan.ALL);
+        return CursorPage.of(borrowingRecords);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingRecord> scrollBorrowingRecordsByBookId(Long bookId, String cursor, int size, String sortBy, String sortOrder) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<BorrowingRecord> borrowingRecords = borrowingRecordRepository.findByBook_Id(bookId, KeysetCursor.decode(cursor, BorrowingRecord.class, sort), sort, Limit.of(size));
+        borrowingRecordRepository.fetch(borrowingRecords, FetchPlan.ALL);
+        return CursorPage.of(borrowingRecords);
+    }
+
+    // The stock only moves through checkout and return, so a copy on loan stays with the book, branch and customer
+    // it was lent from and to.
+    private static boolean holdsCopy(BorrowingRecord borrowingRecord) {
+        return borrowingRecord.getReturnedOn() == null && borrowingRecord.isCopyTaken();
+    }
+
+    private static boolean movesCopy(BorrowingRecord borrowingRecord, BorrowingRecord details) {
+        return !Objects.equals(borrowingRecord.getBookID(), details.getBookID())
+                || !Objects.equals(borrowingRecord.getCustomerID(), details.getCustomerID())
+                || details.getBranch() != null && !details.getBranch().equals(borrowingRecord.getBranch());
+    }
+
+    // A loan is embedded in its book and customer and listed under both of their searches;
+    // the rest of the catalogue stays cached.
+    private void evictLoanCaches(Long customerId, Long bookId) {
+        cacheDependencyIndex.invalidate(Book.class, bookId);
+        cacheDependencyIndex.invalidate(Customer.class, customerId);
+        cacheDependencyIndex.evictIf("borrowingRecordsByCustomerId", PageCacheKey.withTerm(customerId));
+        cacheDependencyIndex.evictIf("borrowingRecordsByBookId", PageCacheKey.withTerm(bookId));
     }
 }
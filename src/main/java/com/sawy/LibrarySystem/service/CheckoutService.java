@@ -0,0 +1,217 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.PageCacheKey;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.overdue.FinePolicy;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Checkout and return of books. A copy is first reserved in {@link AvailabilityCounters}, so a book with no copies
+ * left is refused without touching the database, and then taken with a conditional UPDATE on its branch's
+ * {@code book_stock} row: concurrent checkouts of the last copy are decided by the database, one of them updates the
+ * row and the others are refused with a {@link ConflictException}. Only that one row is locked, and only until the
+ * short transaction commits.
+ * <p>
+ * A returned copy goes to the first hold waiting for the book, see {@link HoldService}, and is only put back on the
+ * shelf if nobody is waiting.
+ * <p>
+ * A transaction that loses a deadlock or times out waiting for the row lock is retried a few times before the
+ * failure is passed on.
+ */
+@Service
+public class CheckoutService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BookRepository bookRepository;
+    private final BookStockRepository bookStockRepository;
+    private final CustomerRepository customerRepository;
+    private final BorrowingRecordRepository borrowingRecordRepository;
+    private final AvailabilityCounters availabilityCounters;
+    private final HoldService holdService;
+    private final FinePolicy finePolicy;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Period loanPeriod;
+
+    public CheckoutService(BookRepository bookRepository,
+                           BookStockRepository bookStockRepository,
+                           CustomerRepository customerRepository,
+                           BorrowingRecordRepository borrowingRecordRepository,
+                           AvailabilityCounters availabilityCounters,
+                           HoldService holdService,
+                           FinePolicy finePolicy,
+                           CacheDependencyIndex cacheDependencyIndex,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${library.loan.period:14d}") Period loanPeriod) {
+        this.bookRepository = bookRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.customerRepository = customerRepository;
+        this.borrowingRecordRepository = borrowingRecordRepository;
+        this.availabilityCounters = availabilityCounters;
+        this.holdService = holdService;
+        this.finePolicy = finePolicy;
+        this.cacheDependencyIndex = cacheDependencyIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loanPeriod = loanPeriod;
+    }
+
+    // Lends a copy of the book to the customer for the loan period, from the given branch or whichever has most
+    // copies left; the new record's return date is the due date.
+    @CacheEvict(value = {"borrowingRecords", "borrowingSummaries"}, allEntries = true)
+    public BorrowingRecord checkout(Long customerId, Long bookId, String branch) {
+        String reserved = availabilityCounters.reserve(bookId, branch);
+        if (reserved == null) {
+            if (!availabilityCounters.tracks(bookId)) {
+                throw new IllegalArgumentException("Book not found");
+            }
+            throw new ConflictException(branch == null ? "Book is not available" : "Book is not available at " + branch);
+        }
+        BorrowingRecord borrowingRecord;
+        try {
+            borrowingRecord = withRetry(() -> transactionTemplate.execute(status -> {
+                // Saved first so the id is allocated (on its own connection) before the stock row is locked; the
+                // insert itself is only flushed at commit.
+                BorrowingRecord saved = lend(customerId, bookId, reserved);
+                if (bookStockRepository.takeCopy(bookId, reserved) == 0) {
+                    throw new ConflictException("Book is not available");
+                }
+                // Loaded after the update so the lent book shows whether it is still available.
+                borrowingRecordRepository.fetch(List.of(saved), FetchPlan.ALL);
+                return saved;
+            }));
+        } catch (ConflictException e) {
+            // The counters were ahead of the database, e.g. after a checkout on another instance.
+            availabilityCounters.refresh(bookId);
+            throw e;
+        } catch (RuntimeException e) {
+            availabilityCounters.release(bookId, reserved);
+            throw e;
+        }
+        evictLoanCaches(customerId, bookId);
+        return borrowingRecord;
+    }
+
+    // Lends the copy set aside for a ready hold to its customer; empty if there is no such hold.
+    @CacheEvict(value = {"borrowingRecords", "borrowingSummaries"}, allEntries = true)
+    public Optional<BorrowingRecord> collectHold(Long holdId) {
+        Optional<BorrowingRecord> borrowingRecord = withRetry(() -> transactionTemplate.execute(status ->
+                holdService.collect(holdId).map(hold -> {
+                    BorrowingRecord saved = lend(hold.getCustomerID(), hold.getBookID(), hold.getBranch());
+                    borrowingRecordRepository.fetch(List.of(saved), FetchPlan.ALL);
+                    return saved;
+                })));
+        borrowingRecord.ifPresent(lent -> evictLoanCaches(lent.getCustomerID(), lent.getBookID()));
+        return borrowingRecord;
+    }
+
+    // Closes the loan, charging a fine if it is late, and hands the copy to the next hold or puts it back at its
+    // branch; empty if there is no such loan.
+    @CacheEvict(value = {"borrowingRecords", "borrowingSummaries"}, allEntries = true)
+    public Optional<BorrowingRecord> returnBook(Long borrowingRecordId) {
+        Optional<BorrowingRecord> borrowingRecord = withRetry(() -> transactionTemplate.execute(status -> {
+            LocalDate today = LocalDate.now();
+            if (borrowingRecordRepository.close(borrowingRecordId, today, LocalDateTime.now()) == 0) {
+                if (!borrowingRecordRepository.existsById(borrowingRecordId)) {
+                    return Optional.<BorrowingRecord>empty();
+                }
+                throw new ConflictException("Book has already been returned");
+            }
+            BorrowingRecord closed = borrowingRecordRepository.findById(borrowingRecordId, FetchPlan.NONE).orElseThrow();
+            closed.setFine(finePolicy.fineFor(closed.getReturnDate(), today));
+            giveBack(closed);
+            // Loaded after the update so the returned book shows whether it is available again.
+            borrowingRecordRepository.fetch(List.of(closed), FetchPlan.ALL);
+            return Optional.of(closed);
+        }));
+        borrowingRecord.ifPresent(closed -> {
+            cacheDependencyIndex.invalidate(BorrowingRecord.class, closed.getId());
+            evictLoanCaches(closed.getCustomerID(), closed.getBookID());
+        });
+        return borrowingRecord;
+    }
+
+    // Deletes the record; a loan still open gives its copy back as a return would, without a fine. Empty if there
+    // is no such record.
+    public Optional<BorrowingRecord> delete(Long borrowingRecordId) {
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            // Closed first, so a return racing with the delete cannot give the same copy back as well.
+            boolean open = borrowingRecordRepository.close(borrowingRecordId, LocalDate.now(), LocalDateTime.now()) == 1;
+            Optional<BorrowingRecord> deleted = borrowingRecordRepository.findById(borrowingRecordId, FetchPlan.NONE);
+            deleted.ifPresent(borrowingRecord -> {
+                if (open) {
+                    giveBack(borrowingRecord);
+                }
+                borrowingRecordRepository.delete(borrowingRecord);
+            });
+            return deleted;
+        }));
+    }
+
+    // Hands the loan's copy to the next hold or puts it back at its branch, if the loan took one.
+    private void giveBack(BorrowingRecord loan) {
+        if (!loan.isCopyTaken()) {
+            return;
+        }
+        String branch = loan.getBranch() == null ? BookStock.MAIN_BRANCH : loan.getBranch();
+        // The counter only goes up once the copy is back in the committed stock; a checkout in between is refused
+        // as if the return had not happened yet.
+        if (!holdService.assignCopy(loan.getBookID(), branch) && bookStockRepository.returnCopy(loan.getBookID(), branch) == 1) {
+            AfterCommit.run(() -> availabilityCounters.release(loan.getBookID(), branch));
+        }
+    }
+
+    private BorrowingRecord lend(Long customerId, Long bookId, String branch) {
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
+        LocalDate today = LocalDate.now();
+        BorrowingRecord lent = new BorrowingRecord(customer, bookRepository.getReferenceById(bookId), today,
+                today.plus(loanPeriod), customerId, bookId);
+        lent.setBranch(branch);
+        lent.setCopyTaken(true);
+        return borrowingRecordRepository.save(lent);
+    }
+
+    private static <T> T withRetry(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (PessimisticLockingFailureException e) {
+                if (i == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Same entries BorrowingRecordService evicts when a loan changes: the book's availability changed as well.
+    private void evictLoanCaches(Long customerId, Long bookId) {
+        cacheDependencyIndex.invalidate(Book.class, bookId);
+        cacheDependencyIndex.invalidate(Customer.class, customerId);
+        cacheDependencyIndex.evictIf("borrowingRecordsByCustomerId", PageCacheKey.withTerm(customerId));
+        cacheDependencyIndex.evictIf("borrowingRecordsByBookId", PageCacheKey.withTerm(bookId));
+    }
+}
@@ -1,48 +1,86 @@
 package com.sawy.LibrarySystem.service;
 
+import com.sawy.LibrarySystem.batch.BatchItem;
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.cache.PageCacheKey;
+import com.sawy.LibrarySystem.credential.PasswordHasher;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.model.Book;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.ApproximatePage;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.KeysetCursor;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.CustomerRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final BatchWriter batchWriter;
+    private final TableRowCounter tableRowCounter;
 
-    @Cacheable(value = "customers")
-    public Page<Customer> getAllCustomers(int page, int size, String sortBy, String sortOrder) {
+    @Cacheable(value = "customers", keyGenerator = "pageKeyGenerator")
+    public Slice<Customer> getAllCustomers(int page, int size, String sortBy, String sortOrder, FetchPlan fetchPlan, TotalMode total) {
         Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return customerRepository.findAll(pageable);
+        return switch (total) {
+            case EXACT -> customerRepository.findAll(pageable, fetchPlan);
+            case NONE -> customerRepository.findSlice(pageable, fetchPlan);
+            case APPROXIMATE -> ApproximatePage.of(customerRepository.findSlice(pageable, fetchPlan), tableRowCounter.count(Customer.class));
+        };
     }
 
-    @Cacheable(value = "customer", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<Customer> scrollCustomers(String cursor, int size, String sortBy, String sortOrder, FetchPlan fetchPlan) {
+        Sort sort = KeysetCursor.sort(sortBy, sortOrder);
+        Window<Customer> customers = customerRepository.findAll(KeysetCursor.decode(cursor, Customer.class, sort), sort, Limit.of(size));
+        customerRepository.fetch(customers, fetchPlan);
+        return CursorPage.of(customers);
+    }
+
+    @Cacheable(value = "customer", key = "#id", unless = "#result == null")
     public Optional<Customer> getCustomerById(Long id) {
-        return customerRepository.findById(id);
+        return customerRepository.findById(id, FetchPlan.ALL);
+    }
+
+    @Cacheable(value = "customer", key = "#id", condition = "#fetchPlan.all()", unless = "#result == null")
+    public Optional<Customer> getCustomerById(Long id, FetchPlan fetchPlan) {
+        return customerRepository.findById(id, fetchPlan);
     }
 
     @CacheEvict(value = "customers", allEntries = true)
     public Customer createCustomer(Customer customer) {
-        customer.setPassword(passwordEncoder.encode(customer.getPassword()));
+        customer.setPassword(passwordHasher.encode(customer.getPassword()));
         return customerRepository.save(customer);
     }
 
-    @CacheEvict(value = "customers", allEntries = true)
-    @CachePut(value = "customer", key = "#id")
     public Optional<Customer> updateCustomer(Long id, Customer customerDetails) {
         Optional<Customer> customerOptional = customerRepository.findById(id);
         if (customerOptional.isPresent()) {
@@ -51,18 +89,114 @@ public class CustomerService {
             customer.setEmail(customerDetails.getEmail());
             customer.setAddress(customerDetails.getAddress());
             customer.setPhoneNumber(customerDetails.getPhoneNumber());
-            customer.setPassword(customerDetails.getPassword());
-            return Optional.of(customerRepository.save(customer));
+            customer.setPassword(passwordHasher.encode(customerDetails.getPassword()));
+            Customer savedCustomer = customerRepository.save(customer);
+            cacheDependencyIndex.invalidate(Customer.class, id);
+            return Optional.of(savedCustomer);
         } else {
             return Optional.empty();
         }
     }
 
+    // Deleting a customer cascades to their borrowing records, which are embedded in the cached books.
     @Caching(evict = {
             @CacheEvict(value = "customers", allEntries = true),
+            @CacheEvict(value = "borrowingRecords", allEntries = true),
+            @CacheEvict(value = "borrowingSummaries", allEntries = true),
             @CacheEvict(value = "customer", key = "#id")
     })
     public void deleteCustomer(Long id) {
+        customerRepository.findById(id).ifPresent(customer -> {
+            if (customer.getBorrowingRecords() != null) {
+                customer.getBorrowingRecords().forEach(record -> cacheDependencyIndex.invalidate(Book.class, record.getBookID()));
+            }
+        });
         customerRepository.deleteById(id);
+        cacheDependencyIndex.invalidate(Customer.class, id);
+        cacheDependencyIndex.evictIf("borrowingRecordsByCustomerId", PageCacheKey.withTerm(id));
+    }
+
+    @CacheEvict(value = "customers", allEntries = true)
+    public BatchResult createCustomers(List<Customer> customers) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Customer>> items = batchWriter.validate(customers, results);
+        encodePasswords(items);
+        results.addAll(batchWriter.write(items, chunk -> chunk.stream()
+                .map(item -> {
+                    // A replayed item may carry the id and version of a rolled-back insert.
+                    item.value().setId(null);
+                    item.value().setVersion(null);
+                    Customer savedCustomer = customerRepository.save(item.value());
+                    return BatchItemResult.succeeded(item.index(), savedCustomer.getId(), BatchItemResult.CREATED);
+                })
+                .toList()));
+        return BatchResult.of(results);
+    }
+
+    @CacheEvict(value = {"customers", "customer"}, allEntries = true)
+    public BatchResult updateCustomers(List<Customer> customers) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Customer>> items = new ArrayList<>();
+        for (BatchItem<Customer> item : batchWriter.validate(customers, results)) {
+            if (item.value().getId() == null) {
+                results.add(BatchItemResult.failed(item.index(), null, Map.of("id", "ID is mandatory")));
+            } else {
+                items.add(item);
+            }
+        }
+        encodePasswords(items);
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Customer> existing = findAllById(chunk.stream().map(item -> item.value().getId()).toList());
+            return chunk.stream()
+                    .map(item -> {
+                        Customer customer = existing.get(item.value().getId());
+                        if (customer == null) {
+                            return BatchItemResult.notFound(item.index(), item.value().getId());
+                        }
+                        customer.setName(item.value().getName());
+                        customer.setEmail(item.value().getEmail());
+                        customer.setAddress(item.value().getAddress());
+                        customer.setPhoneNumber(item.value().getPhoneNumber());
+                        customer.setPassword(item.value().getPassword());
+                        return BatchItemResult.succeeded(item.index(), customer.getId(), BatchItemResult.UPDATED);
+                    })
+                    .toList();
+        }));
+        BatchWriter.succeeded(items, results).forEach(customer -> cacheDependencyIndex.invalidate(Customer.class, customer.getId()));
+        return BatchResult.of(results);
+    }
+
+    // Deleting customers cascades to their borrowing records, which are embedded in the cached books.
+    @CacheEvict(value = {"customers", "customer", "borrowingRecords", "borrowingSummaries", "borrowingRecordsByCustomerId", "books", "book"},
+            allEntries = true)
+    public BatchResult deleteCustomers(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<BatchItem<Long>> items = batchWriter.index(ids, results);
+        results.addAll(batchWriter.write(items, chunk -> {
+            Map<Long, Customer> existing = findAllById(chunk.stream().map(BatchItem::value).toList());
+            return chunk.stream()
+                    .map(item -> {
+                        Customer customer = existing.get(item.value());
+                        if (customer == null) {
+                            return BatchItemResult.notFound(item.index(), item.value());
+                        }
+                        customerRepository.delete(customer);
+                        return BatchItemResult.succeeded(item.index(), item.value(), BatchItemResult.DELETED);
+                    })
+                    .toList();
+        }));
+        BatchWriter.succeeded(items, results).forEach(id -> cacheDependencyIndex.invalidate(Customer.class, id));
+        return BatchResult.of(results);
+    }
+
+    private void encodePasswords(List<BatchItem<Customer>> items) {
+        List<String> encoded = passwordHasher.encodeAll(items.stream().map(item -> item.value().getPassword()).toList());
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).value().setPassword(encoded.get(i));
+        }
+    }
+
+    private Map<Long, Customer> findAllById(List<Long> ids) {
+        return customerRepository.findAllById(ids).stream().collect(Collectors.toMap(Customer::getId, Function.identity()));
     }
 }
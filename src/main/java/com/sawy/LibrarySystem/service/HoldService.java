@@ -0,0 +1,234 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.QueuedHold;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.inventory.HoldQueues;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.HoldStatus;
+import com.sawy.LibrarySystem.repository.BookHoldRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Holds on books with no copy left. A hold waits in its book's queue in {@link HoldQueues} until a copy comes back:
+ * {@link CheckoutService} hands every returned copy to the first waiting hold instead of the shelf, so customers are
+ * served in queue order without polling the book. The hold is then ready and its copy stays set aside at the branch
+ * for the pickup period; a hold that is not collected or is cancelled passes the copy on to the next hold, or back
+ * to the shelf.
+ */
+@Service
+public class HoldService {
+
+    private static final List<HoldStatus> ACTIVE = List.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final BookHoldRepository bookHoldRepository;
+    private final BookRepository bookRepository;
+    private final CustomerRepository customerRepository;
+    private final BookStockRepository bookStockRepository;
+    private final AvailabilityCounters availabilityCounters;
+    private final HoldQueues holdQueues;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Period pickupPeriod;
+
+    public HoldService(BookHoldRepository bookHoldRepository,
+                       BookRepository bookRepository,
+                       CustomerRepository customerRepository,
+                       BookStockRepository bookStockRepository,
+                       AvailabilityCounters availabilityCounters,
+                       HoldQueues holdQueues,
+                       CacheDependencyIndex cacheDependencyIndex,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${library.hold.pickup-period:3d}") Period pickupPeriod) {
+        this.bookHoldRepository = bookHoldRepository;
+        this.bookRepository = bookRepository;
+        this.customerRepository = customerRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.availabilityCounters = availabilityCounters;
+        this.holdQueues = holdQueues;
+        this.cacheDependencyIndex = cacheDependencyIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pickupPeriod = pickupPeriod;
+    }
+
+    public Optional<BookHold> getHold(Long id) {
+        return bookHoldRepository.findById(id);
+    }
+
+    // The holds still waiting for the book or ready to collect, in queue order.
+    public List<BookHold> getQueue(Long bookId) {
+        return bookHoldRepository.findByBookIDAndStatusInOrderByPriorityDescPlacedAtAscIdAsc(bookId, ACTIVE);
+    }
+
+    // Queues the customer for the book; the hold is ready at once if a copy is on the shelf.
+    public BookHold placeHold(Long customerId, Long bookId, int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("Priority cannot be negative");
+        }
+        BookHold hold = transactionTemplate.execute(status -> {
+            if (!customerRepository.existsById(customerId)) {
+                throw new IllegalArgumentException("Customer not found");
+            }
+            if (!bookRepository.existsById(bookId)) {
+                throw new IllegalArgumentException("Book not found");
+            }
+            if (bookHoldRepository.existsByCustomerIDAndBookIDAndStatusIn(customerId, bookId, ACTIVE)) {
+                throw new ConflictException("Customer already has a hold on the book");
+            }
+            return bookHoldRepository.save(new BookHold(customerId, bookId, priority, LocalDateTime.now()));
+        });
+        holdQueues.add(queued(hold));
+        // Also catches a copy returned after the hold was saved but before it was queued.
+        fillFromShelf(bookId);
+        return bookHoldRepository.findById(hold.getId()).orElse(hold);
+    }
+
+    // A ready hold's copy is passed on; empty if there is no such hold.
+    public Optional<BookHold> cancelHold(Long holdId) {
+        Optional<BookHold> cancelled = transactionTemplate.execute(status -> bookHoldRepository.lockById(holdId).map(hold -> {
+            if (hold.getStatus() == HoldStatus.READY) {
+                passOn(hold.getBookID(), hold.getBranch());
+            } else if (hold.getStatus() != HoldStatus.WAITING) {
+                throw new ConflictException("Hold is already " + hold.getStatus().name().toLowerCase());
+            }
+            hold.setStatus(HoldStatus.CANCELLED);
+            return hold;
+        }));
+        cancelled.ifPresent(hold -> holdQueues.remove(hold.getBookID(), hold.getId()));
+        return cancelled;
+    }
+
+    // Marks a ready hold collected, for CheckoutService to lend its copy; empty if there is no such hold.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<BookHold> collect(Long holdId) {
+        return bookHoldRepository.lockById(holdId).map(hold -> {
+            if (hold.getStatus() != HoldStatus.READY || hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new ConflictException("Hold is not ready to collect");
+            }
+            hold.setStatus(HoldStatus.COLLECTED);
+            return hold;
+        });
+    }
+
+    /**
+     * Gives a copy that came back at the branch to the first hold waiting for the book, inside the caller's
+     * transaction; false if nobody is waiting, and the copy belongs on the shelf.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean assignCopy(Long bookId, String branch) {
+        for (QueuedHold next = holdQueues.poll(bookId); next != null; next = holdQueues.poll(bookId)) {
+            // Skipped if it was cancelled, or given a copy by another instance, since it was queued.
+            Optional<BookHold> waiting = bookHoldRepository.lockById(next.id()).filter(hold -> hold.getStatus() == HoldStatus.WAITING);
+            if (waiting.isPresent()) {
+                BookHold hold = waiting.get();
+                hold.setStatus(HoldStatus.READY);
+                hold.setBranch(branch);
+                hold.setExpiresAt(LocalDateTime.now().plus(pickupPeriod));
+                requeueOnRollback(next);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ready holds that were not collected in time pass their copy on.
+    @Scheduled(fixedDelayString = "${library.hold.expiry-check-interval:PT1M}", initialDelayString = "${library.hold.expiry-check-interval:PT1M}")
+    public int expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (BookHold due : bookHoldRepository.findByStatusAndExpiresAtBefore(HoldStatus.READY, now)) {
+            // Collected or cancelled since it was read, unless it is still ready under the lock.
+            Boolean expiredNow = transactionTemplate.execute(status -> bookHoldRepository.lockById(due.getId())
+                    .filter(hold -> hold.getStatus() == HoldStatus.READY && hold.getExpiresAt().isBefore(now))
+                    .map(hold -> {
+                        hold.setStatus(HoldStatus.EXPIRED);
+                        passOn(hold.getBookID(), hold.getBranch());
+                        return true;
+                    })
+                    .orElse(false));
+            expired += Boolean.TRUE.equals(expiredNow) ? 1 : 0;
+        }
+        return expired;
+    }
+
+    private void passOn(Long bookId, String branch) {
+        if (!assignCopy(bookId, branch) && bookStockRepository.returnCopy(bookId, branch) == 1) {
+            AfterCommit.run(() -> {
+                availabilityCounters.release(bookId, branch);
+                cacheDependencyIndex.invalidate(Book.class, bookId);
+            });
+        }
+    }
+
+    // Sets copies on the shelf aside for the holds waiting for the book, one at a time; run when a hold is placed
+    // and when copies are added to the stock.
+    public void fillFromShelf(Long bookId) {
+        while (holdQueues.hasWaiting(bookId)) {
+            String branch = availabilityCounters.reserve(bookId, null);
+            if (branch == null) {
+                return;
+            }
+            Boolean assigned;
+            try {
+                assigned = transactionTemplate.execute(status -> {
+                    if (bookStockRepository.takeCopy(bookId, branch) == 0) {
+                        throw new ConflictException("Book is not available");
+                    }
+                    if (assignCopy(bookId, branch)) {
+                        return true;
+                    }
+                    // The queue was emptied meanwhile, so the copy stays on the shelf.
+                    status.setRollbackOnly();
+                    return false;
+                });
+            } catch (ConflictException e) {
+                availabilityCounters.refresh(bookId);
+                return;
+            } catch (RuntimeException e) {
+                availabilityCounters.release(bookId, branch);
+                throw e;
+            }
+            if (!Boolean.TRUE.equals(assigned)) {
+                availabilityCounters.release(bookId, branch);
+                return;
+            }
+            cacheDependencyIndex.invalidate(Book.class, bookId);
+        }
+    }
+
+    // The hold was taken off the queue before its transaction committed.
+    private void requeueOnRollback(QueuedHold hold) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        holdQueues.add(hold);
+                    }
+                }
+            });
+        }
+    }
+
+    private static QueuedHold queued(BookHold hold) {
+        return new QueuedHold(hold.getId(), hold.getBookID(), hold.getPriority(), hold.getPlacedAt());
+    }
+}
@@ -0,0 +1,95 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.Availability;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class InventoryService {
+
+    private final BookStockRepository bookStockRepository;
+    private final BookRepository bookRepository;
+    private final AvailabilityCounters availabilityCounters;
+    private final HoldService holdService;
+    private final CacheDependencyIndex cacheDependencyIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public InventoryService(BookStockRepository bookStockRepository,
+                            BookRepository bookRepository,
+                            AvailabilityCounters availabilityCounters,
+                            HoldService holdService,
+                            CacheDependencyIndex cacheDependencyIndex,
+                            PlatformTransactionManager transactionManager) {
+        this.bookStockRepository = bookStockRepository;
+        this.bookRepository = bookRepository;
+        this.availabilityCounters = availabilityCounters;
+        this.holdService = holdService;
+        this.cacheDependencyIndex = cacheDependencyIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // May lag checkouts on another instance until the next counter refresh.
+    public Optional<Availability> getAvailability(Long bookId) {
+        return availabilityCounters.availability(bookId);
+    }
+
+    public List<BookStock> getStock(Long bookId) {
+        return bookStockRepository.findByBookIDOrderByBranch(bookId);
+    }
+
+    // A new book starts as one copy at the main branch, lent out already if it was created unavailable. Counted once
+    // the book is committed, as a duplicate ISBN may only fail the insert at flush.
+    public BookStock addInitialCopy(Book book) {
+        BookStock stock = bookStockRepository.save(new BookStock(book.getId(), BookStock.MAIN_BRANCH, 1, book.isAvailable() ? 1 : 0));
+        AfterCommit.run(() -> availabilityCounters.set(book.getId(), stock.getBranch(), stock.getAvailableCopies()));
+        return stock;
+    }
+
+    // The stock rows go with the book (on delete cascade).
+    public void removeBooks(List<Long> bookIds) {
+        AfterCommit.run(() -> bookIds.forEach(availabilityCounters::remove));
+    }
+
+    // Sets the number of copies the branch holds, adding the branch if it had none; empty if there is no such book.
+    // Copies added go to the holds waiting for the book before they reach the shelf.
+    @CacheEvict(value = {"books", "bookSummaries"}, allEntries = true)
+    public Optional<BookStock> setTotalCopies(Long bookId, String branch, int totalCopies) {
+        if (totalCopies < 0) {
+            throw new IllegalArgumentException("Total copies cannot be negative");
+        }
+        Boolean changed = transactionTemplate.execute(status -> {
+            if (!bookRepository.existsById(bookId)) {
+                return false;
+            }
+            if (bookStockRepository.changeTotalCopies(bookId, branch, totalCopies) == 0) {
+                Optional<BookStock> existing = bookStockRepository.findByBookIDAndBranch(bookId, branch);
+                if (existing.isPresent()) {
+                    int onLoan = existing.get().getTotalCopies() - existing.get().getAvailableCopies();
+                    throw new ConflictException(onLoan + " copies of the book are on loan at " + branch);
+                }
+                bookStockRepository.save(new BookStock(bookId, branch, totalCopies, totalCopies));
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(changed)) {
+            return Optional.empty();
+        }
+        availabilityCounters.refresh(bookId);
+        holdService.fillFromShelf(bookId);
+        cacheDependencyIndex.invalidate(Book.class, bookId);
+        // Read after the holds took their copies.
+        return bookStockRepository.findByBookIDAndBranch(bookId, branch);
+    }
+}
@@ -0,0 +1,39 @@
+package com.sawy.LibrarySystem.transfer;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Format of the import and export endpoints, parsed from the format request parameter.
+public enum DataFormat {
+
+    // One JSON object per line.
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    // RFC 4180 CSV with a header row.
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String contentDisposition(String name) {
+        return ContentDisposition.attachment().filename(name + "." + extension).build().toString();
+    }
+
+    public static DataFormat parse(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> NDJSON;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("format must be ndjson or csv");
+        };
+    }
+}
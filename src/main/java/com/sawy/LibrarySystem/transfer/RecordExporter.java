@@ -0,0 +1,92 @@
+package com.sawy.LibrarySystem.transfer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of flat records (the summary read models) to an output stream as NDJSON or CSV, one row at a time,
+ * so an export never holds more than the current row and the write buffer in memory. CSV columns are the record
+ * components in declaration order.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecordExporter {
+
+    private final ObjectMapper objectMapper;
+
+    public <R extends Record> void write(Stream<R> rows, Class<R> type, DataFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        switch (format) {
+            case NDJSON -> writeNdjson(rows, type, writer);
+            case CSV -> writeCsv(rows, type, writer);
+        }
+        writer.flush();
+    }
+
+    private <R extends Record> void writeNdjson(Stream<R> rows, Class<R> type, Writer writer) throws IOException {
+        // The response stream belongs to the container, so the sequence writer must not close it.
+        try (SequenceWriter json = objectMapper.writerFor(type)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            Iterator<R> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                json.write(iterator.next());
+            }
+            json.flush();
+            writer.write('\n');
+        }
+    }
+
+    private <R extends Record> void writeCsv(Stream<R> rows, Class<R> type, Writer writer) throws IOException {
+        RecordComponent[] columns = type.getRecordComponents();
+        writer.write(Arrays.stream(columns).map(RecordComponent::getName).collect(Collectors.joining(",")));
+        writer.write("\r\n");
+        Iterator<R> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            R row = iterator.next();
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(value(columns[i], row)));
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    private static Object value(RecordComponent column, Record row) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + column.getName() + " of " + row.getClass().getSimpleName(), e);
+        }
+    }
+
+    // Quotes fields holding a separator, quote or line break, doubling embedded quotes.
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n')) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,159 @@
+package com.sawy.LibrarySystem.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads NDJSON or CSV (with a header row) from an input stream one row at a time, the counterpart of
+ * {@link RecordExporter}. Rows are only parsed as the caller asks for them, so a slow consumer holds back reading
+ * instead of the input piling up in memory.
+ * <p>
+ * A row that cannot be parsed or converted is returned with its error instead of ending the read. CSV columns are
+ * matched to properties by header name; blank cells are read as missing values.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecordReader {
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    // One parsed row; line is where it starts in the input.
+    public record Row<R>(long line, R value, String error) {
+
+        public boolean valid() {
+            return error == null;
+        }
+    }
+
+    public interface Rows<R> extends Iterator<Row<R>>, Closeable {
+    }
+
+    public <R> Rows<R> read(InputStream in, Class<R> type, DataFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return switch (format) {
+            case NDJSON -> new NdjsonRows<>(reader, type);
+            case CSV -> new CsvRows<>(reader, type);
+        };
+    }
+
+    private static String message(Exception e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+    }
+
+    private final class NdjsonRows<R> implements Rows<R> {
+
+        private final BufferedReader reader;
+        private final Class<R> type;
+        private long lineNumber;
+        private String next;
+
+        NdjsonRows(BufferedReader reader, Class<R> type) {
+            this.reader = reader;
+            this.type = type;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    lineNumber++;
+                    if (!line.isBlank()) {
+                        next = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Row<R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = next;
+            next = null;
+            try {
+                return new Row<>(lineNumber, objectMapper.readValue(line, type), null);
+            } catch (JsonProcessingException e) {
+                return new Row<>(lineNumber, null, message(e));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private final class CsvRows<R> implements Rows<R> {
+
+        private final MappingIterator<Map<String, String>> records;
+        private final Class<R> type;
+
+        CsvRows(BufferedReader reader, Class<R> type) throws IOException {
+            this.records = csvMapper.readerForMapOf(String.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(reader);
+            this.type = type;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return records.hasNextValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Row<R> next() {
+            long line = records.getCurrentLocation().getLineNr();
+            try {
+                Map<String, String> record = records.nextValue();
+                Map<String, String> values = new LinkedHashMap<>();
+                record.forEach((column, value) -> {
+                    if (value != null && !value.isBlank()) {
+                        values.put(column.trim(), value);
+                    }
+                });
+                return new Row<>(line, objectMapper.convertValue(values, type), null);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                return new Row<>(line, null, message(e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Whether a loan took a copy out of book_stock, so that returning or deleting it gives one back. Records saved
+-- directly never took one. An open loan is taken to hold a copy when its branch has copies out: V6 counted a copy
+-- out for every book lent at the time, and checkout has taken one for each loan since.
+alter table borrowing_record add column copy_taken boolean not null default false;
+update borrowing_record r set copy_taken = true
+    where r.returned_on is null
+      and exists (select 1 from book_stock s
+                  where s.book_id = r.book_id and s.branch = r.branch and s.available_copies < s.total_copies);
@@ -0,0 +1,23 @@
+-- Records from before checkout existed were never closed by a return, so they all looked open (and overdue).
+-- V10 may also have taken several of them to hold the one copy V6 counted out for their book: only the newest open
+-- loans, as many as the branch has copies out, keep holding one.
+create table legacy_surplus_loan (
+    id bigint not null,
+    primary key (id)
+);
+
+insert into legacy_surplus_loan (id)
+    select r.id from borrowing_record r
+    join book_stock s on s.book_id = r.book_id and s.branch = r.branch
+    where r.returned_on is null and r.copy_taken = true
+      and (select count(*) from borrowing_record n
+           where n.book_id = r.book_id and n.branch = r.branch and n.returned_on is null and n.copy_taken = true
+             and n.id > r.id) >= s.total_copies - s.available_copies;
+
+update borrowing_record set copy_taken = false where id in (select id from legacy_surplus_loan);
+
+drop table legacy_surplus_loan;
+
+-- Every other open record holds no copy: it is closed on its return date, or today if that is still to come.
+update borrowing_record set returned_on = least(coalesce(return_date, current_date), current_date)
+    where returned_on is null and copy_taken = false;
@@ -0,0 +1,47 @@
+-- The schema as Hibernate generated it while ddl-auto=update owned it.
+-- Existing databases are baselined at this version, so this only runs against empty ones.
+
+create table author (
+    id          bigint      not null auto_increment,
+    name        varchar(50) not null,
+    birth_date  date,
+    nationality varchar(50) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table book (
+    id               bigint       not null auto_increment,
+    title            varchar(100) not null,
+    isbn             varchar(255) not null,
+    publication_date date,
+    genre            varchar(255) not null,
+    available        bit          not null,
+    authorid         bigint       not null,
+    author_id        bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table customer (
+    id           bigint       not null auto_increment,
+    name         varchar(50)  not null,
+    email        varchar(255) not null,
+    address      varchar(255) not null,
+    phone_number varchar(255),
+    password     varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table borrowing_record (
+    id          bigint not null auto_increment,
+    user_id     bigint,
+    book_id     bigint,
+    customerid  bigint not null,
+    bookid      bigint not null,
+    borrow_date date,
+    return_date date,
+    primary key (id)
+) engine=InnoDB;
+
+alter table book add constraint FKklnrv3weler2ftkweewlky958 foreign key (author_id) references author (id);
+alter table borrowing_record add constraint FK79d6bb8ptx41act3qbt5pxuwm foreign key (book_id) references book (id);
+alter table borrowing_record add constraint FKdk1rrbbxjtwkr5l3yaefkyw5p foreign key (user_id) references customer (id);
@@ -0,0 +1,10 @@
+-- Lookups and sorts used by the search endpoints. Fails on existing duplicate ISBNs, which have to be merged first.
+create unique index ux_book_isbn on book (isbn);
+create index ix_book_title on book (title);
+create index ix_book_author_id on book (author_id);
+create index ix_author_name on author (name);
+create index ix_customer_email on customer (email);
+
+-- Borrowing history is read per customer or per book, newest loans first; these also cover the foreign keys.
+create index ix_borrowing_record_user_borrow_date on borrowing_record (user_id, borrow_date);
+create index ix_borrowing_record_book_borrow_date on borrowing_record (book_id, borrow_date);
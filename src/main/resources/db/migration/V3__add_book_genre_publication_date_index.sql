@@ -0,0 +1,2 @@
+-- Combined book search filters on genre and a publication date range.
+create index ix_book_genre_publication_date on book (genre, publication_date);
@@ -0,0 +1,14 @@
+-- Pooled id blocks for the entities, so Hibernate can batch inserts (IDENTITY forces one round trip per row).
+-- Blocks are 50 ids, matching the allocationSize on the entities. Hibernate's pooled optimizer starts its first
+-- block at next_val - 48, so seeding max(id) + 49 lets existing rows keep their ids and new ones continue after them.
+-- The auto_increment columns stay as they are: explicit ids are always supplied and also move the counter.
+create table id_generator (
+    sequence_name varchar(255) not null,
+    next_val      bigint       not null,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_generator (sequence_name, next_val) select 'author', coalesce(max(id), 0) + 49 from author;
+insert into id_generator (sequence_name, next_val) select 'book', coalesce(max(id), 0) + 49 from book;
+insert into id_generator (sequence_name, next_val) select 'customer', coalesce(max(id), 0) + 49 from customer;
+insert into id_generator (sequence_name, next_val) select 'borrowing_record', coalesce(max(id), 0) + 49 from borrowing_record;
@@ -0,0 +1,3 @@
+-- When a loan was actually closed by a return; null while the book is still out.
+-- return_date stays the date the book is due back.
+alter table borrowing_record add column returned_on date;
@@ -0,0 +1,25 @@
+-- Copies of a book held at each branch. available_copies is what can still be lent out.
+create table book_stock (
+    id               bigint      not null,
+    book_id          bigint      not null,
+    branch           varchar(50) not null,
+    total_copies     int         not null,
+    available_copies int         not null,
+    primary key (id),
+    constraint uk_book_stock_book_branch unique (book_id, branch),
+    constraint fk_book_stock_book foreign key (book_id) references book (id) on delete cascade,
+    constraint ck_book_stock_copies check (available_copies between 0 and total_copies)
+) engine=InnoDB;
+
+-- Every existing book becomes a single copy at the main branch, lent out if the book was.
+insert into book_stock (id, book_id, branch, total_copies, available_copies)
+    select id, id, 'main', 1, case when available then 1 else 0 end from book;
+
+insert into id_generator (sequence_name, next_val) select 'book_stock', coalesce(max(id), 0) + 49 from book_stock;
+
+-- Whether a book is available is now derived from its stock (a formula on the entity) instead of stored.
+alter table book drop column available;
+
+-- The branch a loan's copy came from, so the return puts it back there.
+alter table borrowing_record add column branch varchar(50);
+update borrowing_record set branch = 'main';
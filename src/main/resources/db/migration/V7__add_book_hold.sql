@@ -0,0 +1,20 @@
+-- Holds customers place on books with no copy left. A waiting hold is given the next copy that comes back
+-- (highest priority first, then first come); it is then ready and the copy is set aside until it expires.
+create table book_hold (
+    id          bigint      not null,
+    customer_id bigint      not null,
+    book_id     bigint      not null,
+    priority    int         not null,
+    status      varchar(20) not null,
+    branch      varchar(50),
+    placed_at   datetime(6) not null,
+    expires_at  datetime(6),
+    primary key (id),
+    constraint fk_book_hold_customer foreign key (customer_id) references customer (id) on delete cascade,
+    constraint fk_book_hold_book foreign key (book_id) references book (id) on delete cascade
+) engine=InnoDB;
+
+create index idx_book_hold_book_status on book_hold (book_id, status);
+create index idx_book_hold_status_expires on book_hold (status, expires_at);
+
+insert into id_generator (sequence_name, next_val) values ('book_hold', 49);
@@ -0,0 +1,14 @@
+-- Open loans by due date (return_date), so the overdue scan and listing read a range instead of the whole table.
+create index ix_borrowing_record_return_date on borrowing_record (return_date, returned_on);
+
+-- Charged for a late return when the loan is closed.
+alter table borrowing_record add column fine decimal(8,2);
+
+-- How far each incremental scan has got, so restarts and other instances neither repeat nor skip a day.
+create table scan_watermark (
+    name            varchar(50) not null,
+    scanned_through date,
+    primary key (name)
+) engine=InnoDB;
+
+insert into scan_watermark (name, scanned_through) values ('overdue', null);
@@ -0,0 +1,13 @@
+-- A version bumped on every change (optimistic locking, and the ETag of responses) and the time of the last
+-- change (Last-Modified). Existing rows start at version 0, changed now.
+alter table book add column version bigint not null default 0;
+alter table book add column updated_at datetime(6) not null default current_timestamp(6);
+
+alter table author add column version bigint not null default 0;
+alter table author add column updated_at datetime(6) not null default current_timestamp(6);
+
+alter table customer add column version bigint not null default 0;
+alter table customer add column updated_at datetime(6) not null default current_timestamp(6);
+
+alter table borrowing_record add column version bigint not null default 0;
+alter table borrowing_record add column updated_at datetime(6) not null default current_timestamp(6);
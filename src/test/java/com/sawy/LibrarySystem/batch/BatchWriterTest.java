@@ -0,0 +1,76 @@
+package com.sawy.LibrarySystem.batch;
+
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.model.Author;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class BatchWriterTest {
+
+    private final BatchWriter batchWriter = new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(),
+            mock(PlatformTransactionManager.class), 2, 3);
+
+    @Test
+    @DisplayName("Invalid and missing items fail with their errors")
+    void validate_InvalidItems_Failures() {
+        Author valid = new Author("sawy", LocalDate.of(1980, 4, 1), "Egyptian");
+        Author invalid = new Author("s", LocalDate.of(1980, 4, 1), "Egyptian");
+        List<BatchItemResult> failures = new ArrayList<>();
+
+        List<BatchItem<Author>> items = batchWriter.validate(Arrays.asList(valid, invalid, null), failures);
+
+        assertEquals(List.of(new BatchItem<>(0, valid)), items);
+        assertEquals(Set.of(
+                BatchItemResult.failed(1, null, Map.of("name", "Name must be between 2 and 50 characters")),
+                BatchItemResult.failed(2, null, Map.of("item", "Item is missing"))), Set.copyOf(failures));
+    }
+
+    @Test
+    @DisplayName("Batches above the limit are rejected")
+    void index_TooManyItems_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> batchWriter.index(List.of(1, 2, 3, 4), new ArrayList<>()));
+    }
+
+    @Test
+    @DisplayName("Items are written in chunks")
+    void write_Items_OneCallPerChunk() {
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        List<BatchItemResult> results = batchWriter.write(batchWriter.index(List.of(10, 20, 30), new ArrayList<>()), chunk -> {
+            chunks.add(chunk.stream().map(BatchItem::value).toList());
+            return chunk.stream().map(item -> BatchItemResult.succeeded(item.index(), item.value().longValue(), BatchItemResult.CREATED)).toList();
+        });
+
+        assertEquals(List.of(List.of(10, 20), List.of(30)), chunks);
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    @DisplayName("A failed chunk is replayed item by item")
+    void write_FailingItem_OnlyThatItemFails() {
+        List<BatchItemResult> results = batchWriter.write(batchWriter.index(List.of(10, 20), new ArrayList<>()), chunk -> {
+            if (chunk.stream().anyMatch(item -> item.value() == 20)) {
+                throw new DataIntegrityViolationException("duplicate", new IllegalStateException("Duplicate entry '20'"));
+            }
+            return chunk.stream().map(item -> BatchItemResult.succeeded(item.index(), item.value().longValue(), BatchItemResult.CREATED)).toList();
+        });
+
+        assertEquals(List.of(
+                BatchItemResult.succeeded(0, 10L, BatchItemResult.CREATED),
+                BatchItemResult.failed(1, null, Map.of("error", "Duplicate entry '20'"))), results);
+        assertEquals(List.of(10), BatchWriter.succeeded(batchWriter.index(List.of(10, 20), new ArrayList<>()), results));
+    }
+}
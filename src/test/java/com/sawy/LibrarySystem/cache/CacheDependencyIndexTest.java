@@ -0,0 +1,112 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDependencyIndexTest {
+
+    private CacheDependencyIndex dependencyIndex;
+    private TrackingCaffeineCache bookCache;
+    private TrackingCaffeineCache booksCache;
+    private TrackingCaffeineCache borrowingRecordsCache;
+
+    @BeforeEach
+    void setUp() {
+        dependencyIndex = new CacheDependencyIndex();
+        bookCache = trackedCache("book");
+        booksCache = trackedCache("books");
+        borrowingRecordsCache = trackedCache("borrowingRecords");
+    }
+
+    @Test
+    @DisplayName("Invalidating A Book Evicts Only Entries Containing It")
+    void invalidate_Book_EvictsDependentEntriesOnly() {
+        PageCacheKey firstPage = PageCacheKey.of(null, 0, 2, "id", "asc");
+        PageCacheKey secondPage = PageCacheKey.of(null, 1, 2, "id", "asc");
+        booksCache.put(firstPage, new PageImpl<>(List.of(book(1L, 10L), book(2L, 10L))));
+        booksCache.put(secondPage, new PageImpl<>(List.of(book(3L, 11L), book(4L, 11L))));
+        bookCache.put(3L, book(3L, 11L));
+
+        dependencyIndex.invalidate(Book.class, 1L);
+
+        assertNull(booksCache.get(firstPage));
+        assertNotNull(booksCache.get(secondPage));
+        assertNotNull(bookCache.get(3L));
+    }
+
+    @Test
+    @DisplayName("Invalidating An Author Evicts Books Embedding It")
+    void invalidate_Author_EvictsBooksOfThatAuthor() {
+        bookCache.put(1L, book(1L, 10L));
+        bookCache.put(2L, book(2L, 11L));
+
+        dependencyIndex.invalidate(Author.class, 10L);
+
+        assertNull(bookCache.get(1L));
+        assertNotNull(bookCache.get(2L));
+    }
+
+    @Test
+    @DisplayName("Borrowing Pages Depend On Their Books")
+    void invalidate_Book_EvictsBorrowingPagesReferencingIt() {
+        PageCacheKey key = PageCacheKey.of(null, 0, 10, "id", "asc");
+        BorrowingRecord record = new BorrowingRecord(null, null, LocalDate.now(), LocalDate.now().plusDays(7), 5L, 1L);
+        record.setId(100L);
+        borrowingRecordsCache.put(key, new PageImpl<>(List.of(record)));
+
+        dependencyIndex.invalidate(Book.class, 1L);
+
+        assertNull(borrowingRecordsCache.get(key));
+    }
+
+    @Test
+    @DisplayName("Evict If Matches Keys By Term")
+    void evictIf_TermPredicate_EvictsMatchingKeys() {
+        TrackingCaffeineCache byTitle = trackedCache("booksByTitle");
+        PageCacheKey javaKey = PageCacheKey.of("java", 0, 10, "id", "asc");
+        PageCacheKey pythonKey = PageCacheKey.of("python", 0, 10, "id", "asc");
+        byTitle.put(javaKey, new PageImpl<>(List.of()));
+        byTitle.put(pythonKey, new PageImpl<>(List.of()));
+
+        dependencyIndex.evictIf("booksByTitle", PageCacheKey.termContainedIn("Effective Java"));
+
+        assertNull(byTitle.get(javaKey));
+        assertNotNull(byTitle.get(pythonKey));
+    }
+
+    @Test
+    @DisplayName("Evicted And Cleared Entries Are Forgotten")
+    void evictAndClear_ForgetDependencies() {
+        bookCache.put(1L, book(1L, 10L));
+        booksCache.put(PageCacheKey.of(null, 0, 10, "id", "asc"), new PageImpl<>(List.of(book(2L, 10L))));
+        assertEquals(2, dependencyIndex.size());
+
+        bookCache.evict(1L);
+        booksCache.clear();
+
+        assertEquals(0, dependencyIndex.size());
+    }
+
+    private TrackingCaffeineCache trackedCache(String name) {
+        TrackingCaffeineCache cache = new TrackingCaffeineCache(name, Caffeine.newBuilder().build(), true, dependencyIndex);
+        dependencyIndex.track(cache);
+        return cache;
+    }
+
+    private Book book(Long id, Long authorId) {
+        Book book = new Book("title " + id, "isbn-" + id, LocalDate.of(2020, 1, 1), "genre", true, authorId);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,128 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedPageJsonConverterTest {
+
+    private final CacheDependencyIndex cacheDependencyIndex = new CacheDependencyIndex();
+
+    private final CachedPageJsonConverter converter =
+            new CachedPageJsonConverter(new ObjectMapper(), cacheDependencyIndex, DataSize.ofMegabytes(1), DataSize.ofKilobytes(1));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("A page written again is served from its kept bytes")
+    void write_SamePage_KeptBytes() throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(Map.of("id", 1)));
+        PageImpl<Map<String, Object>> page = cached(new PageImpl<>(rows, PageRequest.of(0, 10), 1));
+        String first = write(page).getBodyAsString();
+
+        rows.add(Map.of("id", 2));
+
+        assertEquals(first, write(page).getBodyAsString());
+        assertEquals(1, converter.cachedPages());
+        assertNotEquals(first, write(new PageImpl<>(rows, PageRequest.of(0, 10), 2)).getBodyAsString());
+    }
+
+    @Test
+    @DisplayName("Clients that accept gzip get the page compressed")
+    void write_AcceptsGzip_Compressed() throws IOException {
+        PageImpl<Map<String, Object>> page = cached(largePage());
+        String json = write(page).getBodyAsString();
+        acceptEncoding("deflate, gzip;q=0.8");
+
+        MockHttpOutputMessage compressed = write(page);
+
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, compressed.getHeaders().getFirst(HttpHeaders.VARY));
+        assertEquals(compressed.getBodyAsBytes().length, compressed.getHeaders().getContentLength());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.getBodyAsBytes()))) {
+            assertEquals(json, new String(gzip.readAllBytes()));
+        }
+    }
+
+    @Test
+    @DisplayName("Gzip is not used when refused or for small pages")
+    void write_GzipRefusedOrSmall_Uncompressed() throws IOException {
+        acceptEncoding("gzip;q=0");
+        assertNull(write(cached(largePage())).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        acceptEncoding("gzip");
+        assertNull(write(cached(new PageImpl<>(List.of(Map.of("id", 1)), PageRequest.of(0, 10), 1))).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Pages that were never cached are written as usual")
+    void write_UncachedPage_NotKept() throws IOException {
+        Map<String, Object> row = new HashMap<>(Map.of("id", 1));
+        PageImpl<Map<String, Object>> page = new PageImpl<>(List.of(row), PageRequest.of(0, 10), 1);
+        String first = write(page).getBodyAsString();
+
+        row.put("id", 2);
+        acceptEncoding("gzip");
+
+        MockHttpOutputMessage second = write(page);
+        assertNotEquals(first, second.getBodyAsString());
+        assertNull(second.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(0, converter.cachedPages());
+    }
+
+    @Test
+    @DisplayName("Bodies other than pages are written as usual")
+    void write_SingleEntity_NotKept() throws IOException {
+        assertEquals("{\"id\":1}", write(Map.of("id", 1)).getBodyAsString());
+        assertEquals(0, converter.cachedPages());
+    }
+
+    private MockHttpOutputMessage write(Object body) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, body.getClass(), MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+
+    // As the page caches do when they store a page.
+    private <T> T cached(T page) {
+        cacheDependencyIndex.register("books", page, page);
+        return page;
+    }
+
+    private static PageImpl<Map<String, Object>> largePage() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(Map.of("id", i, "title", "intro to java"));
+        }
+        return new PageImpl<>(rows, PageRequest.of(0, 50), 50);
+    }
+
+    private static void acceptEncoding(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, value);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,99 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityTagTest {
+
+    @Test
+    @DisplayName("The tag is the same for the same versions")
+    void of_SameVersions_SameTag() {
+        assertEquals(EntityTag.of(book(1L, 2L, true)), EntityTag.of(book(1L, 2L, true)));
+        assertTrue(EntityTag.of(book(1L, 2L, true)).etag().matches("W/\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    @DisplayName("A new version or availability gives a new tag")
+    void of_ChangedBook_NewTag() {
+        String tag = EntityTag.of(book(1L, 2L, true)).etag();
+
+        assertNotEquals(tag, EntityTag.of(book(1L, 3L, true)).etag());
+        assertNotEquals(tag, EntityTag.of(book(1L, 2L, false)).etag());
+        assertNotEquals(tag, EntityTag.of(book(2L, 2L, true)).etag());
+    }
+
+    @Test
+    @DisplayName("A change to a loaded association gives a new tag")
+    void of_ChangedAuthor_NewTag() {
+        Book book = book(1L, 2L, true);
+        book.setAuthor(author(5L, 1L));
+        String tag = EntityTag.of(book).etag();
+
+        book.setAuthor(author(5L, 2L));
+
+        assertNotEquals(tag, EntityTag.of(book).etag());
+    }
+
+    @Test
+    @DisplayName("The page position is part of a list's tag")
+    void of_OtherPage_NewTag() {
+        List<Book> books = List.of(book(1L, 0L, true));
+
+        assertNotEquals(EntityTag.of(new PageImpl<>(books, PageRequest.of(0, 10), 1)).etag(),
+                EntityTag.of(new PageImpl<>(books, PageRequest.of(0, 10), 11)).etag());
+        assertNotEquals(EntityTag.of(new CursorPage<>(books, 10, true, "a")).etag(),
+                EntityTag.of(new CursorPage<>(books, 10, true, "b")).etag());
+        assertNotEquals(EntityTag.of(books).etag(), EntityTag.of(book(1L, 0L, true)).etag());
+    }
+
+    @Test
+    @DisplayName("Last-Modified is the latest update in a single entity")
+    void of_EntityWithAssociation_LatestUpdate() {
+        Book book = book(1L, 0L, true);
+        book.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        Author author = author(5L, 0L);
+        author.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 10, 0));
+        book.setAuthor(author);
+
+        assertEquals(author.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant(), EntityTag.of(book).lastModified());
+        assertNull(EntityTag.of(book(3L, 0L, true)).lastModified());
+    }
+
+    @Test
+    @DisplayName("Lists have no Last-Modified")
+    void of_List_NoLastModified() {
+        Book book = book(1L, 0L, true);
+        book.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        List<Book> books = List.of(book);
+
+        assertNull(EntityTag.of(books).lastModified());
+        assertNull(EntityTag.of(new PageImpl<>(books, PageRequest.of(0, 10), 1)).lastModified());
+        assertNull(EntityTag.of(new CursorPage<>(books, 10, false, null)).lastModified());
+    }
+
+    private static Book book(Long id, Long version, boolean available) {
+        Book book = new Book("intro to java", "isbn-" + id, LocalDate.of(2020, 1, 1), "genre", available, 1L);
+        book.setId(id);
+        book.setVersion(version);
+        return book;
+    }
+
+    private static Author author(Long id, Long version) {
+        Author author = new Author("Jane Roe", LocalDate.of(1970, 1, 1), "British");
+        author.setId(id);
+        author.setVersion(version);
+        return author;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sawy.LibrarySystem.cache;
+
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.service.BookService;
+import com.sawy.LibrarySystem.service.BorrowingRecordService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageKeyGeneratorTest {
+
+    private final PageKeyGenerator keyGenerator = new PageKeyGenerator();
+
+    @Test
+    @DisplayName("Key Captures Paging And Sorting")
+    void generate_ListQuery_KeyWithoutTerm() throws Exception {
+        Method method = BookService.class.getMethod("getAllBooks", int.class, int.class, String.class, String.class, FetchPlan.class, TotalMode.class);
+
+        Object key = keyGenerator.generate(null, method, 2, 20, "title", "DESC", FetchPlan.ALL, TotalMode.EXACT);
+
+        assertEquals(new PageCacheKey(null, 2, 20, "title", false, List.of(FetchPlan.ALL, TotalMode.EXACT)), key);
+    }
+
+    @Test
+    @DisplayName("Different Fetch Plans Get Different Keys")
+    void generate_DifferentFetchPlans_DifferentKeys() throws Exception {
+        Method method = BookService.class.getMethod("getAllBooks", int.class, int.class, String.class, String.class, FetchPlan.class, TotalMode.class);
+
+        Object all = keyGenerator.generate(null, method, 0, 10, "id", "asc", FetchPlan.ALL, TotalMode.EXACT);
+        Object none = keyGenerator.generate(null, method, 0, 10, "id", "asc", FetchPlan.NONE, TotalMode.EXACT);
+
+        assertNotEquals(all, none);
+    }
+
+    @Test
+    @DisplayName("Different Pages Get Different Keys")
+    void generate_DifferentPages_DifferentKeys() throws Exception {
+        Method method = BookService.class.getMethod("searchBooksByTitle", String.class, int.class, int.class, String.class, String.class, TotalMode.class);
+
+        Object first = keyGenerator.generate(null, method, "java", 0, 10, "id", "asc", TotalMode.EXACT);
+        Object second = keyGenerator.generate(null, method, "java", 1, 10, "id", "asc", TotalMode.EXACT);
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Search Terms Are Case-Insensitive")
+    void generate_TermCaseDiffers_SameKey() throws Exception {
+        Method method = BookService.class.getMethod("searchBooksByTitle", String.class, int.class, int.class, String.class, String.class, TotalMode.class);
+
+        Object lower = keyGenerator.generate(null, method, "java", 0, 10, "id", "asc", TotalMode.EXACT);
+        Object upper = keyGenerator.generate(null, method, "JAVA", 0, 10, "id", "ASC", TotalMode.EXACT);
+
+        assertEquals(lower, upper);
+        assertEquals(lower.hashCode(), upper.hashCode());
+    }
+
+    @Test
+    @DisplayName("Id Terms Are Kept As-Is")
+    void generate_IdTerm_KeyWithIdTerm() throws Exception {
+        Method method = BorrowingRecordService.class.getMethod("getBorrowingRecordsByCustomerId", Long.class, int.class, int.class, String.class, String.class, TotalMode.class);
+
+        Object key = keyGenerator.generate(null, method, 7L, 0, 10, "id", "asc", TotalMode.NONE);
+
+        assertEquals(new PageCacheKey(7L, 0, 10, "id", true, TotalMode.NONE), key);
+    }
+
+    @Test
+    @DisplayName("Rejects Non-Paged Methods")
+    void generate_NotPaged_Throws() throws Exception {
+        Method method = BookService.class.getMethod("getBookById", Long.class);
+
+        assertThrows(IllegalStateException.class, () -> keyGenerator.generate(null, method, 1L));
+    }
+}
@@ -1,6 +1,9 @@
 package com.sawy.LibrarySystem.controller;
 
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
 import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.AuthorService;
 import org.hibernate.mapping.Any;
 import org.junit.jupiter.api.DisplayName;
@@ -11,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +35,7 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith({SpringExtension.class, MockitoExtension.class})
 @WebMvcTest(AuthorController.class)
+@Import(CacheDependencyIndex.class)
 class AuthorControllerTest {
 
     @Autowired
@@ -48,7 +53,7 @@ class AuthorControllerTest {
         String sortOrder = "asc";
 
         Page<Author> authors = createMockAuthorsPage();
-        when(authorService.getAllAuthors(page, size, sortBy, sortOrder)).thenReturn(authors);
+        when(authorService.getAllAuthors(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT)).thenReturn(authors);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/authors")
                         .param("page", String.valueOf(page))
@@ -59,7 +64,7 @@ class AuthorControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].name").value(authors.getContent().get(0).getName()));
 
-        verify(authorService, times(1)).getAllAuthors(page, size, sortBy, sortOrder);
+        verify(authorService, times(1)).getAllAuthors(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
     }
 
     @Test
@@ -70,14 +75,14 @@ class AuthorControllerTest {
         Author author = new Author();
         author.setId(id);
         author.setName("sawy");
-        when(authorService.getAuthorById(id)).thenReturn(Optional.of(author));
+        when(authorService.getAuthorById(id, FetchPlan.ALL)).thenReturn(Optional.of(author));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/authors/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(author.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(author.getName()));
 
-        verify(authorService, times(1)).getAuthorById(id);
+        verify(authorService, times(1)).getAuthorById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -85,12 +90,12 @@ class AuthorControllerTest {
     void getAuthorById_NonExistingId_ReturnsNotFound() throws Exception {
         Long id = 88L;
 
-        when(authorService.getAuthorById(id)).thenReturn(Optional.empty());
+        when(authorService.getAuthorById(id, FetchPlan.ALL)).thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/authors/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
 
-        verify(authorService, times(1)).getAuthorById(id);
+        verify(authorService, times(1)).getAuthorById(id, FetchPlan.ALL);
     }
 
     @Test
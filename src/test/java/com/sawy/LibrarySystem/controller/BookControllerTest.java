@@ -2,11 +2,27 @@ package com.sawy.LibrarySystem.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.Availability;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.ImportResult;
+import com.sawy.LibrarySystem.dto.Suggestion;
 import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
 import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.service.BookImportService;
 import com.sawy.LibrarySystem.service.BookService;
+import com.sawy.LibrarySystem.service.InventoryService;
+import com.sawy.LibrarySystem.transfer.DataFormat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +30,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -24,11 +41,18 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -36,6 +60,7 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith({SpringExtension.class, MockitoExtension.class})
 @WebMvcTest(BookController.class)
+@Import(CacheDependencyIndex.class)
 class BookControllerTest {
 
     @Autowired
@@ -44,6 +69,12 @@ class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private InventoryService inventoryService;
+
     @Test
     @DisplayName("Get All Books")
     void getAllBooks_GetRequest_ReturnsPageOfBooks() throws Exception {
@@ -53,7 +84,7 @@ class BookControllerTest {
         String sortOrder = "asc";
 
         Page<Book> books = createMockBooksPage();
-        when(bookService.getAllBooks(page, size, sortBy, sortOrder)).thenReturn(books);
+        when(bookService.getAllBooks(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT)).thenReturn(books);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books")
                         .param("page", String.valueOf(page))
@@ -64,7 +95,61 @@ class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
 
-        verify(bookService, times(1)).getAllBooks(page, size, sortBy, sortOrder);
+        verify(bookService, times(1)).getAllBooks(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("Scroll Books")
+    void scrollBooks_GetRequest_ReturnsCursorPage() throws Exception {
+        List<Book> content = createMockBooksPage().getContent();
+        CursorPage<Book> books = new CursorPage<>(content, content.size(), true, "next-token");
+        when(bookService.scrollBooks("token", 2, "id", "asc", FetchPlan.ALL)).thenReturn(books);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/scroll")
+                        .param("cursor", "token")
+                        .param("size", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(content.get(0).getTitle()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("next-token"));
+
+        verify(bookService, times(1)).scrollBooks("token", 2, "id", "asc", FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Scroll Book Search Requires Exactly One Term")
+    void scrollBookSearch_TwoTerms_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search/scroll")
+                        .param("title", "java")
+                        .param("isbn", "972"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Get Book Summaries")
+    void getBookSummaries_GetRequest_ReturnsPageOfSummaries() throws Exception {
+        int page = 0;
+        int size = 10;
+        String sortBy = "id";
+        String sortOrder = "asc";
+
+        BookSummary summary = new BookSummary(1L, "intro to java", "972-375632-274", LocalDate.of(2012, Month.APRIL, 13),
+                "Educational", true, 1L, "sawy");
+        Page<BookSummary> summaries = new PageImpl<>(List.of(summary), PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy)), 1);
+        when(bookService.getBookSummaries(page, size, sortBy, sortOrder)).thenReturn(summaries);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/summaries")
+                        .param("page", String.valueOf(page))
+                        .param("size", String.valueOf(size))
+                        .param("sortBy", sortBy)
+                        .param("sortOrder", sortOrder))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(summary.title()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].authorName").value(summary.authorName()));
+
+        verify(bookService, times(1)).getBookSummaries(page, size, sortBy, sortOrder);
     }
 
     @Test
@@ -75,14 +160,60 @@ class BookControllerTest {
         Book book = new Book();
         book.setId(id);
         book.setTitle("Sample Book");
-        when(bookService.getBookById(id)).thenReturn(Optional.of(book));
+        when(bookService.getBookById(id, FetchPlan.ALL)).thenReturn(Optional.of(book));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(book.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.title").value(book.getTitle()));
 
-        verify(bookService, times(1)).getBookById(id);
+        verify(bookService, times(1)).getBookById(id, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get Book By ID With Matching ETag")
+    void getBookById_MatchingETag_ReturnsNotModified() throws Exception {
+        Long id = 1L;
+
+        Book book = new Book();
+        book.setId(id);
+        book.setVersion(3L);
+        book.setTitle("Sample Book");
+        when(bookService.getBookById(id, FetchPlan.ALL)).thenReturn(Optional.of(book));
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id).header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        book.setVersion(4L);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id).header("If-None-Match", etag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value(book.getTitle()));
+    }
+
+    @Test
+    @DisplayName("Get All Books After A Delete With If-Modified-Since")
+    void getAllBooks_RowDeletedSinceModified_ReturnsOk() throws Exception {
+        List<Book> content = new ArrayList<>(createMockBooksPage().getContent());
+        content.forEach(book -> book.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0)));
+        when(bookService.getAllBooks(0, 10, "id", "asc", FetchPlan.ALL, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.copyOf(content), PageRequest.of(0, 10), 2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Last-Modified"));
+
+        content.remove(1);
+        when(bookService.getAllBooks(0, 10, "id", "asc", FetchPlan.ALL, TotalMode.EXACT))
+                .thenReturn(new PageImpl<>(List.copyOf(content), PageRequest.of(0, 10), 1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books")
+                        .header("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(1));
     }
 
     @Test
@@ -90,12 +221,29 @@ class BookControllerTest {
     void getBookById_NonExistingId_ReturnsNotFound() throws Exception {
         Long id = 88L;
 
-        when(bookService.getBookById(id)).thenReturn(Optional.empty());
+        when(bookService.getBookById(id, FetchPlan.ALL)).thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
 
-        verify(bookService, times(1)).getBookById(id);
+        verify(bookService, times(1)).getBookById(id, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get Book By ID With Expand")
+    void getBookById_Expand_PassesFetchPlan() throws Exception {
+        Long id = 1L;
+
+        Book book = new Book();
+        book.setId(id);
+        FetchPlan fetchPlan = new FetchPlan(false, Set.of("author"));
+        when(bookService.getBookById(id, fetchPlan)).thenReturn(Optional.of(book));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}", id).param("expand", "author"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(book.getId()));
+
+        verify(bookService, times(1)).getBookById(id, fetchPlan);
     }
 
     @Test
@@ -119,6 +267,99 @@ class BookControllerTest {
         verify(bookService, times(1)).createBook(any(Book.class));
     }
 
+    @Test
+    @DisplayName("Create Books In Batch")
+    void createBooks_Books_ReturnsResultPerItem() throws Exception {
+        BatchResult result = BatchResult.of(List.of(
+                BatchItemResult.succeeded(0, 1L, BatchItemResult.CREATED),
+                BatchItemResult.failed(1, null, Map.of("authorID", "Author not found"))));
+        when(bookService.createBooks(anyList())).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/books/batch")
+                        .content(asJsonString(List.of(new Book(), new Book())))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.succeeded").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].status").value("failed"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].errors.authorID").value("Author not found"));
+    }
+
+    @Test
+    @DisplayName("Delete Books In Batch")
+    void deleteBooks_Ids_ReturnsResultPerItem() throws Exception {
+        when(bookService.deleteBooks(List.of(1L, 2L))).thenReturn(BatchResult.of(List.of(
+                BatchItemResult.succeeded(0, 1L, BatchItemResult.DELETED),
+                BatchItemResult.notFound(1, 2L))));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/books/batch")
+                        .content("[1, 2]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].status").value("not_found"));
+    }
+
+    @Test
+    @DisplayName("Import Books")
+    void importBooks_CsvBody_ReturnsImportResult() throws Exception {
+        ImportResult result = new ImportResult(2, 1, 0, 1,
+                List.of(new ImportResult.RowError(3, "2", Map.of("authorName", "Author not found"))));
+        when(bookImportService.importBooks(any(InputStream.class), eq(DataFormat.CSV))).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/books/import")
+                        .param("format", "csv")
+                        .content("isbn,title,genre,authorName\n1,Effective Java,Software,Joshua Bloch\n2,Other,Software,Nobody\n")
+                        .contentType("text/csv"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].errors.authorName").value("Author not found"));
+    }
+
+    @Test
+    @DisplayName("Get Book Availability")
+    void getAvailability_ExistingBook_ReturnsCopiesPerBranch() throws Exception {
+        when(inventoryService.getAvailability(1L)).thenReturn(Optional.of(new Availability(1L, 3, Map.of("downtown", 1, "main", 2))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}/availability", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.availableCopies").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.branches.main").value(2));
+    }
+
+    @Test
+    @DisplayName("Get Availability Of Non-Existing Book")
+    void getAvailability_NonExistingBook_ReturnsNotFound() throws Exception {
+        when(inventoryService.getAvailability(88L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}/availability", 88L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Set Book Stock")
+    void setStock_BranchAndTotal_ReturnsStock() throws Exception {
+        when(inventoryService.setTotalCopies(1L, "downtown", 4)).thenReturn(Optional.of(new BookStock(1L, "downtown", 4, 3)));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/books/{id}/stock/{branch}", 1L, "downtown")
+                        .content("{\"totalCopies\":4}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.availableCopies").value(3));
+    }
+
+    @Test
+    @DisplayName("Set Book Stock Below Copies On Loan")
+    void setStock_BelowOnLoan_ReturnsConflict() throws Exception {
+        when(inventoryService.setTotalCopies(1L, "main", 0)).thenThrow(new ConflictException("1 copies of the book are on loan at main"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/books/{id}/stock/{branch}", 1L, "main")
+                        .content("{\"totalCopies\":0}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
     @Test
     @DisplayName("Update Existing Book")
     void updateBook_IdAndBook_ReturnsUpdatedBook() throws Exception {
@@ -181,7 +422,7 @@ class BookControllerTest {
         String sortOrder = "asc";
 
         Page<Book> books = createMockBooksPage();
-        when(bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder)).thenReturn(books);
+        when(bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder, TotalMode.EXACT)).thenReturn(books);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
                         .param("title", title)
@@ -193,7 +434,86 @@ class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
 
-        verify(bookService, times(1)).searchBooksByTitle(title, page, size, sortBy, sortOrder);
+        verify(bookService, times(1)).searchBooksByTitle(title, page, size, sortBy, sortOrder, TotalMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("Search Books - Full Text")
+    void searchBooks_ByQuery_ReturnsRankedPageOfBooks() throws Exception {
+        Page<Book> books = createMockBooksPage();
+        when(bookService.searchBooks("jav", 0, 10)).thenReturn(books);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
+                        .param("q", "jav"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
+
+        verify(bookService, times(1)).searchBooks("jav", 0, 10);
+    }
+
+    @Test
+    @DisplayName("Search Books - Query Combined With Field Rejected")
+    void searchBooks_QueryAndTitle_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
+                        .param("q", "java")
+                        .param("title", "java"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Suggest Books")
+    void suggestBooks_Prefix_ReturnsSuggestions() throws Exception {
+        when(bookService.suggestBooks("jav", 5)).thenReturn(List.of(new Suggestion(Suggestion.TITLE, "intro to java", 1L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/suggest")
+                        .param("q", "jav")
+                        .param("limit", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type").value("title"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].text").value("intro to java"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @DisplayName("Filter Books - Combined Criteria")
+    void filterBooks_SeveralCriteria_ReturnsPageOfBooks() throws Exception {
+        Page<Book> books = createMockBooksPage();
+        BookFilter filter = new BookFilter(null, "java", "sawy", "Educational", LocalDate.of(2012, Month.JANUARY, 1), null, true);
+        when(bookService.filterBooks(filter, 0, 10, "id", "asc", TotalMode.EXACT)).thenReturn(books);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/filter")
+                        .param("title", "java")
+                        .param("author", "sawy")
+                        .param("genre", "Educational")
+                        .param("publishedFrom", "2012-01-01")
+                        .param("available", "true"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
+
+        verify(bookService, times(1)).filterBooks(filter, 0, 10, "id", "asc", TotalMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("Filter Books - No Criteria Rejected")
+    void filterBooks_NoCriteria_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/filter")
+                        .param("title", " "))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Search Books - Approximate Total Rejected")
+    void searchBooks_ApproximateTotal_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
+                        .param("title", "java")
+                        .param("withTotal", "approximate"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(bookService);
     }
 
     @Test
@@ -206,7 +526,7 @@ class BookControllerTest {
         String sortOrder = "asc";
 
         Page<Book> books = createMockBooksPage();
-        when(bookService.searchBooksByAuthor(author, page, size, sortBy, sortOrder)).thenReturn(books);
+        when(bookService.searchBooksByAuthor(author, page, size, sortBy, sortOrder, TotalMode.EXACT)).thenReturn(books);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
                         .param("author", author)
@@ -218,7 +538,7 @@ class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
 
-        verify(bookService, times(1)).searchBooksByAuthor(author, page, size, sortBy, sortOrder);
+        verify(bookService, times(1)).searchBooksByAuthor(author, page, size, sortBy, sortOrder, TotalMode.EXACT);
     }
 
     @Test
@@ -231,7 +551,7 @@ class BookControllerTest {
         String sortOrder = "asc";
 
         Page<Book> books = createMockBooksPage();
-        when(bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder)).thenReturn(books);
+        when(bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder, TotalMode.EXACT)).thenReturn(books);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/search")
                         .param("isbn", isbn)
@@ -243,7 +563,7 @@ class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].title").value(books.getContent().get(0).getTitle()));
 
-        verify(bookService, times(1)).searchBooksByIsbn(isbn, page, size, sortBy, sortOrder);
+        verify(bookService, times(1)).searchBooksByIsbn(isbn, page, size, sortBy, sortOrder, TotalMode.EXACT);
     }
 
     @Test
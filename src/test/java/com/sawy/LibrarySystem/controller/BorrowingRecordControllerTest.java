@@ -2,11 +2,19 @@ package com.sawy.LibrarySystem.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
 import com.sawy.LibrarySystem.controller.BorrowingRecordController;
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.dto.OverdueLoan;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
 import com.sawy.LibrarySystem.model.Book;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.BorrowingRecordService;
+import com.sawy.LibrarySystem.service.CheckoutService;
+import com.sawy.LibrarySystem.transfer.DataFormat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,26 +24,36 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith({SpringExtension.class, MockitoExtension.class})
 @WebMvcTest(BorrowingRecordController.class)
+@Import(CacheDependencyIndex.class)
 class BorrowingRecordControllerTest {
 
     @Autowired
@@ -44,6 +62,9 @@ class BorrowingRecordControllerTest {
     @MockBean
     private BorrowingRecordService borrowingRecordService;
 
+    @MockBean
+    private CheckoutService checkoutService;
+
     @Test
     @DisplayName("Get All Borrowing Records")
     void getAllBorrowingRecords_GetRequest_ReturnsPageOfBorrowingRecords() throws Exception {
@@ -53,7 +74,7 @@ class BorrowingRecordControllerTest {
         String sortOrder = "asc";
 
         Page<BorrowingRecord> borrowingRecords = createMockBorrowingRecordsPage();
-        when(borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder)).thenReturn(borrowingRecords);
+        when(borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT)).thenReturn(borrowingRecords);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings")
                         .param("page", String.valueOf(page))
@@ -64,7 +85,59 @@ class BorrowingRecordControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].customerID").value(borrowingRecords.getContent().get(0).getCustomer().getId()));
 
-        verify(borrowingRecordService, times(1)).getAllBorrowingRecords(page, size, sortBy, sortOrder);
+        verify(borrowingRecordService, times(1)).getAllBorrowingRecords(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("Get Borrowing Summaries")
+    void getBorrowingSummaries_GetRequest_ReturnsPageOfSummaries() throws Exception {
+        int page = 0;
+        int size = 10;
+        String sortBy = "id";
+        String sortOrder = "asc";
+
+        BorrowingSummary summary = new BorrowingSummary(1L, 1L, "John Doe", 2L, "Intro to Java", LocalDate.now(), LocalDate.now().plusDays(10));
+        Page<BorrowingSummary> summaries = new PageImpl<>(List.of(summary), PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy)), 1);
+        when(borrowingRecordService.getBorrowingSummaries(page, size, sortBy, sortOrder)).thenReturn(summaries);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/summaries")
+                        .param("page", String.valueOf(page))
+                        .param("size", String.valueOf(size))
+                        .param("sortBy", sortBy)
+                        .param("sortOrder", sortOrder))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].customerName").value(summary.customerName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].bookTitle").value(summary.bookTitle()));
+
+        verify(borrowingRecordService, times(1)).getBorrowingSummaries(page, size, sortBy, sortOrder);
+    }
+
+    @Test
+    @DisplayName("Export Borrowing Records")
+    void exportBorrowingRecords_Csv_StreamsAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(borrowingRecordService).exportBorrowingRecords(eq(DataFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/export").param("format", "csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition", "attachment; filename=\"borrowings.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string("id\r\n1\r\n"));
+    }
+
+    @Test
+    @DisplayName("Export Rejects Unknown Formats")
+    void exportBorrowingRecords_UnknownFormat_BadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/export").param("format", "xml"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(borrowingRecordService);
     }
 
     @Test
@@ -73,14 +146,14 @@ class BorrowingRecordControllerTest {
         Long id = 1L;
 
         BorrowingRecord borrowingRecord = createMockBorrowingRecord();
-        when(borrowingRecordService.getBorrowingRecordById(id)).thenReturn(Optional.of(borrowingRecord));
+        when(borrowingRecordService.getBorrowingRecordById(id, FetchPlan.ALL)).thenReturn(Optional.of(borrowingRecord));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(borrowingRecord.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.customerID").value(borrowingRecord.getCustomer().getId()));
 
-        verify(borrowingRecordService, times(1)).getBorrowingRecordById(id);
+        verify(borrowingRecordService, times(1)).getBorrowingRecordById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -88,12 +161,12 @@ class BorrowingRecordControllerTest {
     void getBorrowingRecordById_NonExistingId_ReturnsNotFound() throws Exception {
         Long id = 88L;
 
-        when(borrowingRecordService.getBorrowingRecordById(id)).thenReturn(Optional.empty());
+        when(borrowingRecordService.getBorrowingRecordById(id, FetchPlan.ALL)).thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
 
-        verify(borrowingRecordService, times(1)).getBorrowingRecordById(id);
+        verify(borrowingRecordService, times(1)).getBorrowingRecordById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -153,6 +226,80 @@ class BorrowingRecordControllerTest {
         verify(borrowingRecordService, times(1)).updateBorrowingRecord(eq(id), any(BorrowingRecord.class));
     }
 
+    @Test
+    @DisplayName("Get Overdue Loans")
+    void getOverdueLoans_GetRequest_ReturnsSliceOfOverdueLoans() throws Exception {
+        OverdueLoan loan = new OverdueLoan(1L, 1L, "John Doe", 1L, "Intro to Java", LocalDate.now().minusDays(3), 3, new BigDecimal("0.75"));
+        when(borrowingRecordService.getOverdueLoans(0, 10)).thenReturn(new SliceImpl<>(List.of(loan)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/borrowings/overdue"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].daysOverdue").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].fine").value(0.75));
+    }
+
+    @Test
+    @DisplayName("Checkout Book")
+    void checkout_CustomerAndBook_ReturnsBorrowingRecord() throws Exception {
+        BorrowingRecord borrowingRecord = createMockBorrowingRecord();
+        borrowingRecord.setId(1L);
+        when(checkoutService.checkout(1L, 1L, null)).thenReturn(borrowingRecord);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/borrowings/checkout")
+                        .content("{\"customerID\":1,\"bookID\":1}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.returnDate").value(borrowingRecord.getReturnDate().toString()));
+
+        verify(checkoutService, times(1)).checkout(1L, 1L, null);
+    }
+
+    @Test
+    @DisplayName("Checkout Book That Is Already Lent")
+    void checkout_UnavailableBook_ReturnsConflict() throws Exception {
+        when(checkoutService.checkout(1L, 1L, null)).thenThrow(new ConflictException("Book is not available"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/borrowings/checkout")
+                        .content("{\"customerID\":1,\"bookID\":1}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Book is not available"));
+    }
+
+    @Test
+    @DisplayName("Checkout When No Database Connection Is Free")
+    void checkout_NoConnection_ReturnsServiceUnavailable() throws Exception {
+        when(checkoutService.checkout(1L, 1L, null)).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/borrowings/checkout")
+                        .content("{\"customerID\":1,\"bookID\":1}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
+    @Test
+    @DisplayName("Return Borrowed Book")
+    void returnBook_ExistingId_ReturnsClosedBorrowingRecord() throws Exception {
+        BorrowingRecord borrowingRecord = createMockBorrowingRecord();
+        borrowingRecord.setReturnedOn(LocalDate.now());
+        when(checkoutService.returnBook(1L)).thenReturn(Optional.of(borrowingRecord));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/borrowings/{id}/return", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.returnedOn").value(LocalDate.now().toString()));
+    }
+
+    @Test
+    @DisplayName("Return Non-Existing Borrowing Record")
+    void returnBook_NonExistingId_ReturnsNotFound() throws Exception {
+        when(checkoutService.returnBook(88L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/borrowings/{id}/return", 88L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     @Test
     @DisplayName("Delete Existing Borrowing Record")
     void deleteBorrowingRecord_ExistingId_ReturnsNoContent() throws Exception {
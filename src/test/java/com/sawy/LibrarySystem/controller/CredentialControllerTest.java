@@ -0,0 +1,70 @@
+package com.sawy.LibrarySystem.controller;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.credential.CredentialService;
+import com.sawy.LibrarySystem.dto.VerifiedCredential;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith({SpringExtension.class, MockitoExtension.class})
+@WebMvcTest(CredentialController.class)
+@Import(CacheDependencyIndex.class)
+class CredentialControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CredentialService credentialService;
+
+    @Test
+    @DisplayName("Verify Credentials")
+    void verify_MatchingCredentials_ReturnsCustomer() throws Exception {
+        when(credentialService.verify("john@example.com", "secret")).thenReturn(Optional.of(new VerifiedCredential(1L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/credentials/verify")
+                        .content("{\"email\":\"john@example.com\",\"password\":\"secret\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.customerID").value(1));
+    }
+
+    @Test
+    @DisplayName("Verify Wrong Credentials")
+    void verify_WrongPassword_ReturnsUnauthorized() throws Exception {
+        when(credentialService.verify("john@example.com", "wrong")).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/credentials/verify")
+                        .content("{\"email\":\"john@example.com\",\"password\":\"wrong\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Verify Without Password")
+    void verify_MissingPassword_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/credentials/verify")
+                        .content("{\"email\":\"john@example.com\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.password").value("Password is mandatory"));
+
+        verify(credentialService, never()).verify(any(), any());
+    }
+}
@@ -1,10 +1,14 @@
 package com.sawy.LibrarySystem.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.exceptionHandler.ServiceUnavailableException;
 import com.sawy.LibrarySystem.model.Author;
 import com.sawy.LibrarySystem.model.Book;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.TotalMode;
+import com.sawy.LibrarySystem.repository.FetchPlan;
 import com.sawy.LibrarySystem.service.CustomerService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -35,6 +40,7 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith({SpringExtension.class, MockitoExtension.class})
 @WebMvcTest(CustomerController.class)
+@Import(CacheDependencyIndex.class)
 class CustomerControllerTest {
 
     @Autowired
@@ -52,7 +58,7 @@ class CustomerControllerTest {
         String sortOrder = "asc";
 
         Page<Customer> customers = createMockCustomersPage();
-        when(customerService.getAllCustomers(page, size, sortBy, sortOrder)).thenReturn(customers);
+        when(customerService.getAllCustomers(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT)).thenReturn(customers);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/customers")
                         .param("page", String.valueOf(page))
@@ -63,7 +69,7 @@ class CustomerControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].name").value(customers.getContent().get(0).getName()));
 
-        verify(customerService, times(1)).getAllCustomers(page, size, sortBy, sortOrder);
+        verify(customerService, times(1)).getAllCustomers(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
     }
 
     @Test
@@ -73,14 +79,14 @@ class CustomerControllerTest {
 
         Customer customer = new Customer("John Doe", "john@example.com", "Address 1", "12345678", "password");
         customer.setId(id);
-        when(customerService.getCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerService.getCustomerById(id, FetchPlan.ALL)).thenReturn(Optional.of(customer));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/customers/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(customer.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(customer.getName()));
 
-        verify(customerService, times(1)).getCustomerById(id);
+        verify(customerService, times(1)).getCustomerById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -88,12 +94,12 @@ class CustomerControllerTest {
     void getCustomerById_NonExistingId_ReturnsNotFound() throws Exception {
         Long id = 88L;
 
-        when(customerService.getCustomerById(id)).thenReturn(Optional.empty());
+        when(customerService.getCustomerById(id, FetchPlan.ALL)).thenReturn(Optional.empty());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/customers/{id}", id))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
 
-        verify(customerService, times(1)).getCustomerById(id);
+        verify(customerService, times(1)).getCustomerById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -115,6 +121,20 @@ class CustomerControllerTest {
         verify(customerService, times(1)).createCustomer(any(Customer.class));
     }
 
+    @Test
+    @DisplayName("Create Customer While Password Hashing Is At Capacity")
+    void createCustomer_HashingOverloaded_ReturnsServiceUnavailable() throws Exception {
+        Customer requestCustomer = new Customer("Jane Smith", "jane@example.com", "Address 2", "98765432", "password");
+        when(customerService.createCustomer(any(Customer.class)))
+                .thenThrow(new ServiceUnavailableException("Too many passwords are being hashed, try again later"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/customers")
+                        .content(asJsonString(requestCustomer))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
     @Test
     @DisplayName("Update Existing Customer")
     void updateCustomer_IdAndCustomer_ReturnsUpdatedCustomer() throws Exception {
@@ -0,0 +1,124 @@
+package com.sawy.LibrarySystem.controller;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.HoldStatus;
+import com.sawy.LibrarySystem.service.CheckoutService;
+import com.sawy.LibrarySystem.service.HoldService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith({SpringExtension.class, MockitoExtension.class})
+@WebMvcTest(HoldController.class)
+@Import(CacheDependencyIndex.class)
+class HoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HoldService holdService;
+
+    @MockBean
+    private CheckoutService checkoutService;
+
+    @Test
+    @DisplayName("Place Hold")
+    void placeHold_CustomerAndBook_ReturnsWaitingHold() throws Exception {
+        when(holdService.placeHold(1L, 2L, 0)).thenReturn(createHold(HoldStatus.WAITING));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/holds")
+                        .content("{\"customerID\":1,\"bookID\":2}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("WAITING"));
+
+        verify(holdService, times(1)).placeHold(1L, 2L, 0);
+    }
+
+    @Test
+    @DisplayName("Place Second Hold On The Same Book")
+    void placeHold_AlreadyHeld_ReturnsConflict() throws Exception {
+        when(holdService.placeHold(1L, 2L, 3)).thenThrow(new ConflictException("Customer already has a hold on the book"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/holds")
+                        .content("{\"customerID\":1,\"bookID\":2,\"priority\":3}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Customer already has a hold on the book"));
+    }
+
+    @Test
+    @DisplayName("Get Hold Queue Of A Book")
+    void getHoldQueue_BookId_ReturnsHoldsInOrder() throws Exception {
+        when(holdService.getQueue(2L)).thenReturn(List.of(createHold(HoldStatus.READY)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/books/{id}/holds", 2L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("READY"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].branch").value("main"));
+    }
+
+    @Test
+    @DisplayName("Cancel Non-Existing Hold")
+    void cancelHold_NonExistingId_ReturnsNotFound() throws Exception {
+        when(holdService.cancelHold(88L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/holds/{id}/cancel", 88L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Collect Ready Hold")
+    void collectHold_ReadyHold_ReturnsBorrowingRecord() throws Exception {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, null, LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(9L);
+        when(checkoutService.collectHold(5L)).thenReturn(Optional.of(borrowingRecord));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/holds/{id}/collect", 5L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(9))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bookID").value(2));
+    }
+
+    @Test
+    @DisplayName("Collect Hold That Is Not Ready")
+    void collectHold_WaitingHold_ReturnsConflict() throws Exception {
+        when(checkoutService.collectHold(5L)).thenThrow(new ConflictException("Hold is not ready to collect"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/holds/{id}/collect", 5L))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    private BookHold createHold(HoldStatus status) {
+        BookHold hold = new BookHold(1L, 2L, 0, LocalDateTime.now());
+        hold.setId(5L);
+        hold.setStatus(status);
+        if (status == HoldStatus.READY) {
+            hold.setBranch("main");
+            hold.setExpiresAt(LocalDateTime.now().plusDays(3));
+        }
+        return hold;
+    }
+}
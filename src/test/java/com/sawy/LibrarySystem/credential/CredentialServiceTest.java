@@ -0,0 +1,128 @@
+package com.sawy.LibrarySystem.credential;
+
+import com.sawy.LibrarySystem.dto.CustomerCredential;
+import com.sawy.LibrarySystem.dto.VerifiedCredential;
+import com.sawy.LibrarySystem.exceptionHandler.ServiceUnavailableException;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CredentialServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CredentialService.CACHE);
+
+    private CredentialService credentialService;
+
+    @BeforeEach
+    void setUp() {
+        credentialService = new CredentialService(customerRepository, passwordHasher, cacheManager, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("A verified password is not hashed again while it is cached")
+    void verify_SameCredentialsTwice_HashedOnce() {
+        when(customerRepository.findCredentialsByEmail("john@example.com")).thenReturn(List.of(new CustomerCredential(1L, "{bcrypt}hash")));
+        when(passwordHasher.matches("secret", "{bcrypt}hash")).thenReturn(true);
+
+        assertEquals(Optional.of(new VerifiedCredential(1L)), credentialService.verify("john@example.com", "secret"));
+        assertEquals(Optional.of(new VerifiedCredential(1L)), credentialService.verify("John@Example.com", "secret"));
+
+        verify(passwordHasher, times(1)).matches("secret", "{bcrypt}hash");
+        verify(customerRepository, times(1)).findCredentialsByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("The cache key is a hash, never the password")
+    void verify_Verified_KeyedByHash() {
+        when(customerRepository.findCredentialsByEmail("john@example.com")).thenReturn(List.of(new CustomerCredential(1L, "{bcrypt}hash")));
+        when(passwordHasher.matches("secret", "{bcrypt}hash")).thenReturn(true);
+
+        credentialService.verify("john@example.com", "secret");
+
+        Object key = ((Map<?, ?>) cacheManager.getCache(CredentialService.CACHE).getNativeCache()).keySet().iterator().next();
+        assertEquals(64, key.toString().length());
+        assertFalse(key.toString().contains("secret"));
+    }
+
+    @Test
+    @DisplayName("A wrong password is refused and not cached")
+    void verify_WrongPassword_Empty() {
+        when(customerRepository.findCredentialsByEmail("john@example.com")).thenReturn(List.of(new CustomerCredential(1L, "{bcrypt}hash")));
+        when(passwordHasher.matches("wrong", "{bcrypt}hash")).thenReturn(false);
+
+        assertEquals(Optional.empty(), credentialService.verify("john@example.com", "wrong"));
+        assertEquals(Optional.empty(), credentialService.verify("john@example.com", "wrong"));
+
+        verify(passwordHasher, times(2)).matches("wrong", "{bcrypt}hash");
+    }
+
+    @Test
+    @DisplayName("An unknown email is still hashed")
+    void verify_UnknownEmail_HashedLikeWrongPassword() {
+        when(customerRepository.findCredentialsByEmail("nobody@example.com")).thenReturn(List.of());
+
+        assertEquals(Optional.empty(), credentialService.verify("nobody@example.com", "secret"));
+
+        verify(passwordHasher, times(1)).matches(eq("secret"), any());
+    }
+
+    @Test
+    @DisplayName("Customers sharing an email are tried in turn")
+    void verify_SharedEmail_MatchingCustomer() {
+        when(customerRepository.findCredentialsByEmail("family@example.com"))
+                .thenReturn(List.of(new CustomerCredential(1L, "{bcrypt}first"), new CustomerCredential(2L, "{bcrypt}second")));
+        when(passwordHasher.matches("secret", "{bcrypt}first")).thenReturn(false);
+        when(passwordHasher.matches("secret", "{bcrypt}second")).thenReturn(true);
+
+        assertEquals(Optional.of(new VerifiedCredential(2L)), credentialService.verify("family@example.com", "secret"));
+    }
+
+    @Test
+    @DisplayName("An outdated hash is replaced once the password is verified")
+    void verify_OutdatedHash_Rehashed() {
+        when(customerRepository.findCredentialsByEmail("john@example.com")).thenReturn(List.of(new CustomerCredential(1L, "$2a$10$legacy")));
+        when(passwordHasher.matches("secret", "$2a$10$legacy")).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$10$legacy")).thenReturn(true);
+        when(passwordHasher.encode("secret")).thenReturn("{bcrypt}$2a$12$new");
+
+        assertTrue(credentialService.verify("john@example.com", "secret").isPresent());
+
+        verify(customerRepository, times(1)).changePassword(1L, "$2a$10$legacy", "{bcrypt}$2a$12$new");
+    }
+
+    @Test
+    @DisplayName("A rehash is skipped while hashing is at capacity")
+    void verify_OutdatedHashWhileOverloaded_VerifiedWithoutRehash() {
+        when(customerRepository.findCredentialsByEmail("john@example.com")).thenReturn(List.of(new CustomerCredential(1L, "$2a$10$legacy")));
+        when(passwordHasher.matches("secret", "$2a$10$legacy")).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$10$legacy")).thenReturn(true);
+        when(passwordHasher.encode("secret")).thenThrow(new ServiceUnavailableException("busy"));
+
+        assertTrue(credentialService.verify("john@example.com", "secret").isPresent());
+
+        verify(customerRepository, never()).changePassword(any(), any(), any());
+    }
+}
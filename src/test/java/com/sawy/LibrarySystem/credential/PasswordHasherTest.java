@@ -0,0 +1,105 @@
+package com.sawy.LibrarySystem.credential;
+
+import com.sawy.LibrarySystem.configuration.SecurityConfig;
+import com.sawy.LibrarySystem.exceptionHandler.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = new SecurityConfig().passwordEncoder("bcrypt", 4);
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Passwords are hashed with the encoder prefix and match afterwards")
+    void encode_RawPassword_PrefixedHashThatMatches() {
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 2, 8);
+
+        String encoded = passwordHasher.encode("secret");
+
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordHasher.matches("secret", encoded));
+        assertFalse(passwordHasher.matches("wrong", encoded));
+        assertEquals(1, meterRegistry.get("library.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("library.password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("A batch is hashed in order")
+    void encodeAll_SeveralPasswords_SameOrder() {
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 2, 1);
+
+        List<String> encoded = passwordHasher.encodeAll(List.of("a", "b", "c", "d", "e"));
+
+        assertEquals(5, encoded.size());
+        assertTrue(passwordHasher.matches("c", encoded.get(2)));
+    }
+
+    @Test
+    @DisplayName("Hashes from before the prefix or with a lower cost still match and need a rehash")
+    void needsRehash_LegacyOrWeakerHash_True() {
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 1, 8);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        String weaker = new SecurityConfig().passwordEncoder("bcrypt", 4).encode("secret");
+        PasswordHasher stronger = new PasswordHasher(new SecurityConfig().passwordEncoder("bcrypt", 5), meterRegistry, 1, 8);
+
+        try {
+            assertTrue(passwordHasher.matches("secret", legacy));
+            assertTrue(passwordHasher.needsRehash(legacy));
+            assertFalse(passwordHasher.needsRehash(weaker));
+            assertTrue(stronger.matches("secret", weaker));
+            assertTrue(stronger.needsRehash(weaker));
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Hashes beyond the queue are refused at once")
+    void encodeAsync_QueueFull_ServiceUnavailable() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "encoded";
+        });
+        passwordHasher = new PasswordHasher(slowEncoder, meterRegistry, 1, 1);
+
+        CompletableFuture<String> running = passwordHasher.encodeAsync("first");
+        CompletableFuture<String> queued = passwordHasher.encodeAsync("second");
+        assertThrows(ServiceUnavailableException.class, () -> passwordHasher.encodeAsync("third"));
+        release.countDown();
+
+        assertEquals("encoded", running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("library.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("An encoder whose library is missing is refused at startup")
+    void passwordEncoder_Argon2WithoutBouncyCastle_Refused() {
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 1, 1);
+
+        assertThrows(IllegalStateException.class, () -> new SecurityConfig().passwordEncoder("argon2", 10));
+    }
+}
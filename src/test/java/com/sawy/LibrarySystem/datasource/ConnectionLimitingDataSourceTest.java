@@ -0,0 +1,113 @@
+package com.sawy.LibrarySystem.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection pooled = mock(Connection.class);
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooled);
+        dataSource = new ConnectionLimitingDataSource(pool, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Each thread holding a connection takes a permit until it closes it")
+    void getConnection_OpenAndClose_PermitTakenAndReturned() throws Exception {
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        connection.close();
+
+        assertEquals(2, dataSource.availablePermits());
+        verify(pooled, times(1)).close();
+    }
+
+    @Test
+    @DisplayName("Closing a connection twice returns its permit once")
+    void close_Twice_PermitReturnedOnce() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("A thread that already holds a connection gets another without a permit")
+    void getConnection_Nested_NoPermitTaken() throws Exception {
+        Connection outer = dataSource.getConnection();
+        Connection inner = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        inner.close();
+        assertEquals(1, dataSource.availablePermits());
+        outer.close();
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("A thread waits for a permit and gives up after the timeout")
+    void getConnection_NoPermitLeft_TimesOut() throws Exception {
+        Connection first = openOnOtherThread();
+        openOnOtherThread();
+
+        ExecutionException e = assertThrows(ExecutionException.class, this::openOnOtherThread);
+        assertInstanceOf(SQLTransientConnectionException.class, e.getCause().getCause());
+
+        first.close();
+        assertNotNull(openOnOtherThread());
+    }
+
+    @Test
+    @DisplayName("A failed open gives the permit back")
+    void getConnection_PoolFails_PermitReturned() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Calls other than close reach the pooled connection")
+    void connection_OtherCalls_Delegated() throws Exception {
+        when(pooled.getAutoCommit()).thenReturn(false);
+        Connection connection = dataSource.getConnection();
+
+        assertFalse(connection.getAutoCommit());
+        assertEquals(connection, connection);
+        connection.close();
+    }
+
+    // A new thread each time, as a thread that still holds a connection would get the next one without a permit.
+    private Connection openOnOtherThread() throws Exception {
+        return CompletableFuture.supplyAsync(this::open, task -> new Thread(task).start()).get(5, TimeUnit.SECONDS);
+    }
+
+    private Connection open() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.sawy.LibrarySystem.inventory;
+
+import com.sawy.LibrarySystem.dto.Availability;
+import com.sawy.LibrarySystem.dto.StockLevel;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityCountersTest {
+
+    private final BookStockRepository bookStockRepository = mock(BookStockRepository.class);
+
+    private AvailabilityCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new AvailabilityCounters(bookStockRepository);
+        when(bookStockRepository.streamAllLevels()).thenReturn(Stream.of(
+                new StockLevel(1L, "main", 2),
+                new StockLevel(1L, "downtown", 3),
+                new StockLevel(2L, "main", 0)));
+        counters.rebuild();
+    }
+
+    @Test
+    @DisplayName("Availability is summed over the branches")
+    void availability_SeveralBranches_TotalAndPerBranch() {
+        assertEquals(Optional.of(new Availability(1L, 5, Map.of("downtown", 3, "main", 2))), counters.availability(1L));
+        assertEquals(0, counters.availability(2L).orElseThrow().availableCopies());
+    }
+
+    @Test
+    @DisplayName("A reservation takes a copy from the fullest branch unless one is named")
+    void reserve_NoBranch_FullestBranch() {
+        assertEquals("downtown", counters.reserve(1L, null));
+        assertEquals("main", counters.reserve(1L, "main"));
+        assertEquals("main", counters.reserve(1L, "main"));
+        assertNull(counters.reserve(1L, "main"));
+        assertNull(counters.reserve(1L, "uptown"));
+        assertNull(counters.reserve(2L, null));
+        assertEquals(Map.of("downtown", 2, "main", 0), counters.availability(1L).orElseThrow().branches());
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations never take more copies than there are")
+    void reserve_Concurrently_ExactlyTheAvailableCopies() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> reservations = Stream.generate(() -> pool.submit(() -> counters.reserve(1L, null)))
+                    .limit(100)
+                    .toList();
+            long taken = 0;
+            for (Future<String> reservation : reservations) {
+                taken += reservation.get() == null ? 0 : 1;
+            }
+            assertEquals(5, taken);
+            assertEquals(0, counters.availability(1L).orElseThrow().availableCopies());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A release puts the copy back at its branch")
+    void release_TrackedBranch_CopyAvailable() {
+        counters.release(2L, "main");
+        counters.release(2L, "downtown");
+
+        assertEquals(Map.of("main", 1), counters.availability(2L).orElseThrow().branches());
+        assertEquals("main", counters.reserve(2L, null));
+    }
+
+    @Test
+    @DisplayName("Unknown books are loaded from the database on first use")
+    void availability_UnknownBook_LoadedOnce() {
+        when(bookStockRepository.findLevels(3L)).thenReturn(List.of(new StockLevel(3L, "main", 1)));
+        when(bookStockRepository.findLevels(4L)).thenReturn(List.of());
+
+        assertEquals(1, counters.availability(3L).orElseThrow().availableCopies());
+        assertEquals(1, counters.availability(3L).orElseThrow().availableCopies());
+        assertFalse(counters.tracks(4L));
+        verify(bookStockRepository, times(1)).findLevels(3L);
+    }
+
+    @Test
+    @DisplayName("Setting a new branch keeps the others")
+    void set_NewBranch_Added() {
+        counters.set(2L, "downtown", 4);
+
+        assertEquals(Map.of("downtown", 4, "main", 0), counters.availability(2L).orElseThrow().branches());
+    }
+
+    @Test
+    @DisplayName("A rebuild drops books that are gone")
+    void rebuild_BookDeleted_NotTracked() {
+        when(bookStockRepository.streamAllLevels()).thenReturn(Stream.of(new StockLevel(1L, "main", 1)));
+        when(bookStockRepository.findLevels(2L)).thenReturn(List.of());
+
+        counters.rebuild();
+
+        assertEquals(Map.of("main", 1), counters.availability(1L).orElseThrow().branches());
+        assertFalse(counters.tracks(2L));
+    }
+}
@@ -0,0 +1,95 @@
+package com.sawy.LibrarySystem.inventory;
+
+import com.sawy.LibrarySystem.dto.QueuedHold;
+import com.sawy.LibrarySystem.repository.BookHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HoldQueuesTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 6, 3, 9, 0);
+
+    private final BookHoldRepository bookHoldRepository = mock(BookHoldRepository.class);
+
+    private HoldQueues queues;
+
+    @BeforeEach
+    void setUp() {
+        queues = new HoldQueues(bookHoldRepository);
+        when(bookHoldRepository.streamWaiting()).thenReturn(Stream.of(
+                new QueuedHold(1L, 7L, 0, MONDAY),
+                new QueuedHold(2L, 7L, 0, MONDAY.minusHours(1)),
+                new QueuedHold(3L, 7L, 5, MONDAY.plusDays(1))));
+        queues.rebuild();
+    }
+
+    @Test
+    @DisplayName("Holds are served by priority, then first come")
+    void poll_SeveralHolds_PriorityThenPlacement() {
+        assertEquals(3L, queues.poll(7L).id());
+        assertEquals(2L, queues.poll(7L).id());
+        assertEquals(1L, queues.poll(7L).id());
+        assertNull(queues.poll(7L));
+        assertFalse(queues.hasWaiting(7L));
+    }
+
+    @Test
+    @DisplayName("A book nobody waits for has no queue")
+    void poll_NoHolds_Null() {
+        assertNull(queues.poll(8L));
+        assertFalse(queues.hasWaiting(8L));
+    }
+
+    @Test
+    @DisplayName("A new hold joins behind holds of its priority")
+    void add_SamePriority_Behind() {
+        queues.add(new QueuedHold(4L, 7L, 5, MONDAY.plusDays(2)));
+        queues.add(new QueuedHold(5L, 8L, 0, MONDAY));
+
+        assertEquals(3L, queues.poll(7L).id());
+        assertEquals(4L, queues.poll(7L).id());
+        assertTrue(queues.hasWaiting(8L));
+    }
+
+    @Test
+    @DisplayName("A removed hold leaves the queue")
+    void remove_QueuedHold_Skipped() {
+        queues.remove(7L, 3L);
+        queues.remove(7L, 99L);
+
+        assertEquals(2L, queues.poll(7L).id());
+    }
+
+    @Test
+    @DisplayName("A hold added while a rebuild reads the table is kept")
+    void rebuild_HoldAddedDuringRead_Kept() {
+        when(bookHoldRepository.streamWaiting()).thenAnswer(invocation -> {
+            queues.add(new QueuedHold(6L, 8L, 0, MONDAY));
+            return Stream.of(new QueuedHold(1L, 7L, 0, MONDAY));
+        });
+
+        queues.rebuild();
+
+        assertEquals(6L, queues.poll(8L).id());
+        assertEquals(1L, queues.poll(7L).id());
+        assertNull(queues.poll(7L));
+    }
+
+    @Test
+    @DisplayName("A rebuild drops holds that are no longer waiting")
+    void rebuild_HoldsGone_QueueDropped() {
+        when(bookHoldRepository.streamWaiting()).thenReturn(Stream.of(new QueuedHold(6L, 8L, 0, MONDAY)));
+
+        queues.rebuild();
+
+        assertFalse(queues.hasWaiting(7L));
+        assertEquals(6L, queues.poll(8L).id());
+    }
+}
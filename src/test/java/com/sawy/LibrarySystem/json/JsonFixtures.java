@@ -0,0 +1,99 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mappers set up as the application's is, with and without the hand-written serializers, and the pages the list
+// endpoints return.
+final class JsonFixtures {
+
+    private JsonFixtures() {
+    }
+
+    static ObjectMapper reflective() {
+        return builder().build();
+    }
+
+    static ObjectMapper streaming() {
+        ObjectMapper mapper = builder().build();
+        mapper.registerModule(new BlackbirdModule());
+        mapper.registerModule(new LibraryJsonModule());
+        return mapper;
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        Hibernate6Module hibernateModule = new Hibernate6Module();
+        hibernateModule.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ParameterNamesModule(), hibernateModule);
+    }
+
+    // Books with their author and loans, as the default fetch plan loads them.
+    static Page<Book> books(int size) {
+        Author author = author(1L);
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            Book book = book(id, author);
+            book.setBorrowingRecords(List.of(record(id * 10, customer(id), book), record(id * 10 + 1, customer(id + 1), book)));
+            books.add(book);
+        }
+        return new PageImpl<>(books, PageRequest.of(0, size, Sort.by("id")), 1000);
+    }
+
+    static Page<BorrowingRecord> records(int size) {
+        Author author = author(1L);
+        List<BorrowingRecord> records = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            records.add(record(id, customer(id), book(id, author)));
+        }
+        return new PageImpl<>(records, PageRequest.of(2, size), 1000);
+    }
+
+    static Author author(Long id) {
+        Author author = new Author("Jane \"JR\" Roe", LocalDate.of(1970, 5, 17), "British");
+        author.setId(id);
+        return author;
+    }
+
+    static Book book(Long id, Author author) {
+        Book book = new Book("Intro to Java, vol. " + id, "978-0-00-00000" + id, LocalDate.of(2020, 1, 2), "tech", id % 2 == 0, author.getId());
+        book.setId(id);
+        book.setAuthor(author);
+        return book;
+    }
+
+    static Customer customer(Long id) {
+        Customer customer = new Customer("Ann Doe", "ann" + id + "@example.com", "Somewhere 1", "01234567890", "{bcrypt}secret");
+        customer.setId(id);
+        return customer;
+    }
+
+    static BorrowingRecord record(Long id, Customer customer, Book book) {
+        BorrowingRecord record = new BorrowingRecord(customer, book, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), customer.getId(), book.getId());
+        record.setId(id);
+        record.setBranch("main");
+        if (id % 2 == 0) {
+            record.setReturnedOn(LocalDate.of(2024, 3, 20));
+            record.setFine(new BigDecimal("1.25"));
+        }
+        return record;
+    }
+}
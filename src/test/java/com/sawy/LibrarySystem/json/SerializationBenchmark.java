@@ -0,0 +1,60 @@
+package com.sawy.LibrarySystem.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a page of books and a page of loans with the reflective serializers and with the hand-written ones.
+ * Run with {@code mvn -Pbenchmark test}; the GC profiler gives the bytes allocated per page
+ * ({@code gc.alloc.rate.norm}) next to the time per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"reflective", "streaming"})
+    private String serializers;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private Page<Book> books;
+    private Page<BorrowingRecord> records;
+
+    @Setup
+    public void setUp() {
+        mapper = serializers.equals("streaming") ? JsonFixtures.streaming() : JsonFixtures.reflective();
+        books = JsonFixtures.books(pageSize);
+        records = JsonFixtures.records(pageSize);
+    }
+
+    @Benchmark
+    public byte[] bookPage() throws Exception {
+        return mapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] borrowingRecordPage() throws Exception {
+        return mapper.writeValueAsBytes(records);
+    }
+}
@@ -0,0 +1,147 @@
+package com.sawy.LibrarySystem.load;
+
+import com.sawy.LibrarySystem.LibrarySystemApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application with a small Tomcat pool, once on platform threads and once on virtual threads, and times
+ * the same burst of slow uploads against each. Every upload keeps its request thread waiting on the client, so on
+ * platform threads the uploads go through the pool in {@code CLIENTS / REQUEST_THREADS} waves, while on virtual
+ * threads they all wait at once. The import only takes a connection once the whole body is in, so the pool of
+ * connections does not cap the virtual run; half of the four-fold difference is asserted, leaving room for the
+ * imports themselves.
+ * <p>
+ * Run with {@code mvn -Pjava21,load-test test}.
+ */
+@Slf4j
+@Tag("load")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadLoadTest {
+
+    private static final int REQUEST_THREADS = 16;
+    private static final int CLIENTS = 64;
+    private static final int ROWS_PER_UPLOAD = 5;
+    private static final Duration ROW_DELAY = Duration.ofMillis(500);
+
+    @Test
+    @DisplayName("Virtual threads at least double the throughput of slow uploads")
+    void importBooks_SlowUploads_VirtualThreadsAtLeastTwiceAsFast() throws Exception {
+        Duration platform = run("platform", false);
+        Duration virtual = run("virtual", true);
+
+        log.info("{} slow uploads on {} request threads: platform {}/s, virtual {}/s", CLIENTS, REQUEST_THREADS,
+                String.format("%.1f", throughput(platform)), String.format("%.1f", throughput(virtual)));
+        assertTrue(throughput(virtual) >= 2 * throughput(platform),
+                "platform " + platform.toMillis() + " ms, virtual " + virtual.toMillis() + " ms");
+    }
+
+    private static double throughput(Duration elapsed) {
+        return CLIENTS * 1000.0 / elapsed.toMillis();
+    }
+
+    private Duration run(String name, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibrarySystemApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + REQUEST_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load_" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService uploads = Executors.newCachedThreadPool();
+            try {
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(uploads).build();
+                // Once unmeasured, so both runs start warm.
+                importSlowly(client, port, name + "-warmup").join();
+
+                long start = System.nanoTime();
+                List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, CLIENTS)
+                        .mapToObj(i -> importSlowly(client, port, name + "-" + i))
+                        .toList();
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    HttpResponse<String> done = response.join();
+                    assertEquals(200, done.statusCode(), done.body());
+                    assertTrue(done.body().contains("\"imported\":" + ROWS_PER_UPLOAD), done.body());
+                }
+                return Duration.ofNanos(System.nanoTime() - start);
+            } finally {
+                uploads.shutdownNow();
+            }
+        }
+    }
+
+    private static CompletableFuture<HttpResponse<String>> importSlowly(HttpClient client, int port, String prefix) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/books/import?format=ndjson"))
+                .header("Content-Type", "application/x-ndjson")
+                // The body is only sent once a request thread has taken the request, so the pauses keep it busy.
+                .expectContinue(true)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SlowRows(prefix)))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // One NDJSON row at a time, with a pause before each, like a client on a slow link.
+    private static final class SlowRows extends InputStream {
+
+        private final String prefix;
+        private int row;
+        private byte[] current = new byte[0];
+        private int position;
+
+        SlowRows(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == current.length) {
+                if (row == ROWS_PER_UPLOAD) {
+                    return -1;
+                }
+                try {
+                    Thread.sleep(ROW_DELAY.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                current = ("{\"isbn\":\"" + prefix + "-" + row + "\",\"title\":\"Load " + row
+                        + "\",\"genre\":\"Software\",\"authorName\":\"Joshua Bloch\",\"authorNationality\":\"American\"}\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                row++;
+            }
+            int read = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, read);
+            position += read;
+            return read;
+        }
+    }
+}
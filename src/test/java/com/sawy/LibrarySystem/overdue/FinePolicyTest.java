@@ -0,0 +1,43 @@
+package com.sawy.LibrarySystem.overdue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinePolicyTest {
+
+    private static final LocalDate DUE = LocalDate.of(2024, 6, 3);
+
+    private final FinePolicy finePolicy = new FinePolicy(new BigDecimal("0.25"), new BigDecimal("10.00"));
+
+    @Test
+    @DisplayName("Returns on or before the due date are not fined")
+    void fineFor_OnTime_Zero() {
+        assertEquals(new BigDecimal("0.00"), finePolicy.fineFor(DUE, DUE));
+        assertEquals(new BigDecimal("0.00"), finePolicy.fineFor(DUE, DUE.minusDays(2)));
+        assertEquals(0, finePolicy.daysOverdue(DUE, DUE.minusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Every day past the due date is fined")
+    void fineFor_Late_PerDay() {
+        assertEquals(3, finePolicy.daysOverdue(DUE, DUE.plusDays(3)));
+        assertEquals(new BigDecimal("0.75"), finePolicy.fineFor(DUE, DUE.plusDays(3)));
+    }
+
+    @Test
+    @DisplayName("The fine stops at the maximum")
+    void fineFor_VeryLate_Capped() {
+        assertEquals(new BigDecimal("10.00"), finePolicy.fineFor(DUE, DUE.plusDays(365)));
+    }
+
+    @Test
+    @DisplayName("Loans without a due date are never late")
+    void fineFor_NoDueDate_Zero() {
+        assertEquals(new BigDecimal("0.00"), finePolicy.fineFor(null, DUE));
+    }
+}
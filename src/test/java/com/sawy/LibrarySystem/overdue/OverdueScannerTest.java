@@ -0,0 +1,71 @@
+package com.sawy.LibrarySystem.overdue;
+
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.model.ScanWatermark;
+import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.ScanWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OverdueScannerTest {
+
+    private static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    private final ScanWatermarkRepository scanWatermarkRepository = mock(ScanWatermarkRepository.class);
+    private final BorrowingRecordRepository borrowingRecordRepository = mock(BorrowingRecordRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final ScanWatermark watermark = new ScanWatermark();
+
+    private OverdueScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        scanner = new OverdueScanner(scanWatermarkRepository, borrowingRecordRepository, eventPublisher);
+        watermark.setName(OverdueScanner.WATERMARK);
+        when(scanWatermarkRepository.lockByName(OverdueScanner.WATERMARK)).thenReturn(Optional.of(watermark));
+    }
+
+    @Test
+    @DisplayName("The scan reads the days since the last one and announces each loan")
+    void scan_DaysBehind_EventPerLoanAndWatermarkMoved() {
+        watermark.setScannedThrough(YESTERDAY.minusDays(3));
+        when(borrowingRecordRepository.streamOpenDueBetween(YESTERDAY.minusDays(3), YESTERDAY)).thenReturn(Stream.of(
+                new BorrowingSummary(1L, 10L, "John Doe", 20L, "Intro to Java", YESTERDAY.minusDays(16), YESTERDAY.minusDays(2)),
+                new BorrowingSummary(2L, 11L, "Jane Doe", 21L, "Intro to Python", YESTERDAY.minusDays(14), YESTERDAY)));
+
+        assertEquals(2, scanner.scan());
+        verify(eventPublisher, times(1)).publishEvent(new LoanOverdueEvent(1L, 10L, 20L, YESTERDAY.minusDays(2)));
+        verify(eventPublisher, times(1)).publishEvent(new LoanOverdueEvent(2L, 11L, 21L, YESTERDAY));
+        assertEquals(YESTERDAY, watermark.getScannedThrough());
+    }
+
+    @Test
+    @DisplayName("A second scan on the same day reads nothing")
+    void scan_AlreadyScannedToday_NoQuery() {
+        watermark.setScannedThrough(YESTERDAY);
+
+        assertEquals(0, scanner.scan());
+        verifyNoInteractions(borrowingRecordRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("The first scan only announces loans due yesterday")
+    void scan_FirstRun_OnlyYesterday() {
+        when(borrowingRecordRepository.streamOpenDueBetween(YESTERDAY.minusDays(1), YESTERDAY)).thenReturn(Stream.empty());
+
+        assertEquals(0, scanner.scan());
+        verify(eventPublisher, never()).publishEvent(any());
+        assertEquals(YESTERDAY, watermark.getScannedThrough());
+    }
+}
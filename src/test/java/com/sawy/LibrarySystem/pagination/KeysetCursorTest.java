@@ -0,0 +1,52 @@
+package com.sawy.LibrarySystem.pagination;
+
+import com.sawy.LibrarySystem.model.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("Sort Breaks Ties By Id")
+    void sort_NonIdProperty_AppendsId() {
+        Sort sort = KeysetCursor.sort("title", "desc");
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "title").and(Sort.by(Sort.Direction.DESC, "id")), sort);
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), KeysetCursor.sort("id", "asc"));
+    }
+
+    @Test
+    @DisplayName("Cursor Round-Trips With Property Types")
+    void decode_EncodedPosition_RestoresTypedKeys() {
+        Sort sort = KeysetCursor.sort("publicationDate", "asc");
+        ScrollPosition position = ScrollPosition.forward(Map.of("publicationDate", LocalDate.of(2012, 4, 13), "id", 42L));
+
+        KeysetScrollPosition decoded = KeysetCursor.decode(KeysetCursor.encode(position), Book.class, sort);
+
+        assertEquals(LocalDate.of(2012, 4, 13), decoded.getKeys().get("publicationDate"));
+        assertEquals(42L, decoded.getKeys().get("id"));
+    }
+
+    @Test
+    @DisplayName("Missing Cursor Starts At The Beginning")
+    void decode_NoCursor_InitialPosition() {
+        assertTrue(KeysetCursor.decode(null, Book.class, KeysetCursor.sort("id", "asc")).isInitial());
+    }
+
+    @Test
+    @DisplayName("Rejects Cursors From Another Sort Or Malformed Tokens")
+    void decode_MismatchedOrMalformed_Throws() {
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", 42L)));
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, Book.class, KeysetCursor.sort("title", "asc")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor", Book.class, KeysetCursor.sort("id", "asc")));
+    }
+}
@@ -0,0 +1,157 @@
+package com.sawy.LibrarySystem.repository;
+
+import com.sawy.LibrarySystem.configuration.JpaConfig;
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the schema built by the Flyway migrations (H2 in MySQL mode, see src/test/resources).
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookStockRepository bookStockRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(new Author("sawy", LocalDate.of(1980, Month.APRIL, 1), "Egyptian"));
+    }
+
+    @Test
+    @DisplayName("ISBN Is Unique")
+    void save_DuplicateIsbn_Rejected() {
+        bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookRepository.saveAndFlush(book("intro to python", "972-375632-274")));
+    }
+
+    @Test
+    @DisplayName("Title Search Slices Without Counting")
+    void findSliceByTitle_MoreRowsThanPage_HasNext() {
+        bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+        bookRepository.saveAndFlush(book("advanced java", "972-375632-275"));
+
+        Slice<Book> slice = bookRepository.findSliceByTitleContainingIgnoreCase("JAVA", PageRequest.of(0, 1));
+
+        assertEquals(1, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+    }
+
+    @Test
+    @DisplayName("Combined Filter Matches All Criteria")
+    void findAll_PlannedFilter_BooksMatchingEveryCriterion() {
+        Book match = bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+        bookRepository.saveAndFlush(book("intro to python", "972-375632-275"));
+        Book otherGenre = book("java puzzles", "972-375632-276");
+        otherGenre.setGenre("Puzzles");
+        bookRepository.saveAndFlush(otherGenre);
+        Book lent = book("java in depth", "972-375632-277");
+        lent.setAvailable(false);
+        bookRepository.saveAndFlush(lent);
+        bookStockRepository.saveAndFlush(new BookStock(match.getId(), "main", 1, 1));
+        bookStockRepository.saveAndFlush(new BookStock(lent.getId(), "main", 1, 0));
+
+        BookFilter filter = new BookFilter(null, "JAVA", "saw", "Educational",
+                LocalDate.of(2012, Month.JANUARY, 1), LocalDate.of(2012, Month.DECEMBER, 31), true);
+        Page<Book> books = bookRepository.findAll(BookQueryPlanner.plan(filter), PageRequest.of(0, 10));
+
+        assertEquals(List.of(match), books.getContent());
+    }
+
+    @Test
+    @DisplayName("Combined Filter Matches ISBN Exactly")
+    void findAll_IsbnFilter_ExactMatchOnly() {
+        Book match = bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+        bookRepository.saveAndFlush(book("intro to java 2", "972-375632-2745"));
+
+        BookFilter filter = new BookFilter("972-375632-274", "java", null, null, null, null, null);
+        Slice<Book> books = bookRepository.findSlice(BookQueryPlanner.plan(filter), PageRequest.of(0, 10), FetchPlan.NONE);
+
+        assertEquals(List.of(match), books.getContent());
+        assertFalse(books.hasNext());
+    }
+
+    @Test
+    @DisplayName("Combined Filter Escapes Wildcards")
+    void findAll_TitleWithWildcard_MatchedLiterally() {
+        bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+        Book match = bookRepository.saveAndFlush(book("100% java", "972-375632-275"));
+
+        BookFilter filter = new BookFilter(null, "0%", null, null, null, null, null);
+
+        assertEquals(List.of(match), bookRepository.findAll(BookQueryPlanner.plan(filter)));
+    }
+
+    @Test
+    @DisplayName("Ids Come From Pooled Blocks")
+    void saveAll_SeveralBooks_ConsecutiveIdsWithinReservedBlock() {
+        List<Book> books = bookRepository.saveAllAndFlush(List.of(
+                book("intro to java", "972-375632-274"),
+                book("intro to python", "972-375632-275"),
+                book("intro to go", "972-375632-276")));
+
+        List<Long> ids = books.stream().map(Book::getId).toList();
+        assertEquals(List.of(ids.get(0), ids.get(0) + 1, ids.get(0) + 2), ids);
+        Number reserved = (Number) entityManager.createNativeQuery(
+                "select next_val from id_generator where sequence_name = 'book'").getSingleResult();
+        assertTrue(ids.get(2) <= reserved.longValue());
+    }
+
+    @Test
+    @DisplayName("Availability Follows The Stock Of Every Branch")
+    void available_CopiesAtAnyBranch_Available() {
+        Book book = bookRepository.saveAndFlush(book("intro to java", "972-375632-274"));
+        bookStockRepository.saveAndFlush(new BookStock(book.getId(), "main", 1, 0));
+        BookStock downtown = bookStockRepository.saveAndFlush(new BookStock(book.getId(), "downtown", 1, 1));
+        entityManager.clear();
+
+        assertTrue(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+
+        assertEquals(1, bookStockRepository.takeCopy(book.getId(), downtown.getBranch()));
+        assertEquals(0, bookStockRepository.takeCopy(book.getId(), downtown.getBranch()));
+        entityManager.clear();
+
+        assertFalse(bookRepository.findById(book.getId()).orElseThrow().isAvailable());
+        BookFilter filter = new BookFilter(null, null, null, null, null, null, false);
+        assertEquals(List.of(book.getId()), bookRepository.findAll(BookQueryPlanner.plan(filter)).stream().map(Book::getId).toList());
+    }
+
+    private Book book(String title, String isbn) {
+        Book book = new Book(title, isbn, LocalDate.of(2012, Month.APRIL, 13), "Educational", true, author.getId());
+        book.setAuthor(author);
+        return book;
+    }
+}
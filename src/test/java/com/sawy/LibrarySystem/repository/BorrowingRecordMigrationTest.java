@@ -0,0 +1,69 @@
+package com.sawy.LibrarySystem.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Seeds records the way the app kept them before checkout existed, then runs the remaining migrations over them.
+class BorrowingRecordMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy_records;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("drop all objects");
+        migrate("4");
+        jdbc.update("insert into author (id, name, nationality) values (1, 'sawy', 'Egyptian')");
+        jdbc.update("insert into customer (id, name, email, address, password) values (1, 'Ann Doe', 'a@d.com', 'Somewhere 1', 'secret')");
+        // Book 1 is out with its latest borrower; book 2 is on the shelf.
+        jdbc.update("insert into book (id, title, isbn, genre, available, authorid, author_id) values (1, 'intro to java', 'isbn-1', 'tech', false, 1, 1)");
+        jdbc.update("insert into book (id, title, isbn, genre, available, authorid, author_id) values (2, 'intro to python', 'isbn-2', 'tech', true, 1, 1)");
+        record(1, 1, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 15));
+        record(2, 1, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15));
+        record(3, 2, LocalDate.of(2021, 5, 1), LocalDate.of(2021, 5, 15));
+        migrate(null);
+    }
+
+    @Test
+    @DisplayName("Legacy Records Are Closed On Their Return Date")
+    void migrate_LegacyRecords_ClosedUnlessHoldingTheCopy() {
+        assertEquals(Date.valueOf(LocalDate.of(2020, 1, 15)), row(1).get("returned_on"));
+        assertEquals(Date.valueOf(LocalDate.of(2021, 5, 15)), row(3).get("returned_on"));
+        assertEquals(false, row(1).get("copy_taken"));
+        assertEquals(false, row(3).get("copy_taken"));
+    }
+
+    @Test
+    @DisplayName("Latest Loan Of A Lent Book Stays Open")
+    void migrate_LatestLoanOfLentBook_OpenAndHoldingTheCopy() {
+        assertNull(row(2).get("returned_on"));
+        assertEquals(true, row(2).get("copy_taken"));
+        assertEquals(0, jdbc.queryForObject("select available_copies from book_stock where book_id = 1", Integer.class));
+    }
+
+    private void migrate(String target) {
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration")
+                .target(target == null ? "latest" : target).load().migrate();
+    }
+
+    private void record(long id, long bookId, LocalDate borrowDate, LocalDate returnDate) {
+        jdbc.update("insert into borrowing_record (id, user_id, book_id, customerid, bookid, borrow_date, return_date) values (?, 1, ?, 1, ?, ?, ?)",
+                id, bookId, bookId, borrowDate, returnDate);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbc.queryForMap("select returned_on, copy_taken from borrowing_record where id = ?", id);
+    }
+}
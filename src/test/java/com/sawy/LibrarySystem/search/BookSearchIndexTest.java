@@ -0,0 +1,144 @@
+package com.sawy.LibrarySystem.search;
+
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final Pageable firstPage = PageRequest.of(0, 10);
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new BookSearchIndex(bookRepository);
+        index.index(book(1L, "Intro to Java", "972-375632-274", 1L, "Mohamed Sawy"));
+        index.index(book(2L, "Python Crash Course", "978-159327603-4", 2L, "Eric Matthes"));
+        index.index(book(3L, "Effective Java", "978-013468599-1", 3L, "Joshua Bloch"));
+        index.index(book(4L, "Java Concurrency in Practice", "978-032134960-6", 3L, "Brian Goetz"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Every word has to match")
+    void search_SeveralWords_OnlyBooksMatchingAll() {
+        assertEquals(List.of(3L), index.search("effective java", firstPage).ids());
+    }
+
+    @Test
+    @DisplayName("Whole words rank above prefix matches")
+    void search_WordAndPrefix_WholeWordFirst() {
+        index.index(book(5L, "JavaScript Basics", "978-000000000-1", 4L, "Ada Lovelace"));
+
+        List<Long> ids = index.search("java", firstPage).ids();
+
+        assertEquals(4, ids.size());
+        assertEquals(5L, ids.get(ids.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Prefixes and typos match")
+    void search_PrefixAndTypo_Matches() {
+        assertEquals(List.of(2L), index.search("pyth", firstPage).ids());
+        assertEquals(List.of(2L), index.search("pyhton", firstPage).ids());
+        assertEquals(List.of(4L), index.search("concurency", firstPage).ids());
+    }
+
+    @Test
+    @DisplayName("ISBNs match by prefix ignoring hyphens")
+    void search_IsbnPrefix_Matches() {
+        assertEquals(List.of(1L), index.search("972375", firstPage).ids());
+        assertEquals(List.of(3L), index.search("978-01346", firstPage).ids());
+    }
+
+    @Test
+    @DisplayName("Pages are cut from the ranked hits")
+    void search_SecondPage_RemainingHitsWithTotal() {
+        BookSearchIndex.Hits hits = index.search("java", PageRequest.of(1, 2));
+
+        assertEquals(1, hits.ids().size());
+        assertEquals(3, hits.total());
+    }
+
+    @Test
+    @DisplayName("Pages past the result limit are refused")
+    void search_PagePastLimit_IllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", PageRequest.of(BookSearchIndex.MAX_RESULTS / 10, 10)));
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", PageRequest.of(Integer.MAX_VALUE, 10)));
+    }
+
+    @Test
+    @DisplayName("Updates and removals are visible right away")
+    void indexAndRemove_VisibleToNextSearch() {
+        index.index(book(2L, "Python Cookbook", "978-159327603-4", 2L, "Eric Matthes"));
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.search("cookbook", firstPage).ids());
+        assertTrue(index.search("crash", firstPage).ids().isEmpty());
+        assertEquals(2, index.search("java", firstPage).total());
+    }
+
+    @Test
+    @DisplayName("Renaming an author reindexes their books")
+    void renameAuthor_BooksFoundByNewName() {
+        index.renameAuthor(3L, "Someone Else");
+
+        assertTrue(index.search("bloch", firstPage).ids().isEmpty());
+        assertEquals(List.of(3L, 4L), index.search("someone", firstPage).ids().stream().sorted().toList());
+        assertEquals(List.of(3L), index.search("effective", firstPage).ids());
+        assertEquals(List.of(3L), index.search("978013468", firstPage).ids());
+    }
+
+    @Test
+    @DisplayName("Removing an author removes their books")
+    void removeAuthor_BooksGone() {
+        index.removeAuthor(3L);
+
+        assertEquals(List.of(1L), index.search("java", firstPage).ids());
+    }
+
+    @Test
+    @DisplayName("Rebuild replaces the index with the database contents")
+    void rebuild_LoadsSummariesFromRepository() {
+        BookSummary summary = new BookSummary(9L, "Domain Driven Design", "978-032112521-5", LocalDate.of(2003, 8, 20),
+                "Software", true, 5L, "Eric Evans");
+        when(bookRepository.findAllSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+
+        index.rebuild();
+
+        assertEquals(List.of(9L), index.search("domain evans", firstPage).ids());
+        assertTrue(index.search("java", firstPage).ids().isEmpty());
+    }
+
+    private static Book book(Long id, String title, String isbn, Long authorId, String authorName) {
+        Author author = new Author(authorName, LocalDate.of(1970, 1, 1), "Egyptian");
+        author.setId(authorId);
+        Book book = new Book(title, isbn, LocalDate.of(2010, 1, 1), "Educational", true, authorId);
+        book.setId(id);
+        book.setAuthor(author);
+        return book;
+    }
+}
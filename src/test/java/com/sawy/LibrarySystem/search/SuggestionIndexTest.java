@@ -0,0 +1,109 @@
+package com.sawy.LibrarySystem.search;
+
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.Suggestion;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final AuthorRepository authorRepository = mock(AuthorRepository.class);
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex(bookRepository, authorRepository);
+        index.putAuthor(author(1L, "Joshua Bloch"));
+        index.putAuthor(author(2L, "Brian Goetz"));
+        index.putBook(book(1L, "Effective Java", "978-0134685991", 1L));
+        index.putBook(book(2L, "Java Puzzlers", "978-0321336781", 1L));
+        index.putBook(book(3L, "Java Concurrency in Practice", "978-0321349606", 2L));
+    }
+
+    @Test
+    @DisplayName("Completes from the start of any word, shortest completion first")
+    void suggest_WordPrefix_TitlesContainingWord() {
+        assertEquals(List.of(new Suggestion(Suggestion.TITLE, "Effective Java", 1L),
+                        new Suggestion(Suggestion.TITLE, "Java Concurrency in Practice", 3L),
+                        new Suggestion(Suggestion.TITLE, "Java Puzzlers", 2L)),
+                index.suggest("Jav", 10));
+    }
+
+    @Test
+    @DisplayName("Completes author names and ISBNs with or without hyphens")
+    void suggest_AuthorAndIsbn_Matches() {
+        assertEquals(List.of(new Suggestion(Suggestion.AUTHOR, "Joshua Bloch", 1L)), index.suggest("blo", 10));
+        assertEquals(List.of(new Suggestion(Suggestion.ISBN, "978-0134685991", 1L)), index.suggest("978-013", 10));
+        assertEquals(List.of(new Suggestion(Suggestion.ISBN, "978-0321349606", 3L)), index.suggest("97803213496", 10));
+    }
+
+    @Test
+    @DisplayName("Stops at the limit and ignores blank prefixes")
+    void suggest_LimitAndBlank() {
+        assertEquals(2, index.suggest("java", 2).size());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Writes replace and remove completions")
+    void putAndRemove_VisibleToNextSuggest() {
+        index.putBook(book(2L, "Puzzlers Revisited", "978-0321336781", 1L));
+        index.removeBook(3L);
+
+        assertEquals(List.of(new Suggestion(Suggestion.TITLE, "Effective Java", 1L)), index.suggest("java", 10));
+        assertEquals(List.of(new Suggestion(Suggestion.TITLE, "Puzzlers Revisited", 2L)), index.suggest("puz", 10));
+    }
+
+    @Test
+    @DisplayName("Removing an author removes their books")
+    void removeAuthor_AuthorAndBooksGone() {
+        index.removeAuthor(1L);
+
+        assertTrue(index.suggest("joshua", 10).isEmpty());
+        assertEquals(List.of(new Suggestion(Suggestion.TITLE, "Java Concurrency in Practice", 3L)), index.suggest("java", 10));
+    }
+
+    @Test
+    @DisplayName("Rebuild loads books and authors from the database")
+    void rebuild_LoadsFromRepositories() {
+        BookSummary summary = new BookSummary(9L, "Domain Driven Design", "978-0321125215", LocalDate.of(2003, 8, 20),
+                "Software", true, 5L, "Eric Evans");
+        when(bookRepository.findAllSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary)));
+        when(authorRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(author(5L, "Eric Evans"))));
+
+        index.rebuild();
+
+        assertEquals(List.of(new Suggestion(Suggestion.TITLE, "Domain Driven Design", 9L)), index.suggest("design", 10));
+        assertEquals(List.of(new Suggestion(Suggestion.AUTHOR, "Eric Evans", 5L)), index.suggest("evans", 10));
+        assertTrue(index.suggest("java", 10).isEmpty());
+    }
+
+    private static Author author(Long id, String name) {
+        Author author = new Author(name, LocalDate.of(1970, 1, 1), "American");
+        author.setId(id);
+        return author;
+    }
+
+    private static Book book(Long id, String title, String isbn, Long authorId) {
+        Book book = new Book(title, isbn, LocalDate.of(2010, 1, 1), "Software", true, authorId);
+        book.setId(id);
+        return book;
+    }
+}
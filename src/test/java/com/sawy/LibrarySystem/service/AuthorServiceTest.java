@@ -3,15 +3,27 @@ package com.sawy.LibrarySystem.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
 import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.search.BookSearchIndex;
+import com.sawy.LibrarySystem.search.SuggestionIndex;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,7 +34,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class AuthorServiceTest {
@@ -30,11 +44,27 @@ class AuthorServiceTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private TableRowCounter tableRowCounter;
+
     private AuthorService authorService;
 
+    // Runs the real chunking and validation; the transactions are no-ops.
+    private final BatchWriter batchWriter = new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(),
+            mock(PlatformTransactionManager.class), 2, 100);
+
     @BeforeEach
     void setUp() {
-        authorService = new AuthorService(authorRepository);
+        authorService = new AuthorService(authorRepository, cacheDependencyIndex, bookSearchIndex, suggestionIndex, batchWriter, tableRowCounter);
     }
 
     @Test
@@ -47,12 +77,12 @@ class AuthorServiceTest {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy));
         Page<Author> authors = new PageImpl<>(List.of(new Author(), new Author()));
 
-        when(authorRepository.findAll(pageable)).thenReturn(authors);
+        when(authorRepository.findAll(pageable, FetchPlan.ALL)).thenReturn(authors);
 
-        Page<Author> result = authorService.getAllAuthors(page, size, sortBy, sortOrder);
+        Slice<Author> result = authorService.getAllAuthors(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
 
         assertEquals(authors, result);
-        verify(authorRepository, times(1)).findAll(pageable);
+        verify(authorRepository, times(1)).findAll(pageable, FetchPlan.ALL);
     }
 
     @Test
@@ -60,13 +90,13 @@ class AuthorServiceTest {
     void getAuthorById_ID_Author() {
         Long id = 1L;
         Author author = new Author();
-        when(authorRepository.findById(id)).thenReturn(Optional.of(author));
+        when(authorRepository.findById(id, FetchPlan.ALL)).thenReturn(Optional.of(author));
 
         Optional<Author> result = authorService.getAuthorById(id);
 
         assertTrue(result.isPresent());
         assertEquals(author, result.get());
-        verify(authorRepository, times(1)).findById(id);
+        verify(authorRepository, times(1)).findById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -79,6 +109,7 @@ class AuthorServiceTest {
 
         assertEquals(author, result);
         verify(authorRepository, times(1)).save(author);
+        verify(suggestionIndex, times(1)).putAuthor(author);
     }
 
     @Test
@@ -99,6 +130,28 @@ class AuthorServiceTest {
         assertEquals("New Name", result.get().getName());
         verify(authorRepository, times(1)).findById(id);
         verify(authorRepository, times(1)).save(any(Author.class));
+        verify(bookSearchIndex, times(1)).renameAuthor(id, "New Name");
+        verify(suggestionIndex, times(1)).putAuthor(existingAuthor);
+    }
+
+    @Test
+    @DisplayName("Update Authors In Batch")
+    void updateAuthors_Authors_RenamesReindexed() {
+        Author existing = new Author("Old Name", LocalDate.of(1980, 4, 1), "Egyptian");
+        existing.setId(1L);
+        Author details = new Author("New Name", LocalDate.of(1980, 4, 1), "Egyptian");
+        details.setId(1L);
+        Author missing = new Author("Someone", LocalDate.of(1980, 4, 1), "Egyptian");
+        missing.setId(2L);
+
+        when(authorRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing));
+
+        BatchResult result = authorService.updateAuthors(List.of(details, missing));
+
+        assertEquals(List.of(BatchItemResult.succeeded(0, 1L, BatchItemResult.UPDATED), BatchItemResult.notFound(1, 2L)), result.items());
+        assertEquals("New Name", existing.getName());
+        verify(bookSearchIndex, times(1)).renameAuthor(1L, "New Name");
+        verify(cacheDependencyIndex, times(1)).invalidate(Author.class, 1L);
     }
 
     @Test
@@ -109,5 +162,7 @@ class AuthorServiceTest {
         authorService.deleteAuthor(id);
 
         verify(authorRepository, times(1)).deleteById(id);
+        verify(bookSearchIndex, times(1)).removeAuthor(id);
+        verify(suggestionIndex, times(1)).removeAuthor(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.sawy.LibrarySystem.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sawy.LibrarySystem.dto.AuthorName;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.ImportResult;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.transfer.DataFormat;
+import com.sawy.LibrarySystem.transfer.RecordReader;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final RecordReader recordReader = new RecordReader(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build());
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportService(bookService, authorService, bookRepository, authorRepository, recordReader,
+                entityManager, mock(PlatformTransactionManager.class), 2, 1);
+        when(authorRepository.streamAllNames()).thenReturn(Stream.of(new AuthorName(1L, "Joshua Bloch")));
+    }
+
+    @Test
+    @DisplayName("Import Books Matches Authors By Name And Skips Known ISBNs")
+    void importBooks_Csv_ExistingAuthorAndDuplicates() throws IOException {
+        stubCatalogue("2");
+
+        ImportResult result = bookImportService.importBooks(input("""
+                isbn,title,genre,authorName
+                1,Effective Java,Software,joshua bloch
+                2,Java Puzzlers,Software,Joshua Bloch
+                1,Effective Java Again,Software,Joshua Bloch
+                """), DataFormat.CSV);
+
+        assertEquals(new ImportResult(3, 1, 2, 0, List.of()), result);
+        ArgumentCaptor<List<Book>> books = bookListCaptor();
+        verify(bookService, times(1)).createBooks(books.capture());
+        assertEquals(1L, books.getValue().get(0).getAuthorID());
+        assertTrue(books.getValue().get(0).isAvailable());
+        verify(authorService, never()).createAuthors(anyList());
+    }
+
+    @Test
+    @DisplayName("Import Books Creates New Authors Once")
+    void importBooks_NewAuthor_CreatedOnceAndUsed() throws IOException {
+        stubCatalogue();
+        when(authorService.createAuthors(anyList())).thenReturn(BatchResult.of(List.of(BatchItemResult.succeeded(0, 7L, BatchItemResult.CREATED))));
+
+        ImportResult result = bookImportService.importBooks(input("""
+                isbn,title,genre,authorName,authorNationality
+                1,Java Concurrency,Software,Brian Goetz,American
+                2,Java Theory,Software,Brian Goetz,American
+                """), DataFormat.CSV);
+
+        assertEquals(2, result.imported());
+        ArgumentCaptor<List<Author>> authors = ArgumentCaptor.forClass(List.class);
+        verify(authorService, times(1)).createAuthors(authors.capture());
+        assertEquals("Brian Goetz", authors.getValue().get(0).getName());
+        ArgumentCaptor<List<Book>> books = bookListCaptor();
+        verify(bookService).createBooks(books.capture());
+        assertEquals(List.of(7L, 7L), books.getValue().stream().map(Book::getAuthorID).toList());
+    }
+
+    @Test
+    @DisplayName("Import Books Reports Failed Rows With Their Line")
+    void importBooks_BadRows_FailedWithLine() throws IOException {
+        when(bookRepository.findIsbnsIn(anyList())).thenReturn(Set.of());
+        when(bookService.createBooks(anyList())).thenReturn(BatchResult.of(List.of(
+                BatchItemResult.failed(0, null, Map.of("title", "Title is mandatory")))));
+
+        ImportResult result = bookImportService.importBooks(input("""
+                isbn,title,genre,authorName
+                1,,Software,Joshua Bloch
+                2,Unknown Author,Software,Nobody
+                """), DataFormat.CSV);
+
+        assertEquals(2, result.failed());
+        // Only the first failure is listed (max-reported-errors = 1 here).
+        assertEquals(List.of(new ImportResult.RowError(3, "2", Map.of("authorName", "Author not found"))), result.errors());
+    }
+
+    @Test
+    @DisplayName("Import Books Writes One Chunk At A Time")
+    void importBooks_MoreRowsThanChunk_OneWritePerChunk() throws IOException {
+        stubCatalogue();
+        StringBuilder ndjson = new StringBuilder();
+        IntStream.range(0, 5).forEach(i -> ndjson.append("{\"isbn\":\"").append(i).append("\",\"title\":\"Book ").append(i)
+                .append("\",\"genre\":\"Software\",\"authorName\":\"Joshua Bloch\"}\n"));
+
+        ImportResult result = bookImportService.importBooks(input(ndjson.toString()), DataFormat.NDJSON);
+
+        assertEquals(5, result.imported());
+        verify(bookService, times(3)).createBooks(anyList());
+        verify(entityManager, times(3)).clear();
+    }
+
+    private static ByteArrayInputStream input(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Books created by one chunk are found by the ISBN lookup of the next, as in the database.
+    private void stubCatalogue(String... existingIsbns) {
+        Set<String> catalogue = new HashSet<>(List.of(existingIsbns));
+        when(bookRepository.findIsbnsIn(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                .filter(catalogue::contains)
+                .collect(Collectors.toSet()));
+        when(bookService.createBooks(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < books.size(); i++) {
+                catalogue.add(books.get(i).getIsbn());
+                results.add(BatchItemResult.succeeded(i, 100L + i, BatchItemResult.CREATED));
+            }
+            return BatchResult.of(results);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Book>> bookListCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.search.BookSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the batch through real transactions, so a failed chunk is rolled back and replayed item by item.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:book_batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class BookServiceBatchTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Test
+    @DisplayName("Create Books In Batch With A Duplicate Isbn")
+    void createBooks_DuplicateIsbn_IndexesSavedBooks() {
+        Author author = authorRepository.save(new Author("sawy", LocalDate.of(1980, 4, 1), "Egyptian"));
+        Book first = new Book("intro to java", "isbn-1", null, "genre", true, author.getId());
+        Book duplicate = new Book("intro to kotlin", "isbn-1", null, "genre", true, author.getId());
+        Book second = new Book("intro to python", "isbn-2", null, "genre", true, author.getId());
+
+        BatchResult result = bookService.createBooks(List.of(first, duplicate, second));
+
+        assertEquals(2, result.succeeded());
+        assertEquals(BatchItemResult.FAILED, result.items().get(1).status());
+        Long firstId = result.items().get(0).id();
+        Long secondId = result.items().get(2).id();
+        assertNotNull(firstId);
+        assertNotNull(secondId);
+        assertEquals(List.of(firstId), bookSearchIndex.search("java", PageRequest.of(0, 10)).ids());
+        assertEquals(List.of(secondId), bookSearchIndex.search("python", PageRequest.of(0, 10)).ids());
+        assertTrue(bookSearchIndex.search("kotlin", PageRequest.of(0, 10)).ids().isEmpty());
+    }
+}
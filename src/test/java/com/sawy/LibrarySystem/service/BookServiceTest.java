@@ -2,28 +2,66 @@ package com.sawy.LibrarySystem.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
 
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
+import com.sawy.LibrarySystem.dto.BookFilter;
+import com.sawy.LibrarySystem.dto.BookSummary;
+import com.sawy.LibrarySystem.dto.Suggestion;
 import com.sawy.LibrarySystem.model.Author;
 import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.pagination.CursorPage;
+import com.sawy.LibrarySystem.pagination.KeysetCursor;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.search.BookSearchIndex;
+import com.sawy.LibrarySystem.search.SuggestionIndex;
+import com.sawy.LibrarySystem.transfer.DataFormat;
+import com.sawy.LibrarySystem.transfer.RecordExporter;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
-
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
@@ -34,11 +72,32 @@ class BookServiceTest {
     @Mock
     private AuthorService authorService;
 
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private TableRowCounter tableRowCounter;
+
+    @Mock
+    private InventoryService inventoryService;
+
     private BookService bookService;
 
+    // Runs the real chunking and validation; the transactions are no-ops.
+    private final BatchWriter batchWriter = new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(),
+            mock(PlatformTransactionManager.class), 2, 100);
+
+    private final RecordExporter recordExporter = new RecordExporter(Jackson2ObjectMapperBuilder.json().build());
+
     @BeforeEach
     void setUp() {
-        bookService = new BookService(bookRepository, authorService);
+        bookService = new BookService(bookRepository, authorService, cacheDependencyIndex, bookSearchIndex, suggestionIndex, batchWriter, recordExporter, tableRowCounter, inventoryService);
     }
 
     @Test
@@ -51,12 +110,97 @@ class BookServiceTest {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy));
         Page<Book> books = new PageImpl<>(List.of(new Book(), new Book()));
 
-        when(bookRepository.findAll(pageable)).thenReturn(books);
+        when(bookRepository.findAll(pageable, FetchPlan.ALL)).thenReturn(books);
+
+        Slice<Book> result = bookService.getAllBooks(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
+
+        assertEquals(books, result);
+        verify(bookRepository, times(1)).findAll(pageable, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get All Books Without Total")
+    void getAllBooks_NoTotal_SliceWithoutCount() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Book> books = new SliceImpl<>(List.of(new Book(), new Book()), pageable, true);
+
+        when(bookRepository.findSlice(pageable, FetchPlan.ALL)).thenReturn(books);
 
-        Page<Book> result = bookService.getAllBooks(page, size, sortBy, sortOrder);
+        Slice<Book> result = bookService.getAllBooks(0, 2, "id", "asc", FetchPlan.ALL, TotalMode.NONE);
 
         assertEquals(books, result);
-        verify(bookRepository, times(1)).findAll(pageable);
+        verify(bookRepository, never()).findAll(pageable, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get All Books With Approximate Total")
+    void getAllBooks_ApproximateTotal_PageWithCachedRowCount() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Book> books = new SliceImpl<>(List.of(new Book(), new Book()), pageable, true);
+
+        when(bookRepository.findSlice(pageable, FetchPlan.ALL)).thenReturn(books);
+        when(tableRowCounter.count(Book.class)).thenReturn(40L);
+
+        Slice<Book> result = bookService.getAllBooks(0, 2, "id", "asc", FetchPlan.ALL, TotalMode.APPROXIMATE);
+
+        assertEquals(40L, assertInstanceOf(Page.class, result).getTotalElements());
+        assertEquals(books.getContent(), result.getContent());
+    }
+
+    @Test
+    @DisplayName("Scroll Books")
+    void scrollBooks_NoCursor_FirstWindowWithNextCursor() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "title").and(Sort.by(Sort.Direction.ASC, "id"));
+        Book first = new Book("alpha", "isbn-1", null, "genre", true, 1L);
+        first.setId(1L);
+        Book second = new Book("beta", "isbn-2", null, "genre", true, 1L);
+        second.setId(2L);
+        List<Book> content = List.of(first, second);
+        Window<Book> window = Window.from(content,
+                index -> ScrollPosition.forward(Map.of("title", content.get(index).getTitle(), "id", content.get(index).getId())), true);
+
+        when(bookRepository.findAll(ScrollPosition.keyset(), sort, Limit.of(2))).thenReturn(window);
+
+        CursorPage<Book> result = bookService.scrollBooks(null, 2, "title", "asc", FetchPlan.ALL);
+
+        assertEquals(content, result.content());
+        assertTrue(result.hasNext());
+        assertEquals(ScrollPosition.forward(Map.of("title", "beta", "id", 2L)), KeysetCursor.decode(result.nextCursor(), Book.class, sort));
+        verify(bookRepository, times(1)).fetch(window, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get Book Summaries")
+    void getBookSummaries_pageSizeSortBySortOrder_PageOfSummaries() {
+        int page = 0;
+        int size = 10;
+        String sortBy = "title";
+        String sortOrder = "desc";
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sortBy));
+        Page<BookSummary> summaries = new PageImpl<>(List.of(new BookSummary(1L, "title", "isbn", null, "genre", true, 2L, "author")));
+
+        when(bookRepository.findAllSummaries(pageable)).thenReturn(summaries);
+
+        Page<BookSummary> result = bookService.getBookSummaries(page, size, sortBy, sortOrder);
+
+        assertEquals(summaries, result);
+        verify(bookRepository, times(1)).findAllSummaries(pageable);
+    }
+
+    @Test
+    @DisplayName("Export Books")
+    void exportBooks_Csv_StreamsSummariesAndClosesStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<BookSummary> summaries = Stream.of(new BookSummary(1L, "title", "isbn", null, "genre", true, 2L, "author"))
+                .onClose(() -> closed.set(true));
+        when(bookRepository.streamAllSummaries()).thenReturn(summaries);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookService.exportBooks(DataFormat.CSV, out);
+
+        assertEquals("id,title,isbn,publicationDate,genre,available,authorID,authorName\r\n"
+                + "1,title,isbn,,genre,true,2,author\r\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
     }
 
     @Test
@@ -64,13 +208,13 @@ class BookServiceTest {
     void getBookById_ID_Book() {
         Long id = 1L;
         Book book = new Book();
-        when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+        when(bookRepository.findById(id, FetchPlan.ALL)).thenReturn(Optional.of(book));
 
         Optional<Book> result = bookService.getBookById(id);
 
         assertTrue(result.isPresent());
         assertEquals(book, result.get());
-        verify(bookRepository, times(1)).findById(id);
+        verify(bookRepository, times(1)).findById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -88,6 +232,30 @@ class BookServiceTest {
         assertEquals(book, result);
         verify(authorService, times(1)).getAuthorById(book.getAuthorID());
         verify(bookRepository, times(1)).save(book);
+        verify(inventoryService, times(1)).addInitialCopy(book);
+    }
+
+    @Test
+    @DisplayName("Create Book Indexes It Only Once Committed")
+    void createBook_InTransaction_IndexedAfterCommit() {
+        Book book = new Book();
+        book.setAuthorID(1L);
+
+        when(authorService.getAuthorById(1L)).thenReturn(Optional.of(new Author()));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.createBook(book);
+
+            verify(bookSearchIndex, never()).index(book);
+            verify(suggestionIndex, never()).putBook(book);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookSearchIndex, times(1)).index(book);
+        verify(suggestionIndex, times(1)).putBook(book);
     }
 
     @Test
@@ -112,6 +280,7 @@ class BookServiceTest {
         verify(bookRepository, times(1)).findById(id);
         verify(authorService, times(1)).getAuthorById(updatedBookDetails.getAuthorID());
         verify(bookRepository, times(1)).save(any(Book.class));
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, id);
     }
 
     @Test
@@ -122,6 +291,113 @@ class BookServiceTest {
         bookService.deleteBook(id);
 
         verify(bookRepository, times(1)).deleteById(id);
+        verify(bookSearchIndex, times(1)).remove(id);
+        verify(suggestionIndex, times(1)).removeBook(id);
+        verify(inventoryService, times(1)).removeBooks(List.of(id));
+    }
+
+    @Test
+    @DisplayName("Create Books In Batch")
+    void createBooks_Books_ResultPerItem() {
+        Author author = new Author("sawy", LocalDate.of(1980, 4, 1), "Egyptian");
+        author.setId(1L);
+        Book valid = new Book("intro to java", "isbn-1", null, "genre", true, 1L);
+        Book invalid = new Book("", "isbn-2", null, "genre", true, 1L);
+        Book orphan = new Book("intro to python", "isbn-3", null, "genre", true, 2L);
+
+        when(authorService.getAuthorsByIds(Set.of(1L, 2L))).thenReturn(Map.of(1L, author));
+        when(bookRepository.save(valid)).thenAnswer(invocation -> {
+            valid.setId(7L);
+            return valid;
+        });
+
+        BatchResult result = bookService.createBooks(List.of(valid, invalid, orphan));
+
+        assertEquals(1, result.succeeded());
+        assertEquals(BatchItemResult.succeeded(0, 7L, BatchItemResult.CREATED), result.items().get(0));
+        assertEquals(BatchItemResult.FAILED, result.items().get(1).status());
+        assertEquals(Map.of("authorID", "Author not found"), result.items().get(2).errors());
+        assertEquals(author, valid.getAuthor());
+        verify(bookRepository, never()).save(orphan);
+        verify(bookSearchIndex, times(1)).indexAll(List.of(valid));
+        verify(suggestionIndex, times(1)).putBook(valid);
+        verify(inventoryService, times(1)).addInitialCopy(valid);
+    }
+
+    @Test
+    @DisplayName("Delete Books In Batch")
+    void deleteBooks_Ids_DeletesExistingOnly() {
+        Book book = new Book("intro to java", "isbn-1", null, "genre", true, 1L);
+        book.setId(1L);
+
+        when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(book));
+
+        BatchResult result = bookService.deleteBooks(List.of(1L, 2L));
+
+        assertEquals(List.of(BatchItemResult.succeeded(0, 1L, BatchItemResult.DELETED), BatchItemResult.notFound(1, 2L)), result.items());
+        verify(bookRepository, times(1)).delete(book);
+        verify(bookSearchIndex, times(1)).removeAll(List.of(1L));
+        verify(cacheDependencyIndex, times(1)).invalidate(Author.class, 1L);
+    }
+
+    @Test
+    @DisplayName("Suggest Books")
+    void suggestBooks_PrefixAndLimit_Suggestions() {
+        List<Suggestion> suggestions = List.of(new Suggestion(Suggestion.TITLE, "intro to java", 1L));
+        when(suggestionIndex.suggest("jav", 5)).thenReturn(suggestions);
+
+        assertEquals(suggestions, bookService.suggestBooks("jav", 5));
+        assertThrows(IllegalArgumentException.class, () -> bookService.suggestBooks("jav", 0));
+        assertThrows(IllegalArgumentException.class, () -> bookService.suggestBooks("jav", 51));
+    }
+
+    @Test
+    @DisplayName("Full-Text Search Books")
+    void searchBooks_QueryPageSize_BooksInRankOrder() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Book first = new Book("intro to java", "isbn-1", null, "genre", true, 1L);
+        first.setId(1L);
+        Book second = new Book("java in depth", "isbn-2", null, "genre", true, 1L);
+        second.setId(2L);
+
+        when(bookSearchIndex.search("java", pageable)).thenReturn(new BookSearchIndex.Hits(List.of(2L, 1L), 2));
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+        Page<Book> result = bookService.searchBooks("java", 0, 10);
+
+        assertEquals(List.of(second, first), result.getContent());
+        assertEquals(2, result.getTotalElements());
+        verify(bookRepository, times(1)).fetch(List.of(second, first), FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Filter Books")
+    void filterBooks_FilterPageSizeSortBySortOrder_PageOfBooks() {
+        BookFilter filter = new BookFilter(null, "java", null, "Educational", null, null, true);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "title"));
+        Page<Book> books = new PageImpl<>(List.of(new Book(), new Book()));
+
+        when(bookRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(books);
+
+        Slice<Book> result = bookService.filterBooks(filter, 0, 10, "title", "asc", TotalMode.EXACT);
+
+        assertEquals(books, result);
+        verify(bookRepository, times(1)).fetch(books, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Filter Books Without Total")
+    void filterBooks_NoTotal_SliceWithoutCount() {
+        BookFilter filter = new BookFilter(null, null, "sawy", null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Book> books = new SliceImpl<>(List.of(new Book()), pageable, false);
+
+        when(bookRepository.findSlice(any(Specification.class), eq(pageable), eq(FetchPlan.NONE))).thenReturn(books);
+
+        Slice<Book> result = bookService.filterBooks(filter, 0, 10, "id", "asc", TotalMode.NONE);
+
+        assertEquals(books, result);
+        verify(bookRepository, never()).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -137,7 +413,7 @@ class BookServiceTest {
 
         when(bookRepository.findByTitleContainingIgnoreCase(title, pageable)).thenReturn(books);
 
-        Page<Book> result = bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder);
+        Slice<Book> result = bookService.searchBooksByTitle(title, page, size, sortBy, sortOrder, TotalMode.EXACT);
 
         assertEquals(books, result);
         verify(bookRepository, times(1)).findByTitleContainingIgnoreCase(title, pageable);
@@ -156,7 +432,7 @@ class BookServiceTest {
 
         when(bookRepository.findByAuthor_NameContainingIgnoreCase(authorName, pageable)).thenReturn(books);
 
-        Page<Book> result = bookService.searchBooksByAuthor(authorName, page, size, sortBy, sortOrder);
+        Slice<Book> result = bookService.searchBooksByAuthor(authorName, page, size, sortBy, sortOrder, TotalMode.EXACT);
 
         assertEquals(books, result);
         verify(bookRepository, times(1)).findByAuthor_NameContainingIgnoreCase(authorName, pageable);
@@ -175,7 +451,7 @@ class BookServiceTest {
 
         when(bookRepository.findByIsbnContainingIgnoreCase(isbn, pageable)).thenReturn(books);
 
-        Page<Book> result = bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder);
+        Slice<Book> result = bookService.searchBooksByIsbn(isbn, page, size, sortBy, sortOrder, TotalMode.EXACT);
 
         assertEquals(books, result);
         verify(bookRepository, times(1)).findByIsbnContainingIgnoreCase(isbn, pageable);
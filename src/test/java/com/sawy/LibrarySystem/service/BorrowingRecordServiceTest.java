@@ -6,10 +6,19 @@ import static org.mockito.Mockito.*;
 
 import java.util.Optional;
 
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.BorrowingSummary;
+import com.sawy.LibrarySystem.dto.OverdueLoan;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
 import com.sawy.LibrarySystem.model.Book;
 import com.sawy.LibrarySystem.model.BorrowingRecord;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.overdue.FinePolicy;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import com.sawy.LibrarySystem.transfer.RecordExporter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,8 +29,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,11 +50,23 @@ class BorrowingRecordServiceTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    @Mock
+    private TableRowCounter tableRowCounter;
+
+    @Mock
+    private CheckoutService checkoutService;
+
     private BorrowingRecordService borrowingRecordService;
 
+    private final RecordExporter recordExporter = new RecordExporter(Jackson2ObjectMapperBuilder.json().build());
+
     @BeforeEach
     void setUp() {
-        borrowingRecordService = new BorrowingRecordService(borrowingRecordRepository, customerService, bookService);
+        borrowingRecordService = new BorrowingRecordService(borrowingRecordRepository, customerService, bookService, cacheDependencyIndex, recordExporter, tableRowCounter,
+                new FinePolicy(new BigDecimal("0.25"), new BigDecimal("10.00")), checkoutService);
     }
 
     @Test
@@ -53,12 +79,44 @@ class BorrowingRecordServiceTest {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy));
         Page<BorrowingRecord> borrowingRecords = new PageImpl<>(List.of(new BorrowingRecord(), new BorrowingRecord()));
 
-        when(borrowingRecordRepository.findAll(pageable)).thenReturn(borrowingRecords);
+        when(borrowingRecordRepository.findAll(pageable, FetchPlan.ALL)).thenReturn(borrowingRecords);
 
-        Page<BorrowingRecord> result = borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder);
+        Slice<BorrowingRecord> result = borrowingRecordService.getAllBorrowingRecords(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
 
         assertEquals(borrowingRecords, result);
-        verify(borrowingRecordRepository, times(1)).findAll(pageable);
+        verify(borrowingRecordRepository, times(1)).findAll(pageable, FetchPlan.ALL);
+    }
+
+    @Test
+    @DisplayName("Get Borrowing Summaries")
+    void getBorrowingSummaries_pageSizeSortBySortOrder_PageOfSummaries() {
+        int page = 0;
+        int size = 10;
+        String sortBy = "borrowDate";
+        String sortOrder = "asc";
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy));
+        Page<BorrowingSummary> summaries = new PageImpl<>(List.of(new BorrowingSummary(1L, 2L, "customer", 3L, "book", null, null)));
+
+        when(borrowingRecordRepository.findAllSummaries(pageable)).thenReturn(summaries);
+
+        Page<BorrowingSummary> result = borrowingRecordService.getBorrowingSummaries(page, size, sortBy, sortOrder);
+
+        assertEquals(summaries, result);
+        verify(borrowingRecordRepository, times(1)).findAllSummaries(pageable);
+    }
+
+    @Test
+    @DisplayName("Get Overdue Loans")
+    void getOverdueLoans_PageAndSize_LoansWithFines() {
+        LocalDate today = LocalDate.now();
+        Slice<BorrowingSummary> overdue = new SliceImpl<>(List.of(
+                new BorrowingSummary(1L, 2L, "customer", 3L, "book", today.minusDays(20), today.minusDays(6))));
+        when(borrowingRecordRepository.findOverdueSummaries(today, PageRequest.of(0, 10))).thenReturn(overdue);
+
+        Slice<OverdueLoan> result = borrowingRecordService.getOverdueLoans(0, 10);
+
+        assertEquals(List.of(new OverdueLoan(1L, 2L, "customer", 3L, "book", today.minusDays(6), 6, new BigDecimal("1.50"))),
+                result.getContent());
     }
 
     @Test
@@ -66,37 +124,30 @@ class BorrowingRecordServiceTest {
     void getBorrowingRecordById_ID_BorrowingRecord() {
         Long id = 1L;
         BorrowingRecord borrowingRecord = new BorrowingRecord();
-        when(borrowingRecordRepository.findById(id)).thenReturn(Optional.of(borrowingRecord));
+        when(borrowingRecordRepository.findById(id, FetchPlan.ALL)).thenReturn(Optional.of(borrowingRecord));
 
         Optional<BorrowingRecord> result = borrowingRecordService.getBorrowingRecordById(id);
 
         assertTrue(result.isPresent());
         assertEquals(borrowingRecord, result.get());
-        verify(borrowingRecordRepository, times(1)).findById(id);
+        verify(borrowingRecordRepository, times(1)).findById(id, FetchPlan.ALL);
     }
 
     @Test
     @DisplayName("Create Borrowing Record")
-    void createBorrowingRecord_BorrowingRecord_BorrowingRecord() {
+    void createBorrowingRecord_BorrowingRecord_LentThroughCheckout() {
         BorrowingRecord borrowingRecord = new BorrowingRecord();
         borrowingRecord.setCustomerID(1L);
         borrowingRecord.setBookID(2L);
+        borrowingRecord.setBranch("downtown");
+        BorrowingRecord lent = new BorrowingRecord();
 
-        Customer customer = new Customer();
-        Book book = new Book();
-
-        when(customerService.getCustomerById(borrowingRecord.getCustomerID())).thenReturn(Optional.of(customer));
-        when(bookService.getBookById(borrowingRecord.getBookID())).thenReturn(Optional.of(book));
-        when(borrowingRecordRepository.save(borrowingRecord)).thenReturn(borrowingRecord);
+        when(checkoutService.checkout(1L, 2L, "downtown")).thenReturn(lent);
 
         BorrowingRecord result = borrowingRecordService.createBorrowingRecord(borrowingRecord);
 
-        assertEquals(borrowingRecord, result);
-        assertEquals(customer, borrowingRecord.getCustomer());
-        assertEquals(book, borrowingRecord.getBook());
-        verify(customerService, times(1)).getCustomerById(borrowingRecord.getCustomerID());
-        verify(bookService, times(1)).getBookById(borrowingRecord.getBookID());
-        verify(borrowingRecordRepository, times(1)).save(borrowingRecord);
+        assertEquals(lent, result);
+        verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
     }
 
     @Test
@@ -128,14 +179,35 @@ class BorrowingRecordServiceTest {
         verify(borrowingRecordRepository, times(1)).save(any(BorrowingRecord.class));
     }
 
+    @Test
+    @DisplayName("Update Open Loan To Another Book")
+    void updateBorrowingRecord_OpenLoanToAnotherBook_ThrowsConflict() {
+        Long id = 1L;
+        BorrowingRecord openLoan = new BorrowingRecord(null, null, LocalDate.now(), LocalDate.now().plusDays(14), 3L, 2L);
+        openLoan.setCopyTaken(true);
+        BorrowingRecord details = new BorrowingRecord(null, null, LocalDate.now(), LocalDate.now().plusDays(14), 3L, 4L);
+
+        when(borrowingRecordRepository.findById(id)).thenReturn(Optional.of(openLoan));
+
+        assertThrows(ConflictException.class, () -> borrowingRecordService.updateBorrowingRecord(id, details));
+        assertEquals(2L, openLoan.getBookID());
+        verify(borrowingRecordRepository, never()).save(any(BorrowingRecord.class));
+    }
+
     @Test
     @DisplayName("Delete Borrowing Record")
     void deleteBorrowingRecord_ID_Void() {
         Long id = 1L;
+        BorrowingRecord borrowingRecord = new BorrowingRecord(null, null, LocalDate.now(), LocalDate.now().plusDays(14), 3L, 2L);
+
+        when(checkoutService.delete(id)).thenReturn(Optional.of(borrowingRecord));
 
         borrowingRecordService.deleteBorrowingRecord(id);
 
-        verify(borrowingRecordRepository, times(1)).deleteById(id);
+        verify(checkoutService, times(1)).delete(id);
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, 2L);
+        verify(cacheDependencyIndex, times(1)).invalidate(Customer.class, 3L);
+        verify(cacheDependencyIndex, times(1)).invalidate(BorrowingRecord.class, id);
     }
 
     @Test
@@ -151,7 +223,7 @@ class BorrowingRecordServiceTest {
 
         when(borrowingRecordRepository.findByCustomer_Id(userId, pageable)).thenReturn(borrowingRecords);
 
-        Page<BorrowingRecord> result = borrowingRecordService.getBorrowingRecordsByCustomerId(userId, page, size, sortBy, sortOrder);
+        Slice<BorrowingRecord> result = borrowingRecordService.getBorrowingRecordsByCustomerId(userId, page, size, sortBy, sortOrder, TotalMode.EXACT);
 
         assertEquals(borrowingRecords, result);
         verify(borrowingRecordRepository, times(1)).findByCustomer_Id(userId, pageable);
@@ -170,7 +242,7 @@ class BorrowingRecordServiceTest {
 
         when(borrowingRecordRepository.findByBook_Id(bookId, pageable)).thenReturn(borrowingRecords);
 
-        Page<BorrowingRecord> result = borrowingRecordService.getBorrowingRecordsByBookId(bookId, page, size, sortBy, sortOrder);
+        Slice<BorrowingRecord> result = borrowingRecordService.getBorrowingRecordsByBookId(bookId, page, size, sortBy, sortOrder, TotalMode.EXACT);
 
         assertEquals(borrowingRecords, result);
         verify(borrowingRecordRepository, times(1)).findByBook_Id(bookId, pageable);
@@ -0,0 +1,66 @@
+package com.sawy.LibrarySystem.service;
+
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.model.Author;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.repository.AuthorRepository;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Updates and returns a loan through real transactions, so the stock rows and counters it leaves behind can be read.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:borrowing_update;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class BorrowingRecordUpdateTest {
+
+    @Autowired
+    private BorrowingRecordService borrowingRecordService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    @DisplayName("Update Open Loan Then Return It")
+    void updateBorrowingRecord_ThenReturn_CopyBackWithLentBook() {
+        Author author = authorRepository.save(new Author("sawy", LocalDate.of(1980, 4, 1), "Egyptian"));
+        Book lentBook = bookService.createBook(new Book("intro to java", "isbn-lent", null, "genre", true, author.getId()));
+        Book otherBook = bookService.createBook(new Book("intro to python", "isbn-other", null, "genre", true, author.getId()));
+        Customer customer = customerRepository.save(new Customer("John Doe", "john@example.com", "Address 1", "01234567890", "password"));
+        BorrowingRecord loan = checkoutService.checkout(customer.getId(), lentBook.getId(), null);
+
+        BorrowingRecord moved = new BorrowingRecord(null, null, loan.getBorrowDate(), loan.getReturnDate(), customer.getId(), otherBook.getId());
+        assertThrows(ConflictException.class, () -> borrowingRecordService.updateBorrowingRecord(loan.getId(), moved));
+        BorrowingRecord extended = new BorrowingRecord(null, null, loan.getBorrowDate(), loan.getReturnDate().plusDays(7), customer.getId(), lentBook.getId());
+        assertTrue(borrowingRecordService.updateBorrowingRecord(loan.getId(), extended).isPresent());
+        checkoutService.returnBook(loan.getId());
+
+        assertEquals(1, availableCopies(lentBook.getId()));
+        assertEquals(1, availableCopies(otherBook.getId()));
+        assertEquals(1, inventoryService.getAvailability(lentBook.getId()).orElseThrow().availableCopies());
+        assertEquals(1, inventoryService.getAvailability(otherBook.getId()).orElseThrow().availableCopies());
+    }
+
+    private int availableCopies(Long bookId) {
+        return inventoryService.getStock(bookId).stream().mapToInt(BookStock::getAvailableCopies).sum();
+    }
+}
@@ -0,0 +1,330 @@
+package com.sawy.LibrarySystem.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.BorrowingRecord;
+import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.overdue.FinePolicy;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import com.sawy.LibrarySystem.repository.BorrowingRecordRepository;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private BorrowingRecordRepository borrowingRecordRepository;
+
+    @Mock
+    private BookStockRepository bookStockRepository;
+
+    @Mock
+    private AvailabilityCounters availabilityCounters;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    private CheckoutService checkoutService;
+
+    private final Customer customer = new Customer("John Doe", "john@example.com", "Address 1", "12345678", "password");
+
+    @BeforeEach
+    void setUp() {
+        checkoutService = new CheckoutService(bookRepository, bookStockRepository, customerRepository, borrowingRecordRepository,
+                availabilityCounters, holdService, new FinePolicy(new BigDecimal("0.25"), new BigDecimal("10.00")),
+                cacheDependencyIndex, mock(PlatformTransactionManager.class), Period.ofDays(14));
+        customer.setId(1L);
+    }
+
+    @Test
+    @DisplayName("Checkout Available Book")
+    void checkout_AvailableBook_RecordDueAfterLoanPeriod() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookRepository.getReferenceById(2L)).thenReturn(new Book());
+        when(bookStockRepository.takeCopy(2L, "main")).thenReturn(1);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BorrowingRecord result = checkoutService.checkout(1L, 2L, null);
+
+        assertEquals(2L, result.getBookID());
+        assertEquals("main", result.getBranch());
+        assertEquals(LocalDate.now(), result.getBorrowDate());
+        assertEquals(LocalDate.now().plusDays(14), result.getReturnDate());
+        assertNull(result.getReturnedOn());
+        assertTrue(result.isCopyTaken());
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, 2L);
+    }
+
+    @Test
+    @DisplayName("Checkout From A Named Branch")
+    void checkout_Branch_CopyTakenThere() {
+        when(availabilityCounters.reserve(2L, "downtown")).thenReturn("downtown");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookStockRepository.takeCopy(2L, "downtown")).thenReturn(1);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals("downtown", checkoutService.checkout(1L, 2L, "downtown").getBranch());
+        verify(bookStockRepository, times(1)).takeCopy(2L, "downtown");
+    }
+
+    @Test
+    @DisplayName("Checkout Book With No Copies Left")
+    void checkout_NoCopyInMemory_ConflictWithoutDatabase() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn(null);
+        when(availabilityCounters.tracks(2L)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> checkoutService.checkout(1L, 2L, null));
+        verifyNoInteractions(customerRepository, bookStockRepository, borrowingRecordRepository);
+    }
+
+    @Test
+    @DisplayName("Checkout Non-Existing Book")
+    void checkout_NonExistingBook_IllegalArgument() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn(null);
+        when(availabilityCounters.tracks(2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(1L, 2L, null));
+    }
+
+    @Test
+    @DisplayName("Checkout Refused By The Database Reloads The Counters")
+    void checkout_StaleCounters_ConflictAndRefresh() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookStockRepository.takeCopy(2L, "main")).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> checkoutService.checkout(1L, 2L, null));
+        verify(availabilityCounters, times(1)).refresh(2L);
+        verify(availabilityCounters, never()).release(any(), any());
+        verify(cacheDependencyIndex, never()).invalidate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Checkout For Non-Existing Customer Puts The Copy Back")
+    void checkout_NonExistingCustomer_ReservationReleased() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(1L, 2L, null));
+        verify(availabilityCounters, times(1)).release(2L, "main");
+    }
+
+    @Test
+    @DisplayName("Checkout Retries After Losing A Lock")
+    void checkout_LockFailure_Retried() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookStockRepository.takeCopy(2L, "main"))
+                .thenThrow(new PessimisticLockingFailureException("deadlock"))
+                .thenReturn(1);
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(2L, checkoutService.checkout(1L, 2L, null).getBookID());
+        verify(bookStockRepository, times(2)).takeCopy(2L, "main");
+    }
+
+    @Test
+    @DisplayName("Checkout Gives Up After Repeated Lock Failures")
+    void checkout_RepeatedLockFailures_Thrown() {
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookStockRepository.takeCopy(2L, "main")).thenThrow(new PessimisticLockingFailureException("deadlock"));
+
+        assertThrows(PessimisticLockingFailureException.class, () -> checkoutService.checkout(1L, 2L, null));
+        verify(bookStockRepository, times(3)).takeCopy(2L, "main");
+        verify(availabilityCounters, times(1)).release(2L, "main");
+    }
+
+    @Test
+    @DisplayName("Return Open Loan")
+    void returnBook_OpenLoan_ClosedAndBookAvailable() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("downtown");
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+        when(bookStockRepository.returnCopy(2L, "downtown")).thenReturn(1);
+
+        Optional<BorrowingRecord> result = checkoutService.returnBook(3L);
+
+        assertEquals(Optional.of(borrowingRecord), result);
+        assertEquals(new BigDecimal("0.00"), borrowingRecord.getFine());
+        verify(availabilityCounters, times(1)).release(2L, "downtown");
+        verify(borrowingRecordRepository, times(1)).fetch(List.of(borrowingRecord), FetchPlan.ALL);
+        verify(cacheDependencyIndex, times(1)).invalidate(BorrowingRecord.class, 3L);
+    }
+
+    @Test
+    @DisplayName("Return Counts The Copy Only Once Committed")
+    void returnBook_InTransaction_ReleasedAfterCommit() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("downtown");
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+        when(bookStockRepository.returnCopy(2L, "downtown")).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            checkoutService.returnBook(3L);
+
+            verify(availabilityCounters, never()).release(any(), any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(availabilityCounters, times(1)).release(2L, "downtown");
+    }
+
+    @Test
+    @DisplayName("Return Late Loan")
+    void returnBook_PastReturnDate_Fined() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now().minusDays(18), LocalDate.now().minusDays(4), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("main");
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+
+        checkoutService.returnBook(3L);
+
+        assertEquals(new BigDecimal("1.00"), borrowingRecord.getFine());
+    }
+
+    @Test
+    @DisplayName("Return Book Someone Holds")
+    void returnBook_WaitingHold_CopySetAside() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("downtown");
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+        when(holdService.assignCopy(2L, "downtown")).thenReturn(true);
+
+        assertEquals(Optional.of(borrowingRecord), checkoutService.returnBook(3L));
+        verify(bookStockRepository, never()).returnCopy(any(), any());
+        verify(availabilityCounters, never()).release(any(), any());
+    }
+
+    @Test
+    @DisplayName("Return Loan That Took No Copy")
+    void returnBook_NoCopyTaken_StockUntouched() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("main");
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+
+        assertEquals(Optional.of(borrowingRecord), checkoutService.returnBook(3L));
+        verifyNoInteractions(holdService, bookStockRepository, availabilityCounters);
+    }
+
+    @Test
+    @DisplayName("Delete Open Loan")
+    void delete_OpenLoan_CopyGivenBack() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setBranch("downtown");
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(1);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+        when(bookStockRepository.returnCopy(2L, "downtown")).thenReturn(1);
+
+        assertEquals(Optional.of(borrowingRecord), checkoutService.delete(3L));
+        verify(availabilityCounters, times(1)).release(2L, "downtown");
+        verify(borrowingRecordRepository, times(1)).delete(borrowingRecord);
+    }
+
+    @Test
+    @DisplayName("Delete Returned Loan")
+    void delete_ClosedLoan_StockUntouched() {
+        BorrowingRecord borrowingRecord = new BorrowingRecord(customer, new Book(), LocalDate.now(), LocalDate.now().plusDays(14), 1L, 2L);
+        borrowingRecord.setId(3L);
+        borrowingRecord.setCopyTaken(true);
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(borrowingRecordRepository.findById(3L, FetchPlan.NONE)).thenReturn(Optional.of(borrowingRecord));
+
+        assertEquals(Optional.of(borrowingRecord), checkoutService.delete(3L));
+        verifyNoInteractions(holdService, bookStockRepository, availabilityCounters);
+        verify(borrowingRecordRepository, times(1)).delete(borrowingRecord);
+    }
+
+    @Test
+    @DisplayName("Collect Ready Hold")
+    void collectHold_ReadyHold_CopyLentWithoutTakingStock() {
+        BookHold hold = new BookHold(1L, 2L, 0, LocalDateTime.now());
+        hold.setBranch("downtown");
+        when(holdService.collect(5L)).thenReturn(Optional.of(hold));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(borrowingRecordRepository.save(any(BorrowingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BorrowingRecord result = checkoutService.collectHold(5L).orElseThrow();
+
+        assertEquals(2L, result.getBookID());
+        assertEquals("downtown", result.getBranch());
+        assertEquals(LocalDate.now().plusDays(14), result.getReturnDate());
+        assertTrue(result.isCopyTaken());
+        verify(bookStockRepository, never()).takeCopy(any(), any());
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, 2L);
+    }
+
+    @Test
+    @DisplayName("Return Loan Twice")
+    void returnBook_ClosedLoan_Conflict() {
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(borrowingRecordRepository.existsById(3L)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> checkoutService.returnBook(3L));
+        verify(bookStockRepository, never()).returnCopy(any(), any());
+    }
+
+    @Test
+    @DisplayName("Return Non-Existing Loan")
+    void returnBook_NonExistingLoan_Empty() {
+        when(borrowingRecordRepository.close(eq(3L), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(borrowingRecordRepository.existsById(3L)).thenReturn(false);
+
+        assertEquals(Optional.empty(), checkoutService.returnBook(3L));
+        verify(bookStockRepository, never()).returnCopy(any(), any());
+    }
+}
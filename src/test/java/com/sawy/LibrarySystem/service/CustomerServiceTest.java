@@ -2,14 +2,24 @@ package com.sawy.LibrarySystem.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
 
+import com.sawy.LibrarySystem.batch.BatchWriter;
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.credential.PasswordHasher;
+import com.sawy.LibrarySystem.dto.BatchItemResult;
+import com.sawy.LibrarySystem.dto.BatchResult;
 import com.sawy.LibrarySystem.model.Customer;
+import com.sawy.LibrarySystem.pagination.TotalMode;
 import com.sawy.LibrarySystem.repository.CustomerRepository;
+import com.sawy.LibrarySystem.repository.FetchPlan;
+import com.sawy.LibrarySystem.repository.TableRowCounter;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,10 +30,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
+import java.util.Map;
 
 @ExtendWith(MockitoExtension.class)
 class CustomerServiceTest {
@@ -32,13 +44,23 @@ class CustomerServiceTest {
     private CustomerRepository customerRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    @Mock
+    private TableRowCounter tableRowCounter;
 
     private CustomerService customerService;
 
+    // Runs the real chunking and validation; the transactions are no-ops.
+    private final BatchWriter batchWriter = new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(),
+            mock(PlatformTransactionManager.class), 2, 100);
+
     @BeforeEach
     void setUp() {
-        customerService = new CustomerService(customerRepository, passwordEncoder);
+        customerService = new CustomerService(customerRepository, passwordHasher, cacheDependencyIndex, batchWriter, tableRowCounter);
     }
 
     @Test
@@ -51,12 +73,12 @@ class CustomerServiceTest {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, sortBy));
         Page<Customer> customers = new PageImpl<>(List.of(new Customer(), new Customer()));
 
-        when(customerRepository.findAll(pageable)).thenReturn(customers);
+        when(customerRepository.findAll(pageable, FetchPlan.ALL)).thenReturn(customers);
 
-        Page<Customer> result = customerService.getAllCustomers(page, size, sortBy, sortOrder);
+        Slice<Customer> result = customerService.getAllCustomers(page, size, sortBy, sortOrder, FetchPlan.ALL, TotalMode.EXACT);
 
         assertEquals(customers, result);
-        verify(customerRepository, times(1)).findAll(pageable);
+        verify(customerRepository, times(1)).findAll(pageable, FetchPlan.ALL);
     }
 
     @Test
@@ -64,13 +86,13 @@ class CustomerServiceTest {
     void getCustomerById_ID_Customer() {
         Long id = 1L;
         Customer customer = new Customer();
-        when(customerRepository.findById(id)).thenReturn(Optional.of(customer));
+        when(customerRepository.findById(id, FetchPlan.ALL)).thenReturn(Optional.of(customer));
 
         Optional<Customer> result = customerService.getCustomerById(id);
 
         assertTrue(result.isPresent());
         assertEquals(customer, result.get());
-        verify(customerRepository, times(1)).findById(id);
+        verify(customerRepository, times(1)).findById(id, FetchPlan.ALL);
     }
 
     @Test
@@ -79,17 +101,37 @@ class CustomerServiceTest {
         Customer customer = new Customer();
         customer.setPassword("rawPassword");
 
-        when(passwordEncoder.encode(customer.getPassword())).thenReturn("encodedPassword");
+        when(passwordHasher.encode(customer.getPassword())).thenReturn("encodedPassword");
         when(customerRepository.save(customer)).thenReturn(customer);
 
         Customer result = customerService.createCustomer(customer);
 
         assertEquals(customer, result);
         assertEquals("encodedPassword", customer.getPassword());
-        verify(passwordEncoder, times(1)).encode("rawPassword");
+        verify(passwordHasher, times(1)).encode("rawPassword");
         verify(customerRepository, times(1)).save(customer);
     }
 
+    @Test
+    @DisplayName("Create Customers In Batch")
+    void createCustomers_Customers_PasswordsEncodedOnce() {
+        Customer valid = new Customer("John Doe", "john@example.com", "Address 1", "01012345678", "rawPassword");
+        Customer invalid = new Customer("Jane Smith", "not-an-email", "Address 2", "01012345679", "rawPassword");
+
+        when(passwordHasher.encodeAll(List.of("rawPassword"))).thenReturn(List.of("encodedPassword"));
+        when(customerRepository.save(valid)).thenAnswer(invocation -> {
+            valid.setId(3L);
+            return valid;
+        });
+
+        BatchResult result = customerService.createCustomers(List.of(valid, invalid));
+
+        assertEquals(List.of(BatchItemResult.succeeded(0, 3L, BatchItemResult.CREATED),
+                BatchItemResult.failed(1, null, Map.of("email", "Email should be valid"))), result.items());
+        assertEquals("encodedPassword", valid.getPassword());
+        verify(passwordHasher, times(1)).encodeAll(List.of("rawPassword"));
+    }
+
     @Test
     @DisplayName("Update Customer")
     void updateCustomer_IDAndCustomerDetails_OptionalCustomer() {
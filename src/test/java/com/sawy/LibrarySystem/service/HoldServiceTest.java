@@ -0,0 +1,214 @@
+package com.sawy.LibrarySystem.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.dto.QueuedHold;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.inventory.HoldQueues;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookHold;
+import com.sawy.LibrarySystem.model.HoldStatus;
+import com.sawy.LibrarySystem.repository.BookHoldRepository;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import com.sawy.LibrarySystem.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceTest {
+
+    @Mock
+    private BookHoldRepository bookHoldRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private BookStockRepository bookStockRepository;
+
+    @Mock
+    private AvailabilityCounters availabilityCounters;
+
+    @Mock
+    private HoldQueues holdQueues;
+
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    private HoldService holdService;
+
+    private final QueuedHold queued = new QueuedHold(5L, 2L, 0, LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        holdService = new HoldService(bookHoldRepository, bookRepository, customerRepository, bookStockRepository,
+                availabilityCounters, holdQueues, cacheDependencyIndex, mock(PlatformTransactionManager.class), Period.ofDays(3));
+    }
+
+    @Test
+    @DisplayName("Place Hold On A Book With No Copy Left")
+    void placeHold_NoCopyOnShelf_Waiting() {
+        stubNewHold();
+        when(holdQueues.hasWaiting(2L)).thenReturn(true);
+        when(availabilityCounters.reserve(2L, null)).thenReturn(null);
+
+        BookHold hold = holdService.placeHold(1L, 2L, 0);
+
+        assertEquals(HoldStatus.WAITING, hold.getStatus());
+        verify(holdQueues, times(1)).add(new QueuedHold(5L, 2L, 0, hold.getPlacedAt()));
+        verify(bookStockRepository, never()).takeCopy(any(), any());
+    }
+
+    @Test
+    @DisplayName("Place Hold On A Book With A Copy On The Shelf")
+    void placeHold_CopyOnShelf_CopySetAside() {
+        stubNewHold();
+        when(holdQueues.hasWaiting(2L)).thenReturn(true, false);
+        when(availabilityCounters.reserve(2L, null)).thenReturn("main");
+        when(bookStockRepository.takeCopy(2L, "main")).thenReturn(1);
+        when(holdQueues.poll(2L)).thenReturn(queued);
+        BookHold waiting = new BookHold(1L, 2L, 0, queued.placedAt());
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(waiting));
+
+        holdService.placeHold(1L, 2L, 0);
+
+        assertEquals(HoldStatus.READY, waiting.getStatus());
+        assertEquals("main", waiting.getBranch());
+        assertTrue(waiting.getExpiresAt().isAfter(LocalDateTime.now().plusDays(2)));
+        verify(availabilityCounters, never()).release(any(), any());
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, 2L);
+    }
+
+    @Test
+    @DisplayName("Place Second Hold On The Same Book")
+    void placeHold_AlreadyHeld_Conflict() {
+        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(bookHoldRepository.existsByCustomerIDAndBookIDAndStatusIn(eq(1L), eq(2L), any())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> holdService.placeHold(1L, 2L, 0));
+        verify(bookHoldRepository, never()).save(any());
+        verifyNoInteractions(holdQueues);
+    }
+
+    @Test
+    @DisplayName("Place Hold On Non-Existing Book")
+    void placeHold_NonExistingBook_IllegalArgument() {
+        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold(1L, 2L, 0));
+    }
+
+    @Test
+    @DisplayName("Returned Copy Skips Holds That Are No Longer Waiting")
+    void assignCopy_StaleHold_NextHoldGetsCopy() {
+        QueuedHold next = new QueuedHold(6L, 2L, 0, LocalDateTime.now());
+        when(holdQueues.poll(2L)).thenReturn(queued, next);
+        BookHold cancelled = new BookHold(1L, 2L, 0, queued.placedAt());
+        cancelled.setStatus(HoldStatus.CANCELLED);
+        BookHold waiting = new BookHold(3L, 2L, 0, next.placedAt());
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(cancelled));
+        when(bookHoldRepository.lockById(6L)).thenReturn(Optional.of(waiting));
+
+        assertTrue(holdService.assignCopy(2L, "main"));
+        assertEquals(HoldStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(HoldStatus.READY, waiting.getStatus());
+    }
+
+    @Test
+    @DisplayName("Returned Copy With Nobody Waiting")
+    void assignCopy_NobodyWaiting_False() {
+        when(holdQueues.poll(2L)).thenReturn(null);
+
+        assertFalse(holdService.assignCopy(2L, "main"));
+        verifyNoInteractions(bookHoldRepository);
+    }
+
+    @Test
+    @DisplayName("Cancel Ready Hold Puts The Copy Back On The Shelf")
+    void cancelHold_ReadyHold_CopyOnShelf() {
+        BookHold hold = readyHold(LocalDateTime.now().plusDays(1));
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(hold));
+        when(holdQueues.poll(2L)).thenReturn(null);
+        when(bookStockRepository.returnCopy(2L, "main")).thenReturn(1);
+
+        assertEquals(Optional.of(hold), holdService.cancelHold(5L));
+        assertEquals(HoldStatus.CANCELLED, hold.getStatus());
+        verify(availabilityCounters, times(1)).release(2L, "main");
+        verify(holdQueues, times(1)).remove(2L, 5L);
+    }
+
+    @Test
+    @DisplayName("Cancel Collected Hold")
+    void cancelHold_CollectedHold_Conflict() {
+        BookHold hold = readyHold(LocalDateTime.now().plusDays(1));
+        hold.setStatus(HoldStatus.COLLECTED);
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(hold));
+
+        assertThrows(ConflictException.class, () -> holdService.cancelHold(5L));
+    }
+
+    @Test
+    @DisplayName("Uncollected Hold Expires And The Next Hold Gets The Copy")
+    void expireHolds_Uncollected_CopyToNextHold() {
+        BookHold hold = readyHold(LocalDateTime.now().minusMinutes(1));
+        when(bookHoldRepository.findByStatusAndExpiresAtBefore(eq(HoldStatus.READY), any(LocalDateTime.class))).thenReturn(List.of(hold));
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(hold));
+        BookHold next = new BookHold(3L, 2L, 0, LocalDateTime.now());
+        when(holdQueues.poll(2L)).thenReturn(new QueuedHold(6L, 2L, 0, next.getPlacedAt()));
+        when(bookHoldRepository.lockById(6L)).thenReturn(Optional.of(next));
+
+        assertEquals(1, holdService.expireHolds());
+        assertEquals(HoldStatus.EXPIRED, hold.getStatus());
+        assertEquals(HoldStatus.READY, next.getStatus());
+        verify(bookStockRepository, never()).returnCopy(any(), any());
+    }
+
+    @Test
+    @DisplayName("Collect Expired Hold")
+    void collect_ExpiredHold_Conflict() {
+        when(bookHoldRepository.lockById(5L)).thenReturn(Optional.of(readyHold(LocalDateTime.now().minusMinutes(1))));
+
+        assertThrows(ConflictException.class, () -> holdService.collect(5L));
+    }
+
+    private void stubNewHold() {
+        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(bookHoldRepository.save(any(BookHold.class))).thenAnswer(invocation -> {
+            BookHold saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+        when(bookHoldRepository.findById(5L)).thenReturn(Optional.empty());
+    }
+
+    private BookHold readyHold(LocalDateTime expiresAt) {
+        BookHold hold = new BookHold(1L, 2L, 0, LocalDateTime.now().minusDays(4));
+        hold.setId(5L);
+        hold.setStatus(HoldStatus.READY);
+        hold.setBranch("main");
+        hold.setExpiresAt(expiresAt);
+        return hold;
+    }
+}
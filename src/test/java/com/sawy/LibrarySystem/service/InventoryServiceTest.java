@@ -0,0 +1,135 @@
+package com.sawy.LibrarySystem.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import com.sawy.LibrarySystem.cache.CacheDependencyIndex;
+import com.sawy.LibrarySystem.exceptionHandler.ConflictException;
+import com.sawy.LibrarySystem.inventory.AvailabilityCounters;
+import com.sawy.LibrarySystem.model.Book;
+import com.sawy.LibrarySystem.model.BookStock;
+import com.sawy.LibrarySystem.repository.BookRepository;
+import com.sawy.LibrarySystem.repository.BookStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private BookStockRepository bookStockRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AvailabilityCounters availabilityCounters;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private CacheDependencyIndex cacheDependencyIndex;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(bookStockRepository, bookRepository, availabilityCounters, holdService, cacheDependencyIndex,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("New Book Starts As One Copy At The Main Branch")
+    void addInitialCopy_UnavailableBook_CopyOnLoan() {
+        Book book = new Book("intro to java", "isbn-1", null, "genre", false, 1L);
+        book.setId(7L);
+        when(bookStockRepository.save(any(BookStock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BookStock stock = inventoryService.addInitialCopy(book);
+
+        assertEquals(BookStock.MAIN_BRANCH, stock.getBranch());
+        assertEquals(1, stock.getTotalCopies());
+        assertEquals(0, stock.getAvailableCopies());
+        verify(availabilityCounters, times(1)).set(7L, BookStock.MAIN_BRANCH, 0);
+    }
+
+    @Test
+    @DisplayName("New Book Is Counted Only Once Committed")
+    void addInitialCopy_InTransaction_CountedAfterCommit() {
+        Book book = new Book("intro to java", "isbn-1", null, "genre", true, 1L);
+        book.setId(7L);
+        when(bookStockRepository.save(any(BookStock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            inventoryService.addInitialCopy(book);
+
+            verify(availabilityCounters, never()).set(any(), any(), anyInt());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(availabilityCounters, times(1)).set(7L, BookStock.MAIN_BRANCH, 1);
+    }
+
+    @Test
+    @DisplayName("Set Total Copies Of A Branch")
+    void setTotalCopies_ExistingBranch_CountsReloaded() {
+        BookStock stock = new BookStock(7L, "downtown", 5, 4);
+        when(bookRepository.existsById(7L)).thenReturn(true);
+        when(bookStockRepository.changeTotalCopies(7L, "downtown", 5)).thenReturn(1);
+        when(bookStockRepository.findByBookIDAndBranch(7L, "downtown")).thenReturn(Optional.of(stock));
+
+        assertEquals(Optional.of(stock), inventoryService.setTotalCopies(7L, "downtown", 5));
+        verify(bookStockRepository, never()).save(any());
+        verify(availabilityCounters, times(1)).refresh(7L);
+        verify(holdService, times(1)).fillFromShelf(7L);
+        verify(cacheDependencyIndex, times(1)).invalidate(Book.class, 7L);
+    }
+
+    @Test
+    @DisplayName("Set Total Copies Of A New Branch")
+    void setTotalCopies_NewBranch_StockAdded() {
+        BookStock stock = new BookStock(7L, "downtown", 3, 3);
+        when(bookRepository.existsById(7L)).thenReturn(true);
+        when(bookStockRepository.changeTotalCopies(7L, "downtown", 3)).thenReturn(0);
+        when(bookStockRepository.findByBookIDAndBranch(7L, "downtown")).thenReturn(Optional.empty(), Optional.of(stock));
+
+        assertEquals(Optional.of(stock), inventoryService.setTotalCopies(7L, "downtown", 3));
+        verify(bookStockRepository, times(1)).save(any(BookStock.class));
+    }
+
+    @Test
+    @DisplayName("Set Fewer Copies Than Are On Loan")
+    void setTotalCopies_BelowOnLoan_Conflict() {
+        when(bookRepository.existsById(7L)).thenReturn(true);
+        when(bookStockRepository.changeTotalCopies(7L, "main", 1)).thenReturn(0);
+        when(bookStockRepository.findByBookIDAndBranch(7L, "main")).thenReturn(Optional.of(new BookStock(7L, "main", 3, 1)));
+
+        ConflictException e = assertThrows(ConflictException.class, () -> inventoryService.setTotalCopies(7L, "main", 1));
+        assertEquals("2 copies of the book are on loan at main", e.getMessage());
+        verify(availabilityCounters, never()).refresh(any());
+        verify(holdService, never()).fillFromShelf(any());
+    }
+
+    @Test
+    @DisplayName("Set Total Copies Of Non-Existing Book")
+    void setTotalCopies_NonExistingBook_Empty() {
+        when(bookRepository.existsById(7L)).thenReturn(false);
+
+        assertEquals(Optional.empty(), inventoryService.setTotalCopies(7L, "main", 1));
+        verifyNoInteractions(bookStockRepository, holdService);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sawy.LibrarySystem.transfer;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sawy.LibrarySystem.dto.BookSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordExporterTest {
+
+    // Dates as ISO strings, as Spring Boot configures the application's mapper.
+    private final RecordExporter exporter = new RecordExporter(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build());
+
+    private final BookSummary effectiveJava = new BookSummary(1L, "Effective Java", "978-013468599-1",
+            LocalDate.of(2018, Month.JANUARY, 6), "Software", true, 3L, "Joshua Bloch");
+    private final BookSummary quoted = new BookSummary(2L, "Java, \"The Good Parts\"", "978-059680323-1",
+            null, "Software", false, null, null);
+
+    @Test
+    @DisplayName("NDJSON Writes One Object Per Line")
+    void write_Ndjson_OneObjectPerLine() throws IOException {
+        String[] lines = export(DataFormat.NDJSON, effectiveJava, quoted).split("\n", -1);
+
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":1,\"title\":\"Effective Java\",\"isbn\":\"978-013468599-1\",\"publicationDate\":\"2018-01-06\","
+                + "\"genre\":\"Software\",\"available\":true,\"authorID\":3,\"authorName\":\"Joshua Bloch\"}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":2,\"title\":\"Java, \\\"The Good Parts\\\"\""));
+        assertEquals("", lines[2]);
+    }
+
+    @Test
+    @DisplayName("CSV Writes A Header And Quotes Where Needed")
+    void write_Csv_HeaderAndEscapedRows() throws IOException {
+        String csv = export(DataFormat.CSV, effectiveJava, quoted);
+
+        assertEquals("id,title,isbn,publicationDate,genre,available,authorID,authorName\r\n"
+                + "1,Effective Java,978-013468599-1,2018-01-06,Software,true,3,Joshua Bloch\r\n"
+                + "2,\"Java, \"\"The Good Parts\"\"\",978-059680323-1,,Software,false,,\r\n", csv);
+    }
+
+    @Test
+    @DisplayName("Empty Export Still Has The CSV Header")
+    void write_NoRows_HeaderOnly() throws IOException {
+        assertEquals("id,title,isbn,publicationDate,genre,available,authorID,authorName\r\n", export(DataFormat.CSV));
+    }
+
+    @Test
+    @DisplayName("Unknown Format Is Rejected")
+    void parse_UnknownFormat_Rejected() {
+        assertEquals(DataFormat.CSV, DataFormat.parse("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> DataFormat.parse("xml"));
+    }
+
+    private String export(DataFormat format, BookSummary... books) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.write(Stream.of(books), BookSummary.class, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
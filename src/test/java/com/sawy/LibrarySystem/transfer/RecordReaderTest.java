@@ -0,0 +1,73 @@
+package com.sawy.LibrarySystem.transfer;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sawy.LibrarySystem.dto.BookImportRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    private final RecordReader reader = new RecordReader(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build());
+
+    @Test
+    @DisplayName("NDJSON Rows Keep Their Line And Bad Lines Do Not Stop The Read")
+    void read_Ndjson_RowsWithLinesAndErrors() throws IOException {
+        List<RecordReader.Row<BookImportRow>> rows = read(DataFormat.NDJSON, """
+                {"title":"Effective Java","isbn":"1","publicationDate":"2018-01-06","authorName":"Joshua Bloch","id":7}
+
+                {"title":"Broken",
+                {"title":"Java Puzzlers","isbn":"2","available":false}
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).line());
+        assertEquals(new BookImportRow("Effective Java", "1", LocalDate.of(2018, Month.JANUARY, 6), null, null,
+                "Joshua Bloch", null, null), rows.get(0).value());
+        assertEquals(3, rows.get(1).line());
+        assertFalse(rows.get(1).valid());
+        assertEquals(4, rows.get(2).line());
+        assertFalse(rows.get(2).value().available());
+    }
+
+    @Test
+    @DisplayName("CSV Columns Are Matched By Header And Blank Cells Are Missing")
+    void read_Csv_ColumnsByHeader() throws IOException {
+        List<RecordReader.Row<BookImportRow>> rows = read(DataFormat.CSV, """
+                isbn,title,publicationDate,authorName,available
+                1,"Java, ""The Good Parts""\",,Joshua Bloch,true
+                2,Java Puzzlers,not-a-date,Joshua Bloch,
+                3,Java Concurrency,2006-05-19,Brian Goetz,false
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals(new BookImportRow("Java, \"The Good Parts\"", "1", null, null, true, "Joshua Bloch", null, null),
+                rows.get(0).value());
+        assertEquals(2, rows.get(0).line());
+        assertFalse(rows.get(1).valid());
+        assertEquals(3, rows.get(1).line());
+        assertEquals(LocalDate.of(2006, Month.MAY, 19), rows.get(2).value().publicationDate());
+        assertEquals(4, rows.get(2).line());
+    }
+
+    private List<RecordReader.Row<BookImportRow>> read(DataFormat format, String input) throws IOException {
+        List<RecordReader.Row<BookImportRow>> rows = new ArrayList<>();
+        try (RecordReader.Rows<BookImportRow> reader = this.reader.read(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), BookImportRow.class, format)) {
+            reader.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+}